@@ -1,6 +1,5 @@
 import java.awt.*;
-import java.io.File;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
@@ -14,7 +13,7 @@ public class AdoptionForm extends JFrame {
 
     // Data Fields
     private JLabel imagePreviewLabel;
-    private File selectedImageFile;
+    private ImageUpload.Normalized selectedImage;     // Already shrunk and stripped; this is what gets stored
     private JTextField nameField;
     private JComboBox<String> genderBox;
     private JTextField ageField;
@@ -226,46 +225,66 @@ public class AdoptionForm extends JFrame {
             return;
         }
 
-        // Prepare image bytes beforehand to be final/effectively final for lambda
-        byte[] imgData = null;
-        if (selectedImageFile != null) {
-            try {
-                imgData = Files.readAllBytes(selectedImageFile.toPath());
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Error reading image file: " + e.getMessage());
-                return;
-            }
-        }
-        final byte[] imageBytes = imgData;
+        // Read the form on the EDT; the background job only sees these copies
+        final String[] values = {
+                nameField.getText(), ageField.getText(), breedField.getText(),
+                (String) genderBox.getSelectedItem(), (String) healthBox.getSelectedItem(),
+                contactField.getText(), traitsField.getText(), descriptionTextArea.getText()
+        };
+        final byte[] photo = selectedImage != null ? selectedImage.bytes() : null;
+        final boolean ownerMode = isOwnerMode;
+        final String owner = currentUser;
 
         // SQL
-        String sql = "INSERT INTO pets_accounts (name, age, breed, gender, health_status, contact_number, personal_traits, reason_for_adoption, image, status, owner_username) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
-
-        // Use DBDual to write to both databases
-        DBDual.executeUpdateBoth(sql, stmt -> {
-            stmt.setString(1, nameField.getText());
-            stmt.setString(2, ageField.getText());
-            stmt.setString(3, breedField.getText());
-            stmt.setString(4, (String) genderBox.getSelectedItem());
-            stmt.setString(5, (String) healthBox.getSelectedItem());
-            stmt.setString(6, contactField.getText());
-            stmt.setString(7, traitsField.getText());
-            stmt.setString(8, descriptionTextArea.getText());
-
-            if (imageBytes != null) stmt.setBytes(9, imageBytes);
-            else stmt.setBytes(9, null);
-
-            stmt.setString(10, isOwnerMode ? "Owned" : "Available");
-            stmt.setString(11, currentUser);
-        });
-
-        String successMsg = isOwnerMode ? "Pet Saved to Your Profile (Synced)!" : "Pet Registered for Adoption (Synced)!";
-        JOptionPane.showMessageDialog(this, successMsg);
-
-        if (parentDashboard != null && !isOwnerMode) {
-            parentDashboard.getPawManagementPanel().reloadPets();
-        }
-        dispose();
+        String sql = "INSERT INTO pets_accounts (name, age, breed, gender, health_status, contact_number, personal_traits, reason_for_adoption, image_hash, status, owner_username, sync_uuid) VALUES (?,?,?,?,?,?,?,?,?,?,?,?)";
+        // Same id on both databases so TwoWaySync sees one pet, not two
+        final String syncId = java.util.UUID.randomUUID().toString();
+
+        submitBtn.setEnabled(false);
+
+        // Hashing and writing the photo to disk take a moment, so they run off the EDT ahead of the insert
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                // The photo was normalized when it was picked; it goes into the image store once and the pet row keeps its hash
+                final String imageHash = ImageStore.put(photo);
+
+                // Use DBDual to write to both databases
+                DBDual.executeUpdateBoth(sql, stmt -> {
+                    for (int i = 0; i < values.length; i++) {
+                        stmt.setString(i + 1, values[i]);
+                    }
+
+                    stmt.setString(9, imageHash);
+
+                    stmt.setString(10, ownerMode ? "Owned" : "Available");
+                    stmt.setString(11, owner);
+                    stmt.setString(12, syncId);
+                });
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                submitBtn.setEnabled(true);
+                try {
+                    get();
+                } catch (Exception ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    System.err.println("❌ Pet submit failed: " + cause.getMessage());
+                    JOptionPane.showMessageDialog(AdoptionForm.this, "Could not save the pet: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                String successMsg = ownerMode ? "Pet Saved to Your Profile (Synced)!" : "Pet Registered for Adoption (Synced)!";
+                JOptionPane.showMessageDialog(AdoptionForm.this, successMsg);
+
+                if (parentDashboard != null && !ownerMode) {
+                    parentDashboard.getPawManagementPanel().reloadPets();
+                }
+                dispose();
+            }
+        }.execute();
     }
 
     // --- UI Helpers ---
@@ -308,30 +327,38 @@ public class AdoptionForm extends JFrame {
         chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Images", "jpg", "png", "jpeg", "gif"));
 
         if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            selectedImageFile = chooser.getSelectedFile();
-            try {
-                byte[] imageBytes = Files.readAllBytes(selectedImageFile.toPath());
-                // WebP Check
-                if (imageBytes.length > 12 &&
-                        imageBytes[0] == (byte)0x52 && imageBytes[1] == (byte)0x49 &&
-                        imageBytes[8] == (byte)0x57 && imageBytes[9] == (byte)0x45) {
-                    imagePreviewLabel.setText("<html><center><b>WebP Format Detected</b><br>Java cannot read WebP.<br>Please open in Paint<br>and Save As .PNG</center></html>");
-                    imagePreviewLabel.setIcon(null);
-                    return;
+            Path file = chooser.getSelectedFile().toPath();
+            selectedImage = null;
+            imagePreviewLabel.setIcon(null);
+            imagePreviewLabel.setText("<html><center>Processing image...</center></html>");
+            submitBtn.setEnabled(false);
+
+            // Decode, orient, shrink and re-encode off the EDT (a phone photo takes a moment)
+            new SwingWorker<ImageUpload.Normalized, Void>() {
+                private java.awt.image.BufferedImage preview;
+
+                @Override
+                protected ImageUpload.Normalized doInBackground() throws Exception {
+                    ImageUpload.Normalized n = ImageUpload.normalize(file);
+                    preview = Thumbnails.render(n.bytes(), Thumbnails.DETAIL);
+                    return n;
                 }
-                ImageIcon icon = new ImageIcon(imageBytes);
-                if (icon.getImageLoadStatus() == MediaTracker.COMPLETE && icon.getIconWidth() > 0) {
-                    Image scaled = icon.getImage().getScaledInstance(280, 280, Image.SCALE_SMOOTH);
-                    imagePreviewLabel.setText("");
-                    imagePreviewLabel.setIcon(new ImageIcon(scaled));
-                } else {
-                    imagePreviewLabel.setText("<html><center>File Corrupted<br>or Unsupported</center></html>");
-                    imagePreviewLabel.setIcon(null);
+
+                @Override
+                protected void done() {
+                    submitBtn.setEnabled(true);
+                    try {
+                        selectedImage = get();
+                        Image scaled = preview.getScaledInstance(280, 280, Image.SCALE_SMOOTH);
+                        imagePreviewLabel.setText("");
+                        imagePreviewLabel.setIcon(new ImageIcon(scaled));
+                    } catch (Exception ex) {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        imagePreviewLabel.setText("<html><center><b>Image Rejected</b><br>" + cause.getMessage() + "</center></html>");
+                        imagePreviewLabel.setIcon(null);
+                    }
                 }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                imagePreviewLabel.setText("Read Error");
-            }
+            }.execute();
         }
     }
     public void setParentDashboard(Dashboard d) { this.parentDashboard = d; }
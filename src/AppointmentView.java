@@ -1,13 +1,14 @@
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
 import java.sql.*;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
-import javax.imageio.ImageIO;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.swing.*;
 import javax.swing.border.*;
 import javax.swing.table.*;
@@ -298,7 +299,7 @@ public class AppointmentView extends JPanel {
         headerWrapper.add(searchField, BorderLayout.EAST);
         headerWrapper.setBorder(new EmptyBorder(20, 25, 20, 25));
 
-        String[] cols = {"Pet Info", "Owner", "Doctor", "Date & Time", "Status", "Actions", "ID", "ImageBytes"};
+        String[] cols = {"Pet Info", "Owner", "Doctor", "Date & Time", "Status", "Actions", "ID", "ImageBytes", "PetId"};
         tableModel = new DefaultTableModel(cols, 0) {
             public boolean isCellEditable(int row, int col) { return col == 5; }
         };
@@ -310,6 +311,7 @@ public class AppointmentView extends JPanel {
         appointmentTable.getTableHeader().setReorderingAllowed(false);
         appointmentTable.getTableHeader().setResizingAllowed(false);
 
+        appointmentTable.removeColumn(appointmentTable.getColumnModel().getColumn(8));
         appointmentTable.removeColumn(appointmentTable.getColumnModel().getColumn(7));
         appointmentTable.removeColumn(appointmentTable.getColumnModel().getColumn(6));
 
@@ -340,22 +342,23 @@ public class AppointmentView extends JPanel {
         return card;
     }
 
+    static final String APPOINTMENTS_SQL = "SELECT v.appt_id, v.pet_name, v.owner_name, v.vet_name, v.appt_date, v.appt_time, v.status, p.pet_id " +
+            "FROM vet_appointments v " +
+            "LEFT JOIN pets_accounts p ON v.pet_name = p.name AND p.owner_username = v.username " +
+            "WHERE v.username = ? ORDER BY v.appt_date DESC";
+
+    // Rows first (ids only, no image columns in the join), avatars afterwards in one batched call
     public void loadAppointments() {
-        SwingWorker<Void, Void> worker = new SwingWorker<>() {
+        SwingWorker<List<Object[]>, Void> worker = new SwingWorker<>() {
             @Override
-            protected Void doInBackground() {
-                tableModel.setRowCount(0);
-                String sql = "SELECT v.appt_id, v.pet_name, v.owner_name, v.vet_name, v.appt_date, v.appt_time, v.status, p.image " +
-                        "FROM vet_appointments v " +
-                        "LEFT JOIN pets_accounts p ON v.pet_name = p.name AND p.owner_username = v.username " +
-                        "WHERE v.username = ? ORDER BY v.appt_date DESC";
-
+            protected List<Object[]> doInBackground() {
+                List<Object[]> rows = new ArrayList<>();
                 try (Connection conn = DBConnector.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                     PreparedStatement stmt = conn.prepareStatement(APPOINTMENTS_SQL)) {
                     stmt.setString(1, currentUser);
                     ResultSet rs = stmt.executeQuery();
                     while (rs.next()) {
-                        tableModel.addRow(new Object[]{
+                        rows.add(new Object[]{
                                 rs.getString("pet_name"),
                                 rs.getString("owner_name"),
                                 rs.getString("vet_name"),
@@ -363,21 +366,52 @@ public class AppointmentView extends JPanel {
                                 rs.getString("status"),
                                 "Actions",
                                 rs.getInt("appt_id"),
-                                rs.getBytes("image")
+                                null,
+                                rs.getInt("pet_id")
                         });
                     }
                 } catch (Exception e) { e.printStackTrace(); }
-                return null;
+                return rows;
             }
             @Override
             protected void done() {
+                tableModel.setRowCount(0);
+                try {
+                    for (Object[] row : get()) tableModel.addRow(row);
+                } catch (Exception e) { e.printStackTrace(); }
                 // Refresh stats AFTER table loads to ensure sync
                 updateStats();
+                loadAvatars();
             }
         };
         worker.execute();
     }
 
+    // Fills the hidden ImageBytes column; rows show initials until then
+    private void loadAvatars() {
+        Set<Integer> petIds = new HashSet<>();
+        for (int r = 0; r < tableModel.getRowCount(); r++) petIds.add((Integer) tableModel.getValueAt(r, 8));
+        if (petIds.isEmpty()) return;
+
+        new SwingWorker<Map<Integer, byte[]>, Void>() {
+            @Override
+            protected Map<Integer, byte[]> doInBackground() {
+                return ImageStore.loadPetThumbnails(petIds, Thumbnails.AVATAR);
+            }
+            @Override
+            protected void done() {
+                try {
+                    Map<Integer, byte[]> images = get();
+                    // The table may have been reloaded meanwhile; match by pet, not by row
+                    for (int r = 0; r < tableModel.getRowCount(); r++) {
+                        byte[] img = images.get((Integer) tableModel.getValueAt(r, 8));
+                        if (img != null) tableModel.setValueAt(img, r, 7);
+                    }
+                } catch (Exception e) { e.printStackTrace(); }
+            }
+        }.execute();
+    }
+
     // --- [FIXED] STATS LOGIC ---
     private void updateStats() {
         SwingWorker<int[], Void> worker = new SwingWorker<>() {
@@ -497,19 +531,15 @@ public class AppointmentView extends JPanel {
             byte[] imgBytes = (byte[]) table.getModel().getValueAt(modelRow, 7);
 
             if (imgBytes != null && imgBytes.length > 0) {
-                try {
-                    InputStream in = new ByteArrayInputStream(imgBytes);
-                    Image img = ImageIO.read(in).getScaledInstance(45, 45, Image.SCALE_SMOOTH);
-                    BufferedImage masked = new BufferedImage(45, 45, BufferedImage.TYPE_INT_ARGB);
-                    Graphics2D g2 = masked.createGraphics();
-                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                    g2.setClip(new Ellipse2D.Float(0, 0, 45, 45));
-                    g2.drawImage(img, 0, 0, 45, 45, null);
-                    g2.dispose();
+                // Renderers run on every repaint; the cache makes that a lookup instead of a decode
+                BufferedImage masked = ImageCache.circle(imgBytes, 45);
+                if (masked != null) {
                     avatar.setIcon(new ImageIcon(masked));
                     avatar.setText("");
                     avatar.setOpaque(false);
-                } catch(Exception e) { setInitials(petName); }
+                } else {
+                    setInitials(petName);
+                }
             } else {
                 setInitials(petName);
             }
@@ -46,7 +46,21 @@ public class AutoInstaller {
                         DatabaseSetup.main(null);
                     }
                 }
+
+                // 4. Bring an older/imported schema up to date (no-op once it's current)
+                DatabaseSetup.ensureSchema(dbConn);
             }
+
+            // 5. Same for the cloud copy, in the background so a slow link doesn't hold up the login window
+            Thread onlineMigration = new Thread(() -> {
+                try (Connection conn = DBConnector.getOnlineConnection()) {
+                    DatabaseSetup.ensureSchema(conn);
+                } catch (Exception e) {
+                    System.err.println("⚠️ Online schema check skipped: " + e.getMessage());
+                }
+            }, "PawTrack-OnlineMigration");
+            onlineMigration.setDaemon(true);
+            onlineMigration.start();
         } catch (Exception e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(null, "Database Connection Error:\n" + e.getMessage());
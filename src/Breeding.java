@@ -1,12 +1,11 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.Map;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.plaf.basic.BasicScrollBarUI;
@@ -18,10 +17,17 @@ public class Breeding extends JPanel {
 
     private String petIdCol = "pet_id";
 
+    // Match Maker candidates of one gender (EXPLAINed by QueryPlanCheck)
+    static String candidatesSql(String petIdCol) {
+        return "SELECT " + petIdCol + ", name, breed, age, gender, health_status, contact_number, " +
+                "personal_traits, reason_for_adoption " +
+                "FROM pets_accounts WHERE gender = ? AND status = 'Pairing'";
+    }
+
     // Core UI
     private CardLayout cardLayout;
     private JPanel contentPanel;
-    private JPanel gridPanel;
+    private VirtualGrid<BreedingCardData> gridPanel;
     private JButton mainActionButton;
 
     // Match Maker Components
@@ -41,7 +47,8 @@ public class Breeding extends JPanel {
     private int currentIndex = 0;
 
     // [FIX] Defined only once here
-    private List<BreedingCardData> allPairs = new ArrayList<>();
+    private String pairQuery = "";
+    private Timer searchDebounce;
 
     private enum MatchStep { SELECT_FEMALE, SELECT_MALE, CONFIRMATION }
     private MatchStep currentStep = MatchStep.SELECT_FEMALE;
@@ -433,25 +440,36 @@ public class Breeding extends JPanel {
         searchField.addKeyListener(new KeyAdapter() {
             @Override
             public void keyReleased(KeyEvent e) {
-                filterGrid(searchField.getText());
+                // Searching is a query now; wait for a pause in typing instead of hitting the DB per key
+                searchDebounce.restart();
             }
         });
 
+        searchDebounce = new Timer(250, e -> filterGrid(searchField.getText()));
+        searchDebounce.setRepeats(false);
+
         searchWrapper.add(searchIcon, BorderLayout.WEST);
         searchWrapper.add(searchField, BorderLayout.CENTER);
         topBar.add(searchWrapper);
 
         panel.add(topBar, BorderLayout.NORTH);
 
-        gridPanel = new JPanel(new GridLayout(0, 3, 25, 25));
-        gridPanel.setOpaque(false);
+        // Only the cards around the viewport exist; scrolling rebinds them to other pairs
+        gridPanel = new VirtualGrid<>(300, 260, 25, 30, new VirtualGrid.CardRenderer<BreedingCardData>() {
+            @Override
+            public JComponent create() {
+                return new BreedingListCard();
+            }
 
-        JPanel gridWrapper = new JPanel(new BorderLayout());
-        gridWrapper.setOpaque(false);
-        gridWrapper.setBorder(new EmptyBorder(20, 0, 0, 0));
-        gridWrapper.add(gridPanel, BorderLayout.NORTH);
+            @Override
+            public void bind(JComponent card, BreedingCardData data) {
+                ((BreedingListCard) card).bind(data);
+            }
+        });
+        gridPanel.setEmptyText("No breeding pairs found.");
+        gridPanel.setBorder(new EmptyBorder(20, 0, 0, 0));
 
-        JScrollPane scroll = new JScrollPane(gridWrapper);
+        JScrollPane scroll = new JScrollPane(gridPanel);
         scroll.setBorder(null);
         scroll.setOpaque(false);
         scroll.getViewport().setOpaque(false);
@@ -463,35 +481,20 @@ public class Breeding extends JPanel {
     }
 
     private void filterGrid(String query) {
-        gridPanel.removeAll();
-        String q = query.toLowerCase().trim();
-
-        for (BreedingCardData data : allPairs) {
-            boolean matches = false;
-            if (data.female != null && data.female.toLowerCase().contains(q)) matches = true;
-            if (data.male != null && data.male.toLowerCase().contains(q)) matches = true;
-            if (data.status != null && data.status.toLowerCase().contains(q)) matches = true;
-            if (data.date != null && data.date.contains(q)) matches = true;
-            if (data.due != null && data.due.contains(q)) matches = true;
-
-            if (matches) {
-                gridPanel.add(new BreedingListCard(data));
-            }
-        }
-
-        if (gridPanel.getComponentCount() == 0) {
-            JLabel empty = new JLabel("No breeding pairs found.", SwingConstants.CENTER);
-            empty.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-            empty.setForeground(new Color(120, 120, 120));
-            gridPanel.add(empty);
-        }
-
-        gridPanel.revalidate();
-        gridPanel.repaint();
+        pairQuery = query.toLowerCase().trim();
+        gridPanel.reset(this::fetchPairsAfter);
     }
 
+    // Built once per grid slot; bind() points it at another pair
     private class BreedingListCard extends JPanel {
-        public BreedingListCard(BreedingCardData data) {
+        private BreedingCardData data;
+        private final JLabel imgF = createMaterialThumbnail();
+        private final JLabel imgM = createMaterialThumbnail();
+        private final JLabel names = new JLabel("", SwingConstants.CENTER);
+        private final JLabel status = new JLabel("", SwingConstants.CENTER);
+        private final JLabel date = new JLabel("", SwingConstants.CENTER);
+
+        public BreedingListCard() {
             setLayout(new BorderLayout());
             setOpaque(false);
             setPreferredSize(new Dimension(300, 260));
@@ -541,7 +544,9 @@ public class Breeding extends JPanel {
             btnRemove.setFocusPainted(false);
             btnRemove.setCursor(new Cursor(Cursor.HAND_CURSOR));
             btnRemove.setPreferredSize(new Dimension(28, 28));
-            btnRemove.addActionListener(e -> deletePair(data.id));
+            btnRemove.addActionListener(e -> {
+                if (data != null) deletePair(data.id);
+            });
 
             topBar.add(btnRemove, BorderLayout.EAST);
             card.add(topBar, BorderLayout.NORTH);
@@ -549,10 +554,8 @@ public class Breeding extends JPanel {
             JPanel imgRow = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
             imgRow.setOpaque(false);
 
-            JLabel imgF = createMaterialThumbnail(data.imgFemale);
             JLabel heart = new JLabel("❤️");
             heart.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 28));
-            JLabel imgM = createMaterialThumbnail(data.imgMale);
 
             imgRow.add(imgF);
             imgRow.add(heart);
@@ -564,15 +567,12 @@ public class Breeding extends JPanel {
             info.setOpaque(false);
             info.setBorder(new EmptyBorder(10, 0, 0, 0));
 
-            JLabel names = new JLabel(data.female + " & " + data.male, SwingConstants.CENTER);
             names.setFont(new Font("Segoe UI", Font.BOLD, 15));
             names.setForeground(new Color(50, 50, 50));
 
-            JLabel status = new JLabel(data.status, SwingConstants.CENTER);
             status.setFont(new Font("Segoe UI", Font.PLAIN, 13));
             status.setForeground(new Color(34, 197, 94));
 
-            JLabel date = new JLabel("Due: " + data.due, SwingConstants.CENTER);
             date.setFont(new Font("Segoe UI", Font.PLAIN, 13));
             date.setForeground(new Color(120, 120, 120));
 
@@ -583,22 +583,32 @@ public class Breeding extends JPanel {
             card.add(info, BorderLayout.SOUTH);
             add(card, BorderLayout.CENTER);
         }
+
+        void bind(BreedingCardData data) {
+            this.data = data;
+            setMaterialThumbnail(imgF, data.imgFemale);
+            setMaterialThumbnail(imgM, data.imgMale);
+            names.setText(data.female + " & " + data.male);
+            status.setText(data.status);
+            date.setText("Due: " + data.due);
+        }
     }
 
-    private JLabel createMaterialThumbnail(byte[] imgBytes) {
+    private JLabel createMaterialThumbnail() {
         JLabel lbl = new JLabel();
         lbl.setHorizontalAlignment(SwingConstants.CENTER);
         lbl.setPreferredSize(new Dimension(90, 90));
-        ImageIcon icon = createCircularImage(imgBytes, 90);
-        if (icon != null) {
-            lbl.setIcon(icon);
-        } else {
-            lbl.setText("🐾");
-            lbl.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 32));
-        }
+        lbl.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 32));
         return lbl;
     }
 
+    // Photo, or the paw placeholder when the pet has none
+    private void setMaterialThumbnail(JLabel lbl, byte[] imgBytes) {
+        ImageIcon icon = createCircularImage(imgBytes, 90);
+        lbl.setIcon(icon);
+        lbl.setText(icon != null ? null : "🐾");
+    }
+
     private JPanel createMaterialBadge(String text) {
         JPanel bg = new JPanel() {
             @Override
@@ -646,28 +656,15 @@ public class Breeding extends JPanel {
     }
 
     private void resolveSchema() {
-        try (Connection conn = DBConnector.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM pets_accounts LIMIT 1")) {
-            ResultSetMetaData meta = rs.getMetaData();
-            for (int i = 1; i <= meta.getColumnCount(); i++) {
-                if ("id".equalsIgnoreCase(meta.getColumnName(i))) {
-                    petIdCol = "id";
-                    return;
-                }
-            }
+        try (Connection conn = DBConnector.getConnection()) {
+            if (SchemaMigrator.schema(conn).hasColumn("pets_accounts", "id")) petIdCol = "id";
         } catch (Exception e) {}
     }
 
+    // female_id / male_id now come from migration 6 in DatabaseSetup
     private void ensureDatabaseSchema() {
-        try (Connection conn = DBConnector.getConnection();
-             Statement stmt = conn.createStatement()) {
-            try {
-                stmt.executeQuery("SELECT female_id FROM active_breeding_pairs LIMIT 1");
-            } catch (SQLException e) {
-                stmt.executeUpdate("ALTER TABLE active_breeding_pairs ADD COLUMN female_id INT");
-                stmt.executeUpdate("ALTER TABLE active_breeding_pairs ADD COLUMN male_id INT");
-            }
+        try (Connection conn = DBConnector.getConnection()) {
+            DatabaseSetup.ensureSchema(conn);
         } catch (Exception ignored) {}
     }
 
@@ -729,10 +726,7 @@ public class Breeding extends JPanel {
             protected List<PetData> doInBackground() throws Exception {
                 List<PetData> list = new ArrayList<>();
                 // [UPDATED] Query for pets explicitly marked as 'Pairing'
-                String sql =
-                        "SELECT " + petIdCol + ", name, breed, age, gender, health_status, contact_number, " +
-                                "personal_traits, reason_for_adoption, image " +
-                                "FROM pets_accounts WHERE gender = ? AND status = 'Pairing'";
+                String sql = candidatesSql(petIdCol);
 
                 try (Connection conn = DBConnector.getConnection();
                      PreparedStatement stmt = conn.prepareStatement(sql)) {
@@ -749,10 +743,13 @@ public class Breeding extends JPanel {
                                 rs.getString("contact_number"),
                                 rs.getString("personal_traits"),
                                 rs.getString("reason_for_adoption"),
-                                rs.getBytes("image")
+                                null
                         ));
                     }
                 }
+                // Photos for the whole batch in one go, instead of a lookup per candidate
+                Map<Integer, byte[]> images = ImageStore.loadPetThumbnails(list.stream().map(PetData::id).toList(), petIdCol, Thumbnails.DETAIL);
+                list.replaceAll(p -> p.withImage(images.get(p.id())));
                 return list;
             }
 
@@ -899,66 +896,64 @@ public class Breeding extends JPanel {
     }
 
     public void loadBreedingPairs() {
-        gridPanel.removeAll();
-        allPairs.clear();
-        SwingWorker<List<BreedingCardData>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<BreedingCardData> doInBackground() throws Exception {
-                List<BreedingCardData> list = new ArrayList<>();
-                String sql =
-                        "SELECT abp.pair_id, abp.female_pet_name, abp.male_pet_name, abp.pairing_date, " +
-                                "abp.expected_due_date, abp.status, MAX(f.image) as imgF, MAX(m.image) as imgM " +
-                                "FROM active_breeding_pairs abp " +
-                                "LEFT JOIN pets_accounts f ON (abp.female_id = f." + petIdCol + " OR (abp.female_id IS NULL AND abp.female_pet_name = f.name)) " +
-                                "LEFT JOIN pets_accounts m ON (abp.male_id = m." + petIdCol + " OR (abp.male_id IS NULL AND abp.male_pet_name = m.name)) " +
-                                "GROUP BY abp.pair_id ORDER BY abp.pairing_date DESC";
-                try (Connection conn = DBConnector.getConnection();
-                     Statement stmt = conn.createStatement();
-                     ResultSet rs = stmt.executeQuery(sql)) {
-                    while (rs.next()) {
-                        list.add(new BreedingCardData(
-                                rs.getInt("pair_id"),
-                                rs.getString("female_pet_name"),
-                                rs.getString("male_pet_name"),
-                                rs.getString("pairing_date"),
-                                rs.getString("expected_due_date"),
-                                rs.getString("status"),
-                                rs.getBytes("imgF"),
-                                rs.getBytes("imgM")
-                        ));
-                    }
-                }
-                return list;
+        gridPanel.reset(this::fetchPairsAfter);
+    }
+
+    // One page of pairs, newest first: keyset on pair_id so page N costs the same as page 1
+    private List<BreedingCardData> fetchPairsAfter(BreedingCardData last, int limit) throws SQLException {
+        List<BreedingCardData> list = new ArrayList<>();
+        String q = pairQuery;
+        String sql =
+                "SELECT abp.pair_id, abp.female_pet_name, abp.male_pet_name, abp.pairing_date, " +
+                        "abp.expected_due_date, abp.status, " +
+                        "MAX(f." + petIdCol + ") as idF, MAX(m." + petIdCol + ") as idM " +
+                        "FROM active_breeding_pairs abp " +
+                        "LEFT JOIN pets_accounts f ON (abp.female_id = f." + petIdCol + " OR (abp.female_id IS NULL AND abp.female_pet_name = f.name)) " +
+                        "LEFT JOIN pets_accounts m ON (abp.male_id = m." + petIdCol + " OR (abp.male_id IS NULL AND abp.male_pet_name = m.name)) " +
+                        "WHERE abp.pair_id < ? " +
+                        (q.isEmpty() ? "" : "AND (LOWER(abp.female_pet_name) LIKE ? OR LOWER(abp.male_pet_name) LIKE ? " +
+                                "OR LOWER(abp.status) LIKE ? OR abp.pairing_date LIKE ? OR abp.expected_due_date LIKE ?) ") +
+                        "GROUP BY abp.pair_id ORDER BY abp.pair_id DESC LIMIT ?";
+        try (Connection conn = DBConnector.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setInt(i++, last == null ? Integer.MAX_VALUE : last.id());
+            if (!q.isEmpty()) {
+                String like = "%" + q + "%";
+                for (int n = 0; n < 5; n++) pstmt.setString(i++, like);
             }
-            @Override
-            protected void done() {
-                try {
-                    allPairs = get();
-                    filterGrid("");
-                } catch (Exception e) { e.printStackTrace(); }
+            pstmt.setInt(i, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new BreedingCardData(
+                            rs.getInt("pair_id"),
+                            rs.getString("female_pet_name"),
+                            rs.getString("male_pet_name"),
+                            rs.getString("pairing_date"),
+                            rs.getString("expected_due_date"),
+                            rs.getString("status"),
+                            rs.getInt("idF"),
+                            rs.getInt("idM"),
+                            null, null
+                    ));
+                }
             }
-        };
-        worker.execute();
+        }
+        // The GROUP BY only carries ids; thumbnails for the page come from one batched call
+        List<Integer> petIds = new ArrayList<>();
+        for (BreedingCardData d : list) {
+            petIds.add(d.femaleId());
+            petIds.add(d.maleId());
+        }
+        Map<Integer, byte[]> images = ImageStore.loadPetThumbnails(petIds, petIdCol, Thumbnails.SMALL);
+        list.replaceAll(d -> d.withImages(images.get(d.femaleId()), images.get(d.maleId())));
+        return list;
     }
 
     private ImageIcon createCircularImage(byte[] bytes, int diameter) {
         if (bytes == null || bytes.length == 0) return null;
-        try {
-            BufferedImage src = ImageIO.read(new ByteArrayInputStream(bytes));
-            if (src == null) return null;
-            Image scaled = src.getScaledInstance(diameter, diameter, Image.SCALE_SMOOTH);
-            BufferedImage mask = new BufferedImage(diameter, diameter, BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = mask.createGraphics();
-            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2.fillOval(0, 0, diameter, diameter);
-            g2.dispose();
-            BufferedImage output = new BufferedImage(diameter, diameter, BufferedImage.TYPE_INT_ARGB);
-            g2 = output.createGraphics();
-            g2.setClip(new java.awt.geom.Ellipse2D.Float(0, 0, diameter, diameter));
-            g2.drawImage(scaled, 0, 0, null);
-            g2.dispose();
-            return new ImageIcon(output);
-        } catch (Exception e) { return null; }
+        BufferedImage circular = ImageCache.circle(bytes, diameter);
+        return circular != null ? new ImageIcon(circular) : null;
     }
 
     private class BreedingDetailCard extends JPanel {
@@ -995,11 +990,19 @@ public class Breeding extends JPanel {
     }
 
     record PetData(int id, String name, String breed, String age, String gender,
-                   String health, String contact, String traits, String desc, byte[] image) {}
+                   String health, String contact, String traits, String desc, byte[] image) {
+        PetData withImage(byte[] img) {
+            return new PetData(id, name, breed, age, gender, health, contact, traits, desc, img);
+        }
+    }
 
     record BreedingCardData(int id, String female, String male,
                             String date, String due, String status,
-                            byte[] imgFemale, byte[] imgMale) {}
+                            int femaleId, int maleId, byte[] imgFemale, byte[] imgMale) {
+        BreedingCardData withImages(byte[] female, byte[] male) {
+            return new BreedingCardData(id, this.female, this.male, date, due, status, femaleId, maleId, female, male);
+        }
+    }
 
     public static void main(String[] args) {
         SwingUtilities.invokeLater(DemoRunner::launch);
@@ -5,11 +5,18 @@ import java.awt.event.*;
 import java.awt.geom.*;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.net.URL;
-import javax.imageio.ImageIO;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ChatOverlay extends JPanel {
 
@@ -27,7 +34,7 @@ public class ChatOverlay extends JPanel {
     private JButton fabButton;
     private JPanel chatWindow;
     private JPanel userListPanel;
-    private JPanel conversationPanel;
+    private MessageList conversationPanel;
 
     // Fixed Scroll Variable
     private JScrollPane msgScrollPane;
@@ -39,20 +46,67 @@ public class ChatOverlay extends JPanel {
     private JButton backBtn;
 
     private Image chatIconImage;
-    private static final String ICON_FILENAME = "Gemini_Generated_Image_55spsm55spsm55sp.png";
 
     private boolean isExpanded = false;
     private String currentUser;
+    private final String sessionToken;   // Sent with the relay SUB; null = no live chat, polling only
     private String currentChatPartner = null;
     private Timer poller;
 
+    // --- INCREMENTAL POLLING ---
+    // Only messages newer than lastSeenId are fetched; the interval stretches while the chat is quiet
+    private static final int POLL_MIN_MS = 1500;
+    private static final int POLL_MAX_MS = 15000;
+    private static final int HISTORY_PAGE = 50;     // Opening a chat loads the newest page; scrolling up loads the rest
+    private long lastSeenId = 0;
+    private int conversationGen = 0;     // Bumped when the open conversation changes, so a late fetch is dropped
+    private int recentGen = 0;           // Same for the chat list
+    private boolean fetching = false;
+    private boolean refetch = false;     // Asked again mid-fetch (e.g. we just sent): go again once it lands
+    private long lastFetchAt = 0;        // When fetchNewMessages() last went to the database
+
+    private record ChatMessage(long id, String sender, String text, String clientId) {}
+
+    // --- LIVE RELAY ---
+    // Only when we're pinned to a LAN host (our chat is in its database). While connected, new messages
+    // are pushed by the host's ChatRelay and the poller only catches up every POLL_MAX_MS (messages
+    // stored straight into the database by clients without the relay aren't pushed)
+    private volatile ChatRelay.Client relay;
+
+    // --- SEND PIPELINE ---
+    // Sends never touch the network on the EDT: an optimistic bubble goes up at once and one writer
+    // thread stores whatever was typed in the last few ms as a single batch
+    private static final long SEND_COALESCE_MS = 40;
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "PawTrack-ChatWriter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private record Outgoing(long localId, String clientId, String receiver, String text) {}
+
+    private final Queue<Outgoing> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Handed to the relay and not yet echoed back: still SENDING after this long = FAILED (click to retry)
+    private static final long SEND_TIMEOUT_MS = 10_000;
+    private final Map<Long, Object> relayAttempts = new ConcurrentHashMap<>();   // localId -> latest attempt
+    // localId -> the message's UUID (messages.client_msg_id) for bubbles not confirmed yet, SENDING or FAILED.
+    // A retry reuses it, so the store returns the stored row instead of a copy; fetches confirm by it. EDT only.
+    private final Map<Long, String> unconfirmed = new HashMap<>();
+    private long nextLocalId = -1;      // Pending bubbles get negative ids until the DB assigns one
+
     private static final String AI_USERNAME = "paw";
     private static final String AI_DISPLAY_NAME = "Paw Assistant";
 
     private Map<String, List<String>> aiHistory = new HashMap<>();
 
     public ChatOverlay(String currentUser) {
+        this(currentUser, null);
+    }
+
+    public ChatOverlay(String currentUser, String sessionToken) {
         this.currentUser = currentUser;
+        this.sessionToken = sessionToken;
 
         loadCustomIcon();
         initThemes();
@@ -65,18 +119,75 @@ public class ChatOverlay extends JPanel {
         createFabButton();
 
         poller = new Timer(3000, e -> {
+            if (relay != null && relay.isConnected() && System.currentTimeMillis() - lastFetchAt < POLL_MAX_MS) return;
             if (isExpanded && currentChatPartner != null && !currentChatPartner.equals(AI_USERNAME)) {
-                loadRealMessages(currentChatPartner);
+                fetchNewMessages();
             }
         });
         poller.start();
     }
 
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        // No token (ChatOverlay(String), the main() test windows): the relay would only reject us, forever
+        if (relay == null && sessionToken != null && DBConnector.isPinnedLocal()) {
+            relay = ChatRelay.Client.connect(DBConnector.getServerIP(), ChatRelay.PORT, currentUser, sessionToken, new ChatRelay.Listener() {
+                @Override
+                public void onMessage(ChatRelay.Message m, long previousId, long localId) { onRelayMessage(m, previousId, localId); }
+
+                @Override
+                public void onRejected(long localId) {
+                    relayAttempts.remove(localId);
+                    conversationPanel.fail(localId);
+                }
+
+                @Override
+                public void onConnectionChanged(boolean connected) {
+                    System.out.println(connected ? "💬 [ChatOverlay] Live chat connected" : "⚠️ [ChatOverlay] Live chat lost, polling instead");
+                    // Either way, catch up on whatever arrived while we weren't listening
+                    poller.setDelay(POLL_MIN_MS);
+                    if (isExpanded && currentChatPartner != null && !currentChatPartner.equals(AI_USERNAME)) fetchNewMessages();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (relay != null) {
+            relay.close();
+            relay = null;
+        }
+        super.removeNotify();
+    }
+
+    // Pushed by the relay (on the EDT). Messages for other conversations are picked up when they're opened.
+    // 'localId' != 0: one we sent, stored now; its bubble is confirmed even while a fetch is in flight.
+    private void onRelayMessage(ChatRelay.Message m, long previousId, long localId) {
+        if (localId != 0) confirmOwn(localId, m.id());
+        if (currentChatPartner == null || currentChatPartner.equals(AI_USERNAME)) return;
+        boolean mine = m.sender().equalsIgnoreCase(currentUser) && m.receiver().equalsIgnoreCase(currentChatPartner);
+        boolean theirs = m.sender().equalsIgnoreCase(currentChatPartner) && m.receiver().equalsIgnoreCase(currentUser);
+        if (!mine && !theirs) return;
+        if (fetching) {
+            refetch = true;         // The cursor query in flight may or may not include it; go again after
+            return;
+        }
+        if (m.id() <= lastSeenId) return;
+        if (previousId != lastSeenId) {
+            // Something in this conversation never reached us as a push: moving the cursor past it
+            // would lose it for good, so let the cursor query pick everything up instead
+            fetchNewMessages();
+            return;
+        }
+        addMessageBubble(m.id(), m.text(), mine);
+        lastSeenId = m.id();
+        scrollToBottom();
+    }
+
     private void loadCustomIcon() {
-        try {
-            URL url = getClass().getResource("/image/" + ICON_FILENAME);
-            if (url != null) chatIconImage = ImageIO.read(url);
-        } catch (Exception e) { }
+        chatIconImage = ResourceImages.get(ResourceImages.CHAT_ICON);
     }
 
     private void initThemes() {
@@ -265,16 +376,11 @@ public class ChatOverlay extends JPanel {
         JPanel chatView = new JPanel(new BorderLayout());
         chatView.setOpaque(false);
 
-        conversationPanel = new JPanel();
-        conversationPanel.setLayout(new BoxLayout(conversationPanel, BoxLayout.Y_AXIS));
-        conversationPanel.setOpaque(false);
-        conversationPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
-
-        JPanel conversationWrapper = new JPanel(new BorderLayout());
-        conversationWrapper.setOpaque(false);
-        conversationWrapper.add(conversationPanel, BorderLayout.NORTH);
+        conversationPanel = new MessageList();
+        conversationPanel.setRetryHandler(this::retrySend);
+        applyBubbleColors();
 
-        msgScrollPane = new JScrollPane(conversationWrapper);
+        msgScrollPane = new JScrollPane(conversationPanel);
         msgScrollPane.setBorder(null);
         msgScrollPane.setOpaque(false);
         msgScrollPane.getViewport().setOpaque(false);
@@ -339,6 +445,11 @@ public class ChatOverlay extends JPanel {
         backBtn.setForeground(currentTheme.textMain);
         inputField.setForeground(currentTheme.textMain);
         inputField.setCaretColor(currentTheme.textMain);
+        applyBubbleColors();
+    }
+
+    private void applyBubbleColors() {
+        conversationPanel.setColors(currentTheme.selfBubble, currentTheme.selfText, currentTheme.otherBubble, currentTheme.otherText);
     }
 
     public void updateComponentPositions() {
@@ -356,13 +467,15 @@ public class ChatOverlay extends JPanel {
         isExpanded = !isExpanded;
         chatWindow.setVisible(isExpanded);
         if (isExpanded) {
-            loadRecentChats();
             showUserList();
         }
     }
 
     private void showUserList() {
+        String left = currentChatPartner;
         currentChatPartner = null;
+        conversationGen++;
+        loadRecentChats(left == null || left.equals(AI_USERNAME) ? null : left);
         chatHeaderTitle.setText("Chats");
         backBtn.setVisible(false);
         cardLayout.show((Container) ((JPanel)chatWindow.getComponent(0)).getComponent(1), "USERS");
@@ -374,14 +487,25 @@ public class ChatOverlay extends JPanel {
         backBtn.setVisible(true);
         cardLayout.show((Container) ((JPanel)chatWindow.getComponent(0)).getComponent(1), "CHAT");
 
-        conversationPanel.removeAll();
-        conversationPanel.revalidate();
-        conversationPanel.repaint();
+        conversationPanel.clear();
+        unconfirmed.clear();
+        conversationGen++;
+        lastSeenId = 0;
+        fetching = false;
+        refetch = false;
 
         if (partnerName.equals(AI_USERNAME)) {
             loadAIMessages();
         } else {
-            loadRealMessages(partnerName);
+            poller.setDelay(POLL_MIN_MS);
+            fetchNewMessages();     // lastSeenId = 0: the first fetch is the history
+            WRITER.execute(() -> {
+                try {
+                    Conversations.markRead(currentUser, partnerName);
+                } catch (Exception e) {
+                    System.err.println("⚠️ [ChatOverlay] Could not clear unread for " + partnerName + ": " + e.getMessage());
+                }
+            });
         }
     }
 
@@ -425,68 +549,141 @@ public class ChatOverlay extends JPanel {
         }
     }
 
-    private void loadRecentChats() {
-        userListPanel.removeAll();
-        userListPanel.add(createUserRow(AI_USERNAME, AI_DISPLAY_NAME));
+    // Chat list from the conversations summary (one indexed read); 'justLeft' is marked read first
+    // so its badge doesn't come back for messages we just saw
+    private void loadRecentChats(String justLeft) {
+        int gen = ++recentGen;
+        new SwingWorker<List<Conversations.Summary>, Void>() {
+            @Override
+            protected List<Conversations.Summary> doInBackground() throws Exception {
+                if (justLeft != null) Conversations.markRead(currentUser, justLeft);
+                return Conversations.recent(currentUser);
+            }
 
-        String sql = "SELECT DISTINCT CASE " +
-                "WHEN sender = ? THEN receiver " +
-                "ELSE sender END AS partner " +
-                "FROM messages " +
-                "WHERE sender = ? OR receiver = ?";
+            @Override
+            protected void done() {
+                if (gen != recentGen) return;
+                List<Conversations.Summary> chats;
+                try {
+                    chats = get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    chats = List.of();
+                }
 
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+                userListPanel.removeAll();
+                userListPanel.add(createUserRow(AI_USERNAME, AI_DISPLAY_NAME));
+                for (Conversations.Summary c : chats) {
+                    String partner = c.partner();
+                    if (partner == null || partner.trim().equals("0") || partner.trim().equals("0 0")) continue;
+                    if (partner.equalsIgnoreCase(currentUser)) continue;
 
-            stmt.setString(1, currentUser);
-            stmt.setString(2, currentUser);
-            stmt.setString(3, currentUser);
-
-            ResultSet rs = stmt.executeQuery();
-            while (rs.next()) {
-                String partner = rs.getString("partner");
-                if (partner == null || partner.trim().equals("0") || partner.trim().equals("0 0")) continue;
-                if (partner.equalsIgnoreCase(currentUser)) continue;
+                    userListPanel.add(createUserRow(partner, partner, c.lastMessage(), c.unread()));
+                }
+                userListPanel.revalidate();
+                userListPanel.repaint();
+            }
+        }.execute();
+    }
 
-                userListPanel.add(createUserRow(partner, partner));
+    // Appends messages after lastSeenId (or the newest page when the chat was just opened);
+    // the query runs off the EDT, only the new bubbles are added on it
+    private void fetchNewMessages() {
+        if (currentChatPartner == null) return;
+        if (fetching) {
+            refetch = true;
+            return;
+        }
+        fetching = true;
+        refetch = false;
+        lastFetchAt = System.currentTimeMillis();
+        String partner = currentChatPartner;
+        long after = lastSeenId;
+        int gen = conversationGen;
+
+        new SwingWorker<List<ChatMessage>, Void>() {
+            @Override
+            protected List<ChatMessage> doInBackground() throws Exception {
+                if (after == 0) return queryMessages(partner, olderThan(HISTORY_PAGE), Long.MAX_VALUE);
+                return queryMessages(partner, NEWER_THAN, after);
             }
-        } catch (Exception e) { e.printStackTrace(); }
 
-        userListPanel.revalidate();
-        userListPanel.repaint();
+            @Override
+            protected void done() {
+                if (gen != conversationGen) return;     // Conversation changed while we were querying
+                fetching = false;
+                List<ChatMessage> fresh;
+                try {
+                    fresh = get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    return;
+                }
+
+                if (after == 0) {
+                    conversationPanel.setHistory((firstId, limit) -> toItems(queryMessages(partner, olderThan(limit), firstId)),
+                            HISTORY_PAGE, fresh.size() >= HISTORY_PAGE);
+                }
+                for (ChatMessage m : fresh) {
+                    // One of ours that we never heard back about (timed out, or the echo was lost): it's stored
+                    Long localId = m.clientId() != null && isMine(m) ? localIdOf(m.clientId()) : null;
+                    if (localId != null) confirmOwn(localId, m.id());
+                    if (m.id() <= lastSeenId) continue;     // Already pushed by the relay
+                    addMessageBubble(m.id(), m.text(), isMine(m));
+                    lastSeenId = Math.max(lastSeenId, m.id());
+                }
+
+                // Busy conversation: poll fast. Quiet: back off, up to POLL_MAX_MS
+                if (!fresh.isEmpty()) {
+                    poller.setDelay(POLL_MIN_MS);
+                    scrollToBottom();
+                } else {
+                    poller.setDelay(Math.min(POLL_MAX_MS, poller.getDelay() * 2));
+                }
+                if (refetch) fetchNewMessages();
+            }
+        }.execute();
     }
 
-    private void loadRealMessages(String partner) {
-        conversationPanel.removeAll();
+    // Conversation query + one of the cursors below (all EXPLAINed by QueryPlanCheck)
+    static final String MESSAGES_SQL = "SELECT message_id, sender, message, client_msg_id FROM messages " +
+            "WHERE ((sender = ? AND receiver = ?) OR (sender = ? AND receiver = ?)) AND ";
+    static final String NEWER_THAN = "message_id > ? ORDER BY message_id ASC";
+
+    static String olderThan(int limit) {
+        return "message_id < ? ORDER BY message_id DESC LIMIT " + limit;
+    }
 
-        String sql = "SELECT sender, message FROM messages " +
-                "WHERE (sender = ? AND receiver = ?) " +
-                "OR (sender = ? AND receiver = ?) " +
-                "ORDER BY sent_at ASC";
+    // Messages between us and 'partner' matching 'cursor' (bound to the one ?), oldest first
+    private List<ChatMessage> queryMessages(String partner, String cursor, long value) throws Exception {
+        List<ChatMessage> result = new ArrayList<>();
+        String sql = MESSAGES_SQL + cursor;
 
         try (Connection conn = DBConnector.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
-
             stmt.setString(1, currentUser);
             stmt.setString(2, partner);
             stmt.setString(3, partner);
             stmt.setString(4, currentUser);
+            stmt.setLong(5, value);
 
             ResultSet rs = stmt.executeQuery();
-            while(rs.next()) {
-                String sender = rs.getString("sender");
-                String msg = rs.getString("message");
-
-                boolean isMe = false;
-                if (sender != null && currentUser != null) {
-                    isMe = sender.trim().equalsIgnoreCase(currentUser.trim());
-                }
-
-                addMessageBubble(msg, isMe);
+            while (rs.next()) {
+                result.add(new ChatMessage(rs.getLong("message_id"), rs.getString("sender"), rs.getString("message"), rs.getString("client_msg_id")));
             }
-        } catch (Exception e) { e.printStackTrace(); }
+        }
+        if (cursor.contains("DESC")) Collections.reverse(result);
+        return result;
+    }
 
-        scrollToBottom();
+    private List<MessageList.Item> toItems(List<ChatMessage> messages) {
+        List<MessageList.Item> items = new ArrayList<>(messages.size());
+        for (ChatMessage m : messages) items.add(new MessageList.Item(m.id(), m.text(), isMine(m)));
+        return items;
+    }
+
+    private boolean isMine(ChatMessage m) {
+        return m.sender() != null && currentUser != null && m.sender().trim().equalsIgnoreCase(currentUser.trim());
     }
 
     private void loadAIMessages() {
@@ -530,23 +727,97 @@ public class ChatOverlay extends JPanel {
             return;
         }
 
-        try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "INSERT INTO messages (sender, receiver, message) VALUES (?, ?, ?)")) {
+        // Shown right away; the writer thread stores it and the bubble is confirmed (or failed) later
+        long localId = nextLocalId--;
+        String clientId = UUID.randomUUID().toString();
+        unconfirmed.put(localId, clientId);
+        conversationPanel.appendSending(new MessageList.Item(localId, text, true));
+        scrollToBottom();
+        queueSend(new Outgoing(localId, clientId, currentChatPartner, text));
+    }
 
-            stmt.setString(1, currentUser);
-            stmt.setString(2, currentChatPartner);
-            stmt.setString(3, text);
-            stmt.executeUpdate();
+    // Same clientId as the first attempt: if that one was stored after all, this just confirms it
+    private void retrySend(MessageList.Item item) {
+        String clientId = unconfirmed.get(item.id());
+        if (currentChatPartner == null || clientId == null) return;
+        conversationPanel.markSending(item.id());
+        queueSend(new Outgoing(item.id(), clientId, currentChatPartner, item.text()));
+    }
 
-            loadRealMessages(currentChatPartner);
+    // Stored (echo, direct insert or a fetch that found it): the bubble takes its id, any pending timeout is moot
+    private void confirmOwn(long localId, long id) {
+        relayAttempts.remove(localId);
+        unconfirmed.remove(localId);
+        conversationPanel.confirm(localId, id);
+    }
+
+    private Long localIdOf(String clientId) {
+        for (Map.Entry<Long, String> e : unconfirmed.entrySet()) {
+            if (e.getValue().equals(clientId)) return e.getKey();
+        }
+        return null;
+    }
+
+    private void queueSend(Outgoing message) {
+        outbox.add(message);
+        if (flushScheduled.compareAndSet(false, true)) {
+            WRITER.schedule(this::flushOutbox, SEND_COALESCE_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Writer thread: everything queued since the last flush goes out together, in order
+    private void flushOutbox() {
+        flushScheduled.set(false);
+        List<Outgoing> batch = new ArrayList<>();
+        Outgoing next;
+        while ((next = outbox.poll()) != null) batch.add(next);
+        if (batch.isEmpty()) return;
+
+        // The relay stores it and pushes it back to us (and the partner) with its message_id
+        ChatRelay.Client r = relay;
+        if (r != null && r.isConnected()) {
+            List<Outgoing> unsent = new ArrayList<>();
+            for (Outgoing o : batch) {
+                if (!unsent.isEmpty() || !r.send(o.localId(), o.clientId(), o.receiver(), o.text())) unsent.add(o);
+                else expireSend(o.localId());
+            }
+            if (unsent.isEmpty()) return;
+            batch = unsent;     // Relay dropped mid-burst: store the rest ourselves
+        }
 
+        List<ChatRelay.Message> rows = new ArrayList<>(batch.size());
+        for (Outgoing o : batch) rows.add(new ChatRelay.Message(0, currentUser, o.receiver(), o.text(), o.clientId()));
+        List<Outgoing> sent = batch;
+        try {
+            List<ChatRelay.Stored> stored = ChatRelay.DATABASE.insertAll(rows);
+            SwingUtilities.invokeLater(() -> {
+                for (int i = 0; i < sent.size() && i < stored.size(); i++) confirmOwn(sent.get(i).localId(), stored.get(i).id());
+                poller.setDelay(POLL_MIN_MS);       // They may be answering
+            });
         } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Failed: " + e.getMessage());
+            System.err.println("⚠️ [ChatOverlay] Could not send " + sent.size() + " message(s): " + e.getMessage());
+            SwingUtilities.invokeLater(() -> {
+                for (Outgoing o : sent) conversationPanel.fail(o.localId());
+            });
         }
     }
 
+    // A retry is a new attempt, so an older attempt's timer can't fail it
+    private void expireSend(long localId) {
+        Object attempt = new Object();
+        relayAttempts.put(localId, attempt);
+        WRITER.schedule(() -> SwingUtilities.invokeLater(() -> {
+            if (!relayAttempts.remove(localId, attempt)) return;
+            System.err.println("⚠️ [ChatOverlay] No answer from the relay for a message, marking it failed");
+            conversationPanel.fail(localId);
+        }), SEND_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
     private JPanel createUserRow(String username, String displayName) {
+        return createUserRow(username, displayName, null, 0);
+    }
+
+    private JPanel createUserRow(String username, String displayName, String lastMessage, int unread) {
         JPanel row = new JPanel(new BorderLayout(10, 0));
         row.setOpaque(false);
         row.setBorder(new EmptyBorder(8, 15, 8, 15));
@@ -590,7 +861,37 @@ public class ChatOverlay extends JPanel {
         nameLbl.setForeground(currentTheme.textMain);
 
         row.add(avatar, BorderLayout.WEST);
-        row.add(nameLbl, BorderLayout.CENTER);
+        if (lastMessage == null) {
+            row.add(nameLbl, BorderLayout.CENTER);
+        } else {
+            JLabel previewLbl = new JLabel(lastMessage);
+            previewLbl.setFont(new Font("Segoe UI", unread > 0 ? Font.BOLD : Font.PLAIN, 12));
+            previewLbl.setForeground(unread > 0 ? currentTheme.textMain : currentTheme.textSub);
+
+            JPanel text = new JPanel(new GridLayout(2, 1));
+            text.setOpaque(false);
+            text.add(nameLbl);
+            text.add(previewLbl);
+            row.add(text, BorderLayout.CENTER);
+        }
+
+        if (unread > 0) {
+            String count = unread > 99 ? "99+" : String.valueOf(unread);
+            JLabel badge = new JLabel(count, SwingConstants.CENTER) {
+                @Override
+                protected void paintComponent(Graphics g) {
+                    Graphics2D g2 = (Graphics2D) g;
+                    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                    g2.setColor(currentTheme.accent);
+                    g2.fillRoundRect(0, (getHeight() - 20) / 2, getWidth(), 20, 20, 20);
+                    super.paintComponent(g);
+                }
+            };
+            badge.setFont(new Font("Segoe UI", Font.BOLD, 11));
+            badge.setForeground(Color.WHITE);
+            badge.setPreferredSize(new Dimension(Math.max(20, badge.getFontMetrics(badge.getFont()).stringWidth(count) + 12), 20));
+            row.add(badge, BorderLayout.EAST);
+        }
 
         row.addMouseListener(new MouseAdapter() {
             public void mouseEntered(MouseEvent e) { row.setOpaque(true); row.setBackground(currentTheme.hover); row.repaint(); }
@@ -602,48 +903,18 @@ public class ChatOverlay extends JPanel {
     }
 
     private void addMessageBubble(String text, boolean isMe) {
-        JPanel wrapper = new JPanel(new FlowLayout(isMe ? FlowLayout.RIGHT : FlowLayout.LEFT));
-        wrapper.setOpaque(false);
-        wrapper.setMaximumSize(new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE));
-
-        JTextArea bubble = new JTextArea(text) {
-            @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D)g;
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fillRoundRect(0,0,getWidth(),getHeight(), 18, 18);
-                super.paintComponent(g);
-            }
-        };
-        bubble.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-        bubble.setForeground(isMe ? currentTheme.selfText : currentTheme.otherText);
-        bubble.setEditable(false);
-        bubble.setLineWrap(true);
-        bubble.setWrapStyleWord(true);
-        bubble.setOpaque(false);
-        bubble.setBackground(isMe ? currentTheme.selfBubble : currentTheme.otherBubble);
-        bubble.setBorder(new EmptyBorder(8, 12, 8, 12));
-
-        int maxWidth = 260;
-        bubble.setSize(new Dimension(maxWidth, Short.MAX_VALUE));
-        int prefH = bubble.getPreferredSize().height;
-        bubble.setPreferredSize(new Dimension(Math.min(maxWidth, bubble.getPreferredSize().width + 24), prefH));
+        addMessageBubble(0, text, isMe);
+    }
 
-        wrapper.add(bubble);
-        conversationPanel.add(wrapper);
-        conversationPanel.add(Box.createVerticalStrut(5));
+    // Stored messages from the DB or the relay. If one of ours beats its echo here, its pending bubble
+    // is dropped when confirm() arrives (bubbles are matched by local id only, never by text).
+    private void addMessageBubble(long id, String text, boolean isMe) {
+        if (id > 0 && conversationPanel.contains(id)) return;
+        conversationPanel.append(new MessageList.Item(id, text, isMe));
     }
 
     private void scrollToBottom() {
-        conversationPanel.revalidate();
-        conversationPanel.repaint();
-        SwingUtilities.invokeLater(() -> {
-            if(msgScrollPane != null) {
-                JScrollBar vertical = msgScrollPane.getVerticalScrollBar();
-                vertical.setValue(vertical.getMaximum());
-            }
-        });
+        conversationPanel.scrollToBottom();
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,565 @@
+import javax.swing.SwingUtilities;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Push delivery for ChatOverlay. The LAN host (the machine running DatabaseDiscovery.startServerMode)
+// runs a small NIO relay; clients keep one socket open, send through it and get every message for
+// their username pushed back, instead of each client querying MySQL every few seconds.
+// The relay writes to the messages table in batches and only pushes a message once it has its
+// message_id, so pushed and polled messages share one cursor. ChatOverlay falls back to polling
+// whenever the relay can't be reached.
+//
+// Only clients pinned to the host (DBConnector.isPinnedLocal()) use the relay: their routed database
+// is the host's local one, so that is where the relay stores (HOST_DATABASE). Every other machine
+// keeps chat in its routed database (normally the shared cloud) and polls, as before.
+//
+// Wire format (both directions): [int frameLength][short fieldCount]([int byteLength][UTF-8 bytes])*
+//   client -> relay:  SUB user sessionToken     SEND localId clientId receiver text
+//   relay -> client:  OK (SUB accepted)     MSG id previousId sender receiver localId text      ERR localId receiver text
+// previousId is the message before it in the same conversation: a client whose cursor isn't there
+// missed something (e.g. a direct write by a client without the relay) and re-queries instead.
+// localId is the sender's own number for the message (its pending bubble); MSG only carries it back to
+// the socket that sent it (0 for everyone else), so clients match their bubbles by it, never by text.
+// clientId is the message's UUID, stored with it so a retry can't store it twice.
+public class ChatRelay {
+
+    public static final int PORT = 9998;
+    private static final int MAX_FRAME = 64 * 1024;
+    private static final long FLUSH_MS = 100;       // Messages are stored (and then pushed) every 100ms
+    private static final int MAX_BATCH = 200;
+
+    // clientId: the sender's UUID for the message (messages.client_msg_id), null from older clients
+    public record Message(long id, String sender, String receiver, String text, String clientId) {}
+
+    // A stored message's id and the id of the one before it in its conversation (0 = none,
+    // -1 = it was already stored by an earlier attempt, so clients can't rely on it)
+    public record Stored(long id, long previousId) {}
+
+    // Where the relay persists messages; returns them stored, in order
+    public interface MessageStore {
+        List<Stored> insertAll(List<Message> batch) throws Exception;
+    }
+
+    // Checks a SUB before the socket gets anyone's messages
+    public interface SessionCheck {
+        boolean isValid(String user, String token) throws Exception;
+    }
+
+    // Direct writes (ChatOverlay without a relay): the routed database, where that client also reads
+    public static final MessageStore DATABASE = storeOn(DBConnector::getConnection);
+    // The relay's writes: the host's local database, which is what its pinned clients read
+    public static final MessageStore HOST_DATABASE = storeOn(DBConnector::getLocalConnection);
+
+    // One multi-row batch per flush, with the chat list summaries (Conversations) updated in the same transaction
+    private static MessageStore storeOn(ConnectionPool.ConnectionFactory database) {
+        return batch -> insertAll(database, batch);
+    }
+
+    // Idempotent per clientId: a retry of a message that was stored after all (slow store, echo lost
+    // with the socket) gets the existing row back instead of a second copy
+    private static List<Stored> insertAll(ConnectionPool.ConnectionFactory database, List<Message> batch) throws Exception {
+        List<Stored> stored = new ArrayList<>();
+        try (Connection conn = database.create()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO messages (sender, receiver, message, client_msg_id) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                // Taken first: a message only ever goes to one conversation, so this also keeps two attempts of it apart
+                Map<String, Long> last = Conversations.lockLast(conn, batch);
+                Map<String, Long> byClientId = storedIds(conn, batch);
+
+                List<Message> fresh = new ArrayList<>();
+                for (Message m : batch) {
+                    if (m.clientId() != null && byClientId.putIfAbsent(m.clientId(), 0L) != null) continue;   // Stored already, or twice in this batch
+                    fresh.add(m);
+                    stmt.setString(1, m.sender());
+                    stmt.setString(2, m.receiver());
+                    stmt.setString(3, m.text());
+                    stmt.setString(4, m.clientId());
+                    stmt.addBatch();
+                }
+
+                List<Long> ids = new ArrayList<>();
+                if (!fresh.isEmpty()) {
+                    stmt.executeBatch();
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        while (keys.next()) ids.add(keys.getLong(1));
+                    }
+                }
+                if (ids.size() != fresh.size()) throw new SQLException("Got " + ids.size() + " ids for " + fresh.size() + " messages");
+                List<Long> previous = Conversations.recordSent(conn, fresh, ids, last);
+                conn.commit();
+
+                Map<Message, Stored> inserted = new IdentityHashMap<>();
+                for (int i = 0; i < fresh.size(); i++) {
+                    inserted.put(fresh.get(i), new Stored(ids.get(i), previous.get(i)));
+                    if (fresh.get(i).clientId() != null) byClientId.put(fresh.get(i).clientId(), ids.get(i));
+                }
+                for (Message m : batch) {
+                    Stored s = inserted.get(m);
+                    stored.add(s != null ? s : new Stored(byClientId.get(m.clientId()), -1));
+                }
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return stored;
+    }
+
+    // client_msg_id -> message_id for the batch's messages that are already in the table
+    private static Map<String, Long> storedIds(Connection conn, List<Message> batch) throws SQLException {
+        List<String> clientIds = new ArrayList<>();
+        for (Message m : batch) {
+            if (m.clientId() != null) clientIds.add(m.clientId());
+        }
+        Map<String, Long> found = new HashMap<>();
+        if (clientIds.isEmpty()) return found;
+
+        String marks = String.join(", ", Collections.nCopies(clientIds.size(), "?"));
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT client_msg_id, message_id FROM messages WHERE client_msg_id IN (" + marks + ")")) {
+            for (int i = 0; i < clientIds.size(); i++) stmt.setString(i + 1, clientIds.get(i));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) found.put(rs.getString(1), rs.getLong(2));
+            }
+        }
+        return found;
+    }
+
+    // The token PawTrackLogin saved for this user (a newer login elsewhere replaces it), in the host's database
+    public static final SessionCheck SESSIONS = (user, token) -> {
+        try (Connection conn = DBConnector.getLocalConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT session_token FROM user_accounts WHERE username = ?")) {
+            stmt.setString(1, user);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && token != null && token.equals(rs.getString(1));
+            }
+        }
+    };
+
+    private static Server hostRelay;
+
+    // Called next to DatabaseDiscovery.startServerMode(); safe to call more than once
+    public static synchronized void startHost() {
+        if (hostRelay != null) return;
+        try {
+            hostRelay = Server.start(PORT, HOST_DATABASE, SESSIONS);
+        } catch (IOException e) {
+            System.err.println("⚠️ [ChatRelay] Could not start relay on port " + PORT + ": " + e.getMessage());
+        }
+    }
+
+    // --- FRAMING ---
+    static byte[] encode(String... fields) {
+        byte[][] parts = new byte[fields.length][];
+        int size = 2;
+        for (int i = 0; i < fields.length; i++) {
+            parts[i] = (fields[i] == null ? "" : fields[i]).getBytes(StandardCharsets.UTF_8);
+            size += 4 + parts[i].length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(4 + size);
+        buf.putInt(size).putShort((short) fields.length);
+        for (byte[] p : parts) buf.putInt(p.length).put(p);
+        return buf.array();
+    }
+
+    // 'payload' is one frame without its length prefix
+    static String[] decode(ByteBuffer payload) throws IOException {
+        int count = payload.getShort();
+        if (count < 0) throw new IOException("Bad frame");
+        String[] fields = new String[count];
+        for (int i = 0; i < count; i++) {
+            int len = payload.getInt();
+            if (len < 0 || len > payload.remaining()) throw new IOException("Bad frame");
+            byte[] b = new byte[len];
+            payload.get(b);
+            fields[i] = new String(b, StandardCharsets.UTF_8);
+        }
+        return fields;
+    }
+
+    // --- RELAY (host side) ---
+    public static class Server implements Closeable {
+        private final ServerSocketChannel channel;
+        private final Selector selector;
+        private final MessageStore store;
+        private final SessionCheck sessions;
+        private final ScheduledExecutorService flusher;     // Also runs the session checks (they hit the database)
+        private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+        private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();    // Run on the selector thread
+        private volatile boolean closed;
+
+        private record Pending(Message message, Peer from, String localId) {}
+
+        private static class Peer {
+            final SocketChannel channel;
+            final ByteBuffer in = ByteBuffer.allocate(MAX_FRAME + 4);
+            final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+            volatile String user;       // Set once the SUB's token checks out
+            boolean checking;
+
+            Peer(SocketChannel channel) { this.channel = channel; }
+        }
+
+        // Port 0 picks a free port (tests: see getPort())
+        public static Server start(int port, MessageStore store, SessionCheck sessions) throws IOException {
+            return new Server(port, store, sessions);
+        }
+
+        private Server(int port, MessageStore store, SessionCheck sessions) throws IOException {
+            this.store = store;
+            this.sessions = sessions;
+            selector = Selector.open();
+            channel = ServerSocketChannel.open();
+            channel.bind(new InetSocketAddress(port));
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_ACCEPT);
+
+            Thread loop = new Thread(this::selectLoop, "PawTrack-ChatRelay");
+            loop.setDaemon(true);
+            loop.start();
+
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "PawTrack-ChatRelay-Store");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, FLUSH_MS, FLUSH_MS, TimeUnit.MILLISECONDS);
+            System.out.println("💬 [ChatRelay] Listening on port " + getPort());
+        }
+
+        public int getPort() {
+            return channel.socket().getLocalPort();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            flusher.shutdown();
+            flush();
+            selector.wakeup();
+        }
+
+        private void selectLoop() {
+            try {
+                while (!closed) {
+                    selector.select();
+                    Runnable task;
+                    while ((task = selectorTasks.poll()) != null) task.run();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        try {
+                            if (!key.isValid()) continue;
+                            if (key.isAcceptable()) accept();
+                            if (key.isValid() && key.isReadable()) read(key);
+                            if (key.isValid() && key.isWritable()) write(key);
+                        } catch (IOException e) {
+                            drop(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("⚠️ [ChatRelay] Relay stopped: " + e.getMessage());
+            } finally {
+                for (SelectionKey key : selector.keys()) drop(key);
+                try {
+                    channel.close();
+                    selector.close();
+                } catch (IOException ignored) { }
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel client = channel.accept();
+            if (client == null) return;
+            client.configureBlocking(false);
+            client.socket().setTcpNoDelay(true);
+            client.register(selector, SelectionKey.OP_READ, new Peer(client));
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            Peer peer = (Peer) key.attachment();
+            if (peer.channel.read(peer.in) < 0) throw new IOException("Closed by peer");
+
+            peer.in.flip();
+            while (peer.in.remaining() >= 4) {
+                int len = peer.in.getInt(peer.in.position());
+                if (len < 2 || len > MAX_FRAME) throw new IOException("Frame too large");
+                if (peer.in.remaining() < 4 + len) break;
+                peer.in.getInt();
+                ByteBuffer frame = peer.in.slice();
+                frame.limit(len);
+                peer.in.position(peer.in.position() + len);
+                handle(key, peer, decode(frame));
+            }
+            peer.in.compact();
+        }
+
+        private void handle(SelectionKey key, Peer peer, String[] f) {
+            if (f.length == 3 && f[0].equals("SUB") && peer.user == null && !peer.checking) {
+                peer.checking = true;
+                flusher.execute(() -> authenticate(key, peer, f[1], f[2]));
+            } else if (f.length == 5 && f[0].equals("SEND") && peer.user != null) {
+                // The sender is whoever subscribed on this socket, not whatever the frame claims
+                String clientId = f[2].isEmpty() ? null : f[2];
+                pending.add(new Pending(new Message(0, peer.user, f[3], f[4], clientId), peer, f[1]));
+            }
+        }
+
+        // Off the selector thread; the outcome is applied back on it. A bad token closes the socket
+        // (the client retries with backoff, which also covers a login whose token write is still on its way).
+        private void authenticate(SelectionKey key, Peer peer, String user, String token) {
+            boolean ok;
+            try {
+                ok = sessions.isValid(user, token);
+            } catch (Exception e) {
+                System.err.println("⚠️ [ChatRelay] Could not check the session of " + user + ": " + e.getMessage());
+                ok = false;
+            }
+            boolean valid = ok;
+            selectorTasks.add(() -> {
+                peer.checking = false;
+                if (!valid) {
+                    System.err.println("⚠️ [ChatRelay] Rejected SUB for " + user + " (bad session token)");
+                    drop(key);
+                    return;
+                }
+                peer.user = user;
+                if (key.isValid()) enqueue(key, encode("OK"));
+            });
+            selector.wakeup();
+        }
+
+        private void write(SelectionKey key) throws IOException {
+            Peer peer = (Peer) key.attachment();
+            while (!peer.out.isEmpty()) {
+                ByteBuffer buf = peer.out.peek();
+                peer.channel.write(buf);
+                if (buf.hasRemaining()) return;     // Socket full; OP_WRITE brings us back
+                peer.out.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        private void enqueue(SelectionKey key, byte[] frame) {
+            Peer peer = (Peer) key.attachment();
+            peer.out.add(ByteBuffer.wrap(frame));
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+
+        private void drop(SelectionKey key) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException ignored) { }
+        }
+
+        // --- BATCHED PERSISTENCE + FAN-OUT ---
+        private void flush() {
+            while (!pending.isEmpty()) {
+                List<Pending> batch = new ArrayList<>();
+                Pending p;
+                while (batch.size() < MAX_BATCH && (p = pending.poll()) != null) batch.add(p);
+
+                List<Message> messages = new ArrayList<>();
+                for (Pending b : batch) messages.add(b.message());
+                try {
+                    List<Stored> stored = store.insertAll(messages);
+                    if (stored.size() != messages.size()) throw new IllegalStateException("Store returned " + stored.size() + " ids for " + messages.size() + " messages");
+                    for (int i = 0; i < messages.size(); i++) {
+                        Message m = messages.get(i);
+                        String id = String.valueOf(stored.get(i).id());
+                        String previousId = String.valueOf(stored.get(i).previousId());
+                        byte[] frame = encode("MSG", id, previousId, m.sender(), m.receiver(), "0", m.text());
+                        byte[] echo = encode("MSG", id, previousId, m.sender(), m.receiver(), batch.get(i).localId(), m.text());
+                        Peer from = batch.get(i).from();
+                        selectorTasks.add(() -> fanOut(frame, echo, from, m.sender(), m.receiver()));
+                    }
+                } catch (Exception e) {
+                    System.err.println("⚠️ [ChatRelay] Could not store " + batch.size() + " message(s): " + e.getMessage());
+                    for (Pending b : batch) {
+                        byte[] frame = encode("ERR", b.localId(), b.message().receiver(), b.message().text());
+                        selectorTasks.add(() -> {
+                            SelectionKey key = b.from().channel.keyFor(selector);
+                            if (key != null && key.isValid()) enqueue(key, frame);
+                        });
+                    }
+                }
+                selector.wakeup();
+            }
+        }
+
+        // Everyone subscribed as the sender (their other windows) or the receiver; the socket it came from gets the echo
+        private void fanOut(byte[] frame, byte[] echo, Peer from, String sender, String receiver) {
+            for (SelectionKey key : selector.keys()) {
+                if (!key.isValid() || !(key.attachment() instanceof Peer peer) || peer.user == null) continue;
+                if (peer == from) enqueue(key, echo);
+                else if (peer.user.equalsIgnoreCase(sender) || peer.user.equalsIgnoreCase(receiver)) enqueue(key, frame);
+            }
+        }
+    }
+
+    // --- CLIENT (one per ChatOverlay) ---
+    // All callbacks are delivered on the Swing thread
+    public interface Listener {
+        // previousId: the message before it in its conversation. localId: what we sent it as, 0 if not sent through this client
+        void onMessage(Message message, long previousId, long localId);
+        void onConnectionChanged(boolean connected);
+        void onRejected(long localId);                      // The relay couldn't store one of our messages
+    }
+
+    public static class Client implements Closeable {
+        private static final int CONNECT_TIMEOUT_MS = 2000;
+        private static final long RETRY_MIN_MS = 2000;
+        private static final long RETRY_MAX_MS = 30000;
+
+        private final String host;
+        private final int port;
+        private final String user;
+        private final String sessionToken;
+        private final Listener listener;
+        private volatile Socket socket;
+        private volatile OutputStream out;
+        private volatile boolean closed;
+
+        private Client(String host, int port, String user, String sessionToken, Listener listener) {
+            this.host = host;
+            this.port = port;
+            this.user = user;
+            this.sessionToken = sessionToken;
+            this.listener = listener;
+        }
+
+        // Returns at once; connects (and keeps reconnecting) in the background
+        public static Client connect(String host, int port, String user, String sessionToken, Listener listener) {
+            Client c = new Client(host, port, user, sessionToken, listener);
+            Thread t = new Thread(c::run, "PawTrack-ChatRelay-Client");
+            t.setDaemon(true);
+            t.start();
+            return c;
+        }
+
+        public boolean isConnected() {
+            return out != null;
+        }
+
+        // false = not connected (caller should write to the database itself). True only means it left:
+        // the message is stored once its MSG comes back with 'localId' (or ERR says it wasn't).
+        public boolean send(long localId, String clientId, String receiver, String text) {
+            OutputStream o = out;
+            if (o == null) return false;
+            try {
+                synchronized (this) {
+                    o.write(encode("SEND", String.valueOf(localId), clientId, receiver, text));
+                    o.flush();
+                }
+                return true;
+            } catch (IOException e) {
+                disconnect();
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            disconnect();
+        }
+
+        private void run() {
+            long retry = RETRY_MIN_MS;
+            while (!closed) {
+                try (Socket s = new Socket()) {
+                    s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+                    s.setTcpNoDelay(true);
+                    socket = s;
+                    OutputStream o = s.getOutputStream();
+                    o.write(encode("SUB", user, sessionToken));
+                    o.flush();
+
+                    // Not connected (send() keeps returning false) until the relay accepts the SUB;
+                    // a rejected token just closes the socket and we retry like any other drop
+                    DataInputStream in = new DataInputStream(s.getInputStream());
+                    while (!closed) {
+                        int len = in.readInt();
+                        if (len < 2 || len > MAX_FRAME) throw new IOException("Bad frame length " + len);
+                        byte[] payload = new byte[len];
+                        in.readFully(payload);
+                        String[] f = decode(ByteBuffer.wrap(payload));
+                        if (f.length == 1 && f[0].equals("OK") && out == null) {
+                            out = o;
+                            retry = RETRY_MIN_MS;
+                            SwingUtilities.invokeLater(() -> listener.onConnectionChanged(true));
+                        } else if (f.length == 7 && f[0].equals("MSG")) {
+                            Message m = new Message(Long.parseLong(f[1]), f[3], f[4], f[6], null);
+                            long previousId = Long.parseLong(f[2]);
+                            long localId = Long.parseLong(f[5]);
+                            SwingUtilities.invokeLater(() -> listener.onMessage(m, previousId, localId));
+                        } else if (f.length == 4 && f[0].equals("ERR")) {
+                            System.err.println("⚠️ [ChatRelay] Relay could not store a message to " + f[2]);
+                            long localId = Long.parseLong(f[1]);
+                            SwingUtilities.invokeLater(() -> listener.onRejected(localId));
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // Host unreachable or gone; ChatOverlay polls until we're back
+                }
+
+                boolean wasConnected = out != null;
+                out = null;
+                socket = null;
+                if (wasConnected) SwingUtilities.invokeLater(() -> listener.onConnectionChanged(false));
+                if (closed) return;
+                try {
+                    Thread.sleep(retry);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                retry = Math.min(RETRY_MAX_MS, retry * 2);
+            }
+        }
+
+        private void disconnect() {
+            Socket s = socket;
+            if (s != null) {
+                try {
+                    s.close();      // Unblocks the reader, which reports the disconnect
+                } catch (IOException ignored) { }
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Small bounded JDBC pool. One instance per database target (Online / Local).
+// Borrowed connections are proxies: close() hands them back instead of dropping the socket.
+public class ConnectionPool {
+
+    // Opens a brand new physical connection (DBConnector supplies the URL + credentials)
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    // --- TUNING ---
+    private static final long VALIDATE_AFTER_IDLE_MS = 30_000;   // Re-check sockets that sat idle longer than this
+    private static final long MAX_IDLE_MS = 5 * 60_000;          // Aiven drops idle sessions, so we close ours first
+    private static final int VALIDATION_TIMEOUT_SEC = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 30_000;
+
+    // One daemon thread does idle eviction for every pool
+    private static final ScheduledExecutorService HOUSEKEEPER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "PawTrack-PoolHousekeeper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String name;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final ConnectionFactory factory;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    // Bumped by evictAll(); connections opened under an older generation are closed instead of reused
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // --- METRICS ---
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong borrowWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String name, int maxSize, long borrowTimeoutMs, ConnectionFactory factory) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.factory = factory;
+        this.permits = new Semaphore(maxSize, true);
+        HOUSEKEEPER.scheduleWithFixedDelay(this::evictExpired, HOUSEKEEPING_INTERVAL_MS, HOUSEKEEPING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // --- BORROW ---
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLTransientConnectionException("[" + name + "] Connection pool exhausted (" + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("[" + name + "] Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledEntry entry;
+            // Most recently returned first: it is the one most likely still warm on the server side
+            while ((entry = idle.pollFirst()) != null) {
+                if (isUsable(entry)) {
+                    reused.incrementAndGet();
+                    return wrap(entry, start);
+                }
+                discard(entry);
+            }
+
+            int gen = generation.get();     // Read before connecting: an evictAll() during create() makes it stale
+            entry = new PooledEntry(factory.create(), gen);
+            created.incrementAndGet();
+            return wrap(entry, start);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection wrap(PooledEntry entry, long start) {
+        borrowCount.incrementAndGet();
+        borrowWaitNanos.addAndGet(System.nanoTime() - start);
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Lease(entry));
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        long idleFor = System.currentTimeMillis() - entry.lastUsed;
+        if (idleFor > MAX_IDLE_MS || entry.generation != generation.get()) return false;
+        try {
+            if (entry.raw.isClosed()) return false;
+            // Only pay for a round trip when the socket has been quiet for a while
+            return idleFor < VALIDATE_AFTER_IDLE_MS || entry.raw.isValid(VALIDATION_TIMEOUT_SEC);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // --- RETURN ---
+    private void giveBack(PooledEntry entry, boolean broken) {
+        try {
+            entry.closeOpenStatements();
+            // Borrowed before an evictAll(): it still points at the old host
+            if (broken || entry.generation != generation.get() || entry.raw.isClosed()) {
+                discard(entry);
+                return;
+            }
+            // Undo anything a caller may have changed so the next borrower gets a clean session
+            if (!entry.raw.getAutoCommit()) {
+                entry.raw.rollback();
+                entry.raw.setAutoCommit(true);
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        discarded.incrementAndGet();
+        try { entry.raw.close(); } catch (SQLException ignored) {}
+    }
+
+    // --- HOUSEKEEPING ---
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledEntry> it = idle.iterator();
+        while (it.hasNext()) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastUsed > MAX_IDLE_MS && idle.remove(entry)) {
+                discard(entry);
+            }
+        }
+    }
+
+    // Closes every idle connection (e.g. after the target host changed). Borrowed ones close on return:
+    // the generation bump makes giveBack() discard them instead of putting them back in 'idle'.
+    public void evictAll() {
+        generation.incrementAndGet();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) discard(entry);
+    }
+
+    public String getStats() {
+        long borrows = borrowCount.get();
+        double avgWaitMs = borrows == 0 ? 0 : (borrowWaitNanos.get() / 1_000_000.0) / borrows;
+        return String.format("[%s] active=%d idle=%d max=%d created=%d reused=%d discarded=%d timeouts=%d avgBorrowMs=%.2f",
+                name, maxSize - permits.availablePermits(), idle.size(), maxSize,
+                created.get(), reused.get(), discarded.get(), timeouts.get(), avgWaitMs);
+    }
+
+    // --- INTERNALS ---
+    private static class PooledEntry {
+        final Connection raw;
+        final int generation;
+        volatile long lastUsed = System.currentTimeMillis();
+        final List<Statement> openStatements = new ArrayList<>();
+
+        PooledEntry(Connection raw, int generation) {
+            this.raw = raw;
+            this.generation = generation;
+        }
+
+        synchronized void track(Statement stmt) {
+            openStatements.add(stmt);
+        }
+
+        // Callers sometimes forget to close statements; don't let them pile up on a long-lived socket
+        synchronized void closeOpenStatements() {
+            for (Statement stmt : openStatements) {
+                try { stmt.close(); } catch (SQLException ignored) {}
+            }
+            openStatements.clear();
+        }
+    }
+
+    // One lease per borrow, so a stale proxy can't touch a connection someone else now holds
+    private class Lease implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean returned = false;
+        private volatile boolean broken = false;
+
+        Lease(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String m = method.getName();
+            synchronized (this) {
+                switch (m) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            giveBack(entry, broken);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || entry.raw.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled" + entry.raw;
+                    case "abort":
+                        if (returned) return null; // Someone else may hold that socket by now
+                        broken = true; // The socket is being torn down; close() must not pool it again
+                        break;
+                    default:
+                        if (returned) throw new SQLException("[" + name + "] Connection already returned to pool");
+                }
+            }
+
+            try {
+                Object result = method.invoke(entry.raw, args);
+                if (result instanceof Statement) entry.track((Statement) result);
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                // SQLState class 08 = connection exception: never hand this socket out again
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    if (state != null && state.startsWith("08")) broken = true;
+                }
+                throw cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+import javax.swing.SwingUtilities;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Watches the Online and Local database hosts in the background so DBConnector can route
+// to whichever one is alive without waiting on a connect timeout, and fail back when the cloud returns.
+public class ConnectivityProber {
+
+    public enum Target { ONLINE, LOCAL }
+
+    public enum Health { UNKNOWN, UP, DOWN }
+
+    // Delivered on the Swing thread (same as DatabaseDiscovery.DiscoveryListener)
+    public interface ConnectivityListener {
+        void onConnectivityChanged(Target target, Health health, long latencyMs);
+    }
+
+    // --- PROBE SETTINGS ---
+    private static final int PROBE_TIMEOUT_MS = 1500;       // TCP connect only; no TLS or login
+    private static final long HEALTHY_INTERVAL_MS = 15_000;
+    private static final long MIN_BACKOFF_MS = 2_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private static final ScheduledExecutorService PROBER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "PawTrack-ConnectivityProber");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final List<ConnectivityListener> listeners = new CopyOnWriteArrayList<>();
+
+    // --- PER-ENDPOINT STATE ---
+    static class Endpoint {
+        final Target target;
+        final Supplier<InetSocketAddress> address;
+        volatile Health health = Health.UNKNOWN;
+        volatile long latencyMs = -1;      // Smoothed round trip of the TCP connect
+        long backoffMs = MIN_BACKOFF_MS;
+        ScheduledFuture<?> nextProbe;
+
+        Endpoint(Target target, Supplier<InetSocketAddress> address) {
+            this.target = target;
+            this.address = address;
+        }
+    }
+
+    private static Endpoint online;
+    private static Endpoint local;
+
+    public static synchronized void start(Supplier<InetSocketAddress> onlineAddress, Supplier<InetSocketAddress> localAddress) {
+        if (online != null) return;
+        online = new Endpoint(Target.ONLINE, onlineAddress);
+        local = new Endpoint(Target.LOCAL, localAddress);
+        schedule(online, 0);
+        schedule(local, 0);
+    }
+
+    public static Health getHealth(Target target) {
+        Endpoint e = endpoint(target);
+        return e == null ? Health.UNKNOWN : e.health;
+    }
+
+    public static long getLatencyMs(Target target) {
+        Endpoint e = endpoint(target);
+        return e == null ? -1 : e.latencyMs;
+    }
+
+    public static void addListener(ConnectivityListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(ConnectivityListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Real queries failing is a stronger signal than our probe; mark it down and re-probe soon
+    public static void reportFailure(Target target) {
+        Endpoint e = endpoint(target);
+        if (e == null) return;
+        synchronized (e) {
+            e.backoffMs = MIN_BACKOFF_MS;
+        }
+        update(e, Health.DOWN, e.latencyMs);
+        schedule(e, MIN_BACKOFF_MS);
+    }
+
+    // Ask for a fresh probe now (e.g. after DBConnector.setServerIP)
+    public static void probeNow(Target target) {
+        Endpoint e = endpoint(target);
+        if (e != null) schedule(e, 0);
+    }
+
+    // --- INTERNALS ---
+    private static Endpoint endpoint(Target target) {
+        return target == Target.ONLINE ? online : local;
+    }
+
+    // Only one probe is ever pending per endpoint; rescheduling replaces it
+    private static void schedule(Endpoint e, long delayMs) {
+        synchronized (e) {
+            if (e.nextProbe != null) e.nextProbe.cancel(false);
+            e.nextProbe = PROBER.schedule(() -> probe(e), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void probe(Endpoint e) {
+        long start = System.nanoTime();
+        boolean reachable;
+        try (Socket socket = new Socket()) {
+            socket.connect(e.address.get(), PROBE_TIMEOUT_MS);
+            reachable = true;
+        } catch (Exception ex) {
+            reachable = false;
+        }
+        long rtt = (System.nanoTime() - start) / 1_000_000;
+
+        long next;
+        synchronized (e) {
+            if (reachable) {
+                e.backoffMs = MIN_BACKOFF_MS;
+                next = HEALTHY_INTERVAL_MS;
+            } else {
+                // Back off while it stays down so a dead host doesn't cost us a connect every 2 seconds
+                next = e.backoffMs;
+                e.backoffMs = Math.min(e.backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+
+        long latency = reachable ? (e.latencyMs < 0 ? rtt : (e.latencyMs * 3 + rtt) / 4) : e.latencyMs;
+        update(e, reachable ? Health.UP : Health.DOWN, latency);
+        schedule(e, next);
+    }
+
+    private static void update(Endpoint e, Health health, long latencyMs) {
+        Health previous = e.health;
+        e.latencyMs = latencyMs;
+        e.health = health;
+        if (previous == health) return;
+
+        if (e.target == Target.ONLINE) {
+            if (health == Health.UP && previous == Health.DOWN) System.out.println("🌐 Online database reachable again (" + latencyMs + " ms)");
+            if (health == Health.DOWN) System.out.println("📴 Online database unreachable");
+        }
+        DBConnector.onConnectivityChanged();
+        for (ConnectivityListener l : listeners) {
+            SwingUtilities.invokeLater(() -> l.onConnectivityChanged(e.target, health, latencyMs));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// One row per (username, partner) with the last message and how many of the partner's messages
+// the user hasn't opened yet. Kept up to date in the same transaction as every INSERT INTO messages
+// (ChatRelay's stores), so the chat list is one indexed read instead of a DISTINCT over all messages.
+public class Conversations {
+
+    public record Summary(String partner, String lastMessage, Timestamp lastAt, int unread) {}
+
+    private static final int PREVIEW_CHARS = 255;
+
+    // Chat list (EXPLAINed by QueryPlanCheck)
+    static final String RECENT_SQL = "SELECT partner, last_message, last_at, unread FROM conversations WHERE username = ? ORDER BY last_at DESC";
+
+    // Sender's row: new last message. Receiver's row: new last message and one more unread.
+    private static final String UPSERT =
+            "INSERT INTO conversations (username, partner, last_message_id, last_message, last_at, unread) " +
+                    "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, ?) " +
+                    "ON DUPLICATE KEY UPDATE last_message_id = VALUES(last_message_id), last_message = VALUES(last_message), " +
+                    "last_at = VALUES(last_at), unread = unread + VALUES(unread)";
+
+    private static final String LAST_ID = "SELECT last_message_id FROM conversations WHERE username = ? AND partner = ? FOR UPDATE";
+
+    // Call in the storing transaction BEFORE the INSERT INTO messages: locks each conversation the batch
+    // writes to, so ids within a conversation are handed out in commit order. Both directions lock the
+    // same row (the names in key order), and keys are locked in order, so two writers can't deadlock.
+    // Returns each conversation's last message id (0 = none yet).
+    static Map<String, Long> lockLast(Connection conn, List<ChatRelay.Message> messages) throws SQLException {
+        Map<String, Long> last = new TreeMap<>();
+        for (ChatRelay.Message m : messages) last.put(pairKey(m.sender(), m.receiver()), 0L);
+
+        try (PreparedStatement stmt = conn.prepareStatement(LAST_ID)) {
+            for (Map.Entry<String, Long> e : last.entrySet()) {
+                String[] names = e.getKey().split("\n", 2);
+                stmt.setString(1, names[0]);
+                stmt.setString(2, names[1]);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) e.setValue(rs.getLong(1));
+                }
+            }
+        }
+        return last;
+    }
+
+    // Call inside the same transaction after the INSERT (ids = the generated message_ids, 'last' from lockLast).
+    // Returns, per message, the id of the message before it in its conversation, which ChatRelay
+    // pushes along so a client can tell whether it missed anything.
+    static List<Long> recordSent(Connection conn, List<ChatRelay.Message> messages, List<Long> ids, Map<String, Long> last) throws SQLException {
+        List<Long> previous = new ArrayList<>(messages.size());
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT)) {
+            for (int i = 0; i < messages.size(); i++) {
+                ChatRelay.Message m = messages.get(i);
+                previous.add(last.getOrDefault(pairKey(m.sender(), m.receiver()), 0L));
+                last.put(pairKey(m.sender(), m.receiver()), ids.get(i));
+
+                String preview = preview(m.text());
+                addRow(stmt, m.sender(), m.receiver(), ids.get(i), preview, 0);
+                if (!m.receiver().equalsIgnoreCase(m.sender())) addRow(stmt, m.receiver(), m.sender(), ids.get(i), preview, 1);
+            }
+            stmt.executeBatch();
+        }
+        return previous;
+    }
+
+    // Same key for both directions of a conversation
+    private static String pairKey(String a, String b) {
+        String x = a.toLowerCase();
+        String y = b.toLowerCase();
+        return x.compareTo(y) <= 0 ? x + "\n" + y : y + "\n" + x;
+    }
+
+    private static void addRow(PreparedStatement stmt, String user, String partner, long id, String preview, int unread) throws SQLException {
+        stmt.setString(1, user);
+        stmt.setString(2, partner);
+        stmt.setLong(3, id);
+        stmt.setString(4, preview);
+        stmt.setInt(5, unread);
+        stmt.addBatch();
+    }
+
+    // Most recent first; served by the primary key / idx_conv_user_recent
+    public static List<Summary> recent(String username) throws SQLException {
+        List<Summary> result = new ArrayList<>();
+        try (Connection conn = DBConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(RECENT_SQL)) {
+            stmt.setString(1, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new Summary(rs.getString("partner"), rs.getString("last_message"), rs.getTimestamp("last_at"), rs.getInt("unread")));
+                }
+            }
+        }
+        return result;
+    }
+
+    // The user has seen everything from 'partner' (conversation opened or left)
+    public static void markRead(String username, String partner) throws SQLException {
+        try (Connection conn = DBConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "UPDATE conversations SET unread = 0 WHERE username = ? AND partner = ? AND unread > 0")) {
+            stmt.setString(1, username);
+            stmt.setString(2, partner);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String preview(String text) {
+        if (text == null) return "";
+        String oneLine = text.replace('\n', ' ');
+        return oneLine.length() <= PREVIEW_CHARS ? oneLine : oneLine.substring(0, PREVIEW_CHARS - 3) + "...";
+    }
+}
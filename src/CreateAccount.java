@@ -1,9 +1,7 @@
 // src/CreateAccount.java
 import java.awt.*;
 import java.awt.event.*;
-import java.net.URL;
 import java.sql.*;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.text.*;
@@ -302,7 +300,7 @@ public class CreateAccount extends JFrame {
     // --- UI Components ---
     static class BackgroundPanel extends JPanel {
         private Image img;
-        public BackgroundPanel(String path) { try { URL u = CreateAccount.class.getResource("/" + path); if(u!=null) img = ImageIO.read(u); } catch(Exception e){} }
+        public BackgroundPanel(String path) { img = ResourceImages.get(path); }
         protected void paintComponent(Graphics g) { super.paintComponent(g); if(img!=null) g.drawImage(img, 0,0,getWidth(),getHeight(),this); else { g.setColor(new Color(30,41,59)); g.fillRect(0,0,getWidth(),getHeight()); } }
     }
 
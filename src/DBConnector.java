@@ -1,4 +1,6 @@
 // src/DBConnector.java
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -20,56 +22,160 @@ public class DBConnector {
     private static final String LOCAL_PASS = "";
 
     // Dynamic IP for "Find Database" feature (defaults to localhost)
-    private static String serverIP = "localhost";
-    public static boolean isOfflineMode = false;
+    private static volatile String serverIP = "localhost";
+    // Mirrors the routing decision below (true = queries go to the local database)
+    public static volatile boolean isOfflineMode = false;
+    // Set when the user picked a LAN server by hand; we stop routing to the cloud
+    private static volatile boolean pinnedLocal = false;
 
-    // --- 3. CONNECTION METHODS ---
+    // --- 3. CONNECTION POOLS ---
+    // Reusing sockets skips the driver lookup and (for Aiven) the full TLS handshake on every query
+    static final int POOL_SIZE = 6;
+    private static final long BORROW_TIMEOUT_MS = 10_000;
+    // The cloud stays preferred until it is this much slower than the LAN database
+    private static final long LATENCY_PENALTY_MS = 1_000;
 
+    private static final ConnectionPool onlinePool =
+            new ConnectionPool("Online", POOL_SIZE, BORROW_TIMEOUT_MS, DBConnector::openOnlineConnection);
+    private static final ConnectionPool localPool =
+            new ConnectionPool("Local", POOL_SIZE, BORROW_TIMEOUT_MS, DBConnector::openLocalConnection);
 
+    static {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            System.err.println("❌ MySQL Driver not found: " + e.getMessage());
+        }
+
+        // Background health checks decide where getConnection() goes (see ConnectivityProber)
+        ConnectivityProber.start(
+                () -> new InetSocketAddress(ONLINE_HOST, Integer.parseInt(ONLINE_PORT)),
+                () -> new InetSocketAddress(localHost(), Integer.parseInt(LOCAL_PORT)));
+    }
+
+    // --- 4. CONNECTION METHODS ---
+
+
+    // Routes to the best live endpoint the prober knows about (see route()). If that one refuses the
+    // connect, the other is tried as long as it isn't known to be down. When the cloud comes back,
+    // the next call goes online again (no more one-way offline latch).
     public static Connection getConnection() throws SQLException {
-        if (isOfflineMode) return getLocalConnection();
+        ConnectivityProber.Target target = route();
+        if (target == null) {
+            // Both marked down: fail now instead of making the caller wait out two connect timeouts
+            ConnectivityProber.probeNow(ConnectivityProber.Target.ONLINE);
+            ConnectivityProber.probeNow(ConnectivityProber.Target.LOCAL);
+            throw new SQLException("No database reachable (online and " + LOCAL_DB_NAME + " are both down)", "08001");
+        }
 
         try {
-            return getOnlineConnection();
+            return borrow(target);
         } catch (SQLException e) {
-            System.err.println("⚠️ Online Connection Failed: " + e.getMessage());
-            System.out.println("🔄 Auto-Switching to OFFLINE Mode (" + LOCAL_DB_NAME + ")...");
-            isOfflineMode = true;
-            return getLocalConnection();
+            ConnectivityProber.Target other = target == ConnectivityProber.Target.ONLINE
+                    ? ConnectivityProber.Target.LOCAL : ConnectivityProber.Target.ONLINE;
+            // Pool exhaustion etc. says nothing about the other database; only a dead endpoint does
+            if (pinnedLocal || !isConnectFailure(e) || ConnectivityProber.getHealth(other) == ConnectivityProber.Health.DOWN) throw e;
+
+            System.err.println("⚠️ " + target + " Connection Failed: " + e.getMessage());
+            System.out.println("🔄 Auto-Switching to " + (other == ConnectivityProber.Target.LOCAL ? "OFFLINE Mode (" + LOCAL_DB_NAME + ")" : "ONLINE Mode") + "...");
+            return borrow(other);
         }
     }
 
+    // Callers still close() these as usual; close() just hands the socket back to the pool
     public static Connection getOnlineConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            String url = "jdbc:mysql://" + ONLINE_HOST + ":" + ONLINE_PORT + "/" + ONLINE_DB_NAME +
-                    "?useSSL=true&requireSSL=true&verifyServerCertificate=false&allowPublicKeyRetrieval=true&connectTimeout=5000";
-            return DriverManager.getConnection(url, ONLINE_USER, ONLINE_PASS);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL Driver not found", e);
-        }
+        return borrow(ConnectivityProber.Target.ONLINE);
     }
 
     public static Connection getLocalConnection() throws SQLException {
+        return borrow(ConnectivityProber.Target.LOCAL);
+    }
+
+    private static Connection borrow(ConnectivityProber.Target target) throws SQLException {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            // Uses 'serverIP' which defaults to localhost but can be changed by setServerIP()
-            String targetHost = (serverIP != null && !serverIP.isEmpty()) ? serverIP : LOCAL_HOST;
+            return (target == ConnectivityProber.Target.ONLINE ? onlinePool : localPool).borrow();
+        } catch (SQLException e) {
+            if (isConnectFailure(e)) ConnectivityProber.reportFailure(target);
+            throw e;
+        }
+    }
 
-            // ✅ CHANGED: Increased timeout from 2000 to 10000 (10 seconds)
-            // This gives the internet enough time to send the data to your laptop
-            String url = "jdbc:mysql://" + targetHost + ":" + LOCAL_PORT + "/" + LOCAL_DB_NAME +
-                    "?useSSL=false&allowPublicKeyRetrieval=true&connectTimeout=90000";
+    // True once the user (or discovery) picked a LAN server; everything then lives in that host's database
+    public static boolean isPinnedLocal() {
+        return pinnedLocal;
+    }
 
-            return DriverManager.getConnection(url, LOCAL_USER, LOCAL_PASS);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL Driver not found", e);
+    // Pinned LAN server -> local. Otherwise the cloud unless it's down, or local is up and the cloud
+    // is much slower. null when neither endpoint is live.
+    private static ConnectivityProber.Target route() {
+        if (pinnedLocal) return ConnectivityProber.Target.LOCAL;
+
+        ConnectivityProber.Health onlineHealth = ConnectivityProber.getHealth(ConnectivityProber.Target.ONLINE);
+        ConnectivityProber.Health localHealth = ConnectivityProber.getHealth(ConnectivityProber.Target.LOCAL);
+        if (onlineHealth == ConnectivityProber.Health.DOWN) {
+            return localHealth == ConnectivityProber.Health.DOWN ? null : ConnectivityProber.Target.LOCAL;
         }
+
+        if (onlineHealth == ConnectivityProber.Health.UP && localHealth == ConnectivityProber.Health.UP) {
+            long onlineMs = ConnectivityProber.getLatencyMs(ConnectivityProber.Target.ONLINE);
+            long localMs = ConnectivityProber.getLatencyMs(ConnectivityProber.Target.LOCAL);
+            if (onlineMs >= 0 && localMs >= 0 && onlineMs > localMs + LATENCY_PENALTY_MS) return ConnectivityProber.Target.LOCAL;
+        }
+        return ConnectivityProber.Target.ONLINE;
+    }
+
+    // Only a failed connect/socket marks an endpoint down. A full pool (SQLTransientConnectionException),
+    // an interrupted wait or a bad login means the server is still there.
+    static boolean isConnectFailure(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) return true;
+            if (t instanceof IOException) return true;
+        }
+        return false;
+    }
+
+    // Called by ConnectivityProber whenever an endpoint flips between up and down
+    static void onConnectivityChanged() {
+        isOfflineMode = route() == ConnectivityProber.Target.LOCAL;
+    }
+
+    // --- 5. PHYSICAL CONNECTIONS (only the pools call these) ---
+    private static Connection openOnlineConnection() throws SQLException {
+        String url = "jdbc:mysql://" + ONLINE_HOST + ":" + ONLINE_PORT + "/" + ONLINE_DB_NAME +
+                "?useSSL=true&requireSSL=true&verifyServerCertificate=false&allowPublicKeyRetrieval=true&connectTimeout=5000";
+        return DriverManager.getConnection(url, ONLINE_USER, ONLINE_PASS);
+    }
+
+    private static Connection openLocalConnection() throws SQLException {
+        // The prober already tells us when a LAN host is dead, so a short timeout is enough here
+        // (a 90 second wait used to freeze whatever screen asked for a connection)
+        String url = "jdbc:mysql://" + localHost() + ":" + LOCAL_PORT + "/" + LOCAL_DB_NAME +
+                "?useSSL=false&allowPublicKeyRetrieval=true&connectTimeout=5000";
+
+        return DriverManager.getConnection(url, LOCAL_USER, LOCAL_PASS);
+    }
+
+    // Uses 'serverIP' which defaults to localhost but can be changed by setServerIP()
+    private static String localHost() {
+        String ip = serverIP;
+        return (ip != null && !ip.isEmpty()) ? ip : LOCAL_HOST;
+    }
+
+    // Host that LAN peers (DB, chat relay) are reached at
+    public static String getServerIP() {
+        return localHost();
     }
 
     public static void setServerIP(String ip) {
         System.out.println("🔌 DBConnector: Switching Target IP to " + ip);
         serverIP = ip;
-        isOfflineMode = true; // If we set a manual IP, we are usually targeting a local network peer
+        localPool.evictAll(); // Idle sockets still point at the old host
+        pinnedLocal = true;   // If we set a manual IP, we are usually targeting a local network peer
+        isOfflineMode = true;
+        ConnectivityProber.probeNow(ConnectivityProber.Target.LOCAL);
+    }
+
+    public static String getPoolStats() {
+        return onlinePool.getStats() + "\n" + localPool.getStats();
     }
 }
\ No newline at end of file
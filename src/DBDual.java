@@ -1,6 +1,21 @@
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.BatchUpdateException;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class DBDual {
 
@@ -8,36 +23,331 @@ public class DBDual {
         void setParameters(PreparedStatement stmt) throws SQLException;
     }
 
+    // Opens a connection for one side of the dual write
+    interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    // --- WRITE-BEHIND SETTINGS ---
+    private static final int QUEUE_CAPACITY = 500;        // Per target. Callers wait briefly when it's full
+    private static final long ENQUEUE_WAIT_MS = 2000;
+    private static final int MAX_BATCH = 50;              // Statements drained per round trip
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BASE_DELAY_MS = 500;
+
+    // One ordered queue + one worker per database, so writes land in the order they were issued.
+    // Writes that can't reach their side go to that side's journal and are replayed later.
+    private static final TargetWriter onlineWriter = new TargetWriter("Online", DBConnector::getOnlineConnection, "pawtrack_outbox_online.journal");
+    private static final TargetWriter localWriter = new TargetWriter("Local", DBConnector::getLocalConnection, "pawtrack_outbox_local.journal");
+
+    static {
+        // Give queued writes a chance to land before the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            onlineWriter.awaitDrained(5000);
+            localWriter.awaitDrained(5000);
+        }, "PawTrack-DualWriteFlush"));
+    }
+
     // Executes an INSERT/UPDATE/DELETE on BOTH databases (Online & Local)
-    public static void executeUpdateBoth(String sql, StatementPreparer preparer) {
-        // 1. Try Online
-        new Thread(() -> {
-            try (Connection conn = DBConnector.getOnlineConnection()) {
-                if (conn != null) {
-                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                        preparer.setParameters(stmt);
-                        stmt.executeUpdate();
-                        System.out.println("✅ [DualDB] Saved to Online DB");
+    // Parameters are captured right away (on the caller's thread); the SQL itself runs in the background.
+    // The returned future completes once both sides have either saved or journaled the write,
+    // and fails if either side rejected it outright.
+    public static CompletableFuture<Void> executeUpdateBoth(String sql, StatementPreparer preparer) {
+        PendingWrite.Params params;
+        try {
+            params = PendingWrite.capture(preparer);
+        } catch (SQLException e) {
+            System.err.println("⚠️ [DualDB] Could not prepare parameters: " + e.getMessage());
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+
+        CompletableFuture<Void> online = onlineWriter.submit(new PendingWrite(sql, params));
+        CompletableFuture<Void> local = localWriter.submit(new PendingWrite(sql, params));
+        return CompletableFuture.allOf(online, local);
+    }
+
+    public static int getPendingOnline() {
+        return onlineWriter.queue.size();
+    }
+
+    public static int getPendingLocal() {
+        return localWriter.queue.size();
+    }
+
+    public static String getStats() {
+        return "[DualDB] queued online=" + getPendingOnline() + " local=" + getPendingLocal() + "\n"
+                + onlineWriter.journal.getStats() + "\n" + localWriter.journal.getStats();
+    }
+
+    // --- ONE QUEUED STATEMENT ---
+    static class PendingWrite {
+        final String sql;
+        final Params params;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite(String sql, Params params) {
+            this.sql = sql;
+            this.params = params;
+        }
+
+        // Recorded setXxx(...) calls, replayed later onto the real PreparedStatement
+        static class Params {
+            final List<Method> methods = new ArrayList<>();
+            final List<Object[]> args = new ArrayList<>();
+
+            void applyTo(PreparedStatement stmt) throws SQLException {
+                for (int i = 0; i < methods.size(); i++) {
+                    try {
+                        methods.get(i).invoke(stmt, args.get(i));
+                    } catch (ReflectiveOperationException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (cause instanceof SQLException) throw (SQLException) cause;
+                        throw new SQLException("Could not bind parameter via " + methods.get(i).getName(), cause);
+                    }
+                }
+            }
+        }
+
+        // Runs the caller's preparer against a recording stand-in, so values (e.g. text field contents)
+        // are taken now rather than whenever the worker gets to them
+        static Params capture(StatementPreparer preparer) throws SQLException {
+            Params params = new Params();
+            PreparedStatement recorder = (PreparedStatement) Proxy.newProxyInstance(
+                    DBDual.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2) {
+                            Object value = args[1];
+                            if (value instanceof InputStream || value instanceof Reader || value instanceof Blob || value instanceof Clob) {
+                                // Read once, now: a stream would be used up by the first database, and the other
+                                // side (or a retry, or the journal) would silently get an empty value
+                                Object copy = readFully(method.getName(), value, args.length > 2 ? ((Number) args[2]).longValue() : -1);
+                                params.methods.add(copy instanceof byte[] ? SET_BYTES : SET_STRING);
+                                params.args.add(new Object[]{args[0], copy});
+                                return null;
+                            }
+                            params.methods.add(method);
+                            params.args.add(args.clone());
+                            return null;
+                        }
+                        if (method.getName().equals("toString")) return "RecordingStatement";
+                        throw new UnsupportedOperationException("DBDual preparers may only bind parameters (" + method.getName() + ")");
+                    });
+            preparer.setParameters(recorder);
+            return params;
+        }
+
+        private static final Method SET_BYTES;
+        private static final Method SET_STRING;
+
+        static {
+            try {
+                SET_BYTES = PreparedStatement.class.getMethod("setBytes", int.class, byte[].class);
+                SET_STRING = PreparedStatement.class.getMethod("setString", int.class, String.class);
+            } catch (NoSuchMethodException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // Binary streams and BLOBs -> byte[]; character streams, ASCII streams and CLOBs -> String.
+        // 'length' < 0 = to the end.
+        private static Object readFully(String setter, Object value, long length) throws SQLException {
+            try {
+                if (value instanceof Blob blob) return blob.getBytes(1, (int) (length >= 0 ? length : blob.length()));
+                if (value instanceof Clob clob) return clob.getSubString(1, (int) (length >= 0 ? length : clob.length()));
+                if (value instanceof Reader reader) {
+                    StringBuilder text = new StringBuilder();
+                    char[] buf = new char[8192];
+                    int n;
+                    while ((length < 0 || text.length() < length)
+                            && (n = reader.read(buf, 0, (int) Math.min(buf.length, length < 0 ? buf.length : length - text.length()))) > 0) {
+                        text.append(buf, 0, n);
+                    }
+                    return text.toString();
+                }
+                InputStream in = (InputStream) value;
+                byte[] bytes = length < 0 ? in.readAllBytes() : in.readNBytes((int) length);
+                return setter.equals("setAsciiStream") ? new String(bytes, StandardCharsets.US_ASCII) : bytes;
+            } catch (IOException e) {
+                throw new SQLException("Could not read the " + setter + " value", e);
+            }
+        }
+    }
+
+    // --- PER-TARGET WORKER ---
+    private static class TargetWriter implements Runnable {
+        private final String name;
+        private final ConnectionSource source;
+        private final WriteJournal journal;
+        private final LinkedBlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        private volatile boolean busy = false;
+
+        TargetWriter(String name, ConnectionSource source, String journalFile) {
+            this.name = name;
+            this.source = source;
+            this.journal = new WriteJournal(name, journalFile, source);
+            Thread worker = new Thread(this, "PawTrack-DualWrite-" + name);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        CompletableFuture<Void> submit(PendingWrite write) {
+            try {
+                if (!queue.offer(write, ENQUEUE_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    System.err.println("⚠️ [DualDB] " + name + " queue full, dropping write");
+                    write.future.completeExceptionally(new SQLException(name + " write queue is full"));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                write.future.completeExceptionally(e);
+            }
+            return write.future;
+        }
+
+        @Override
+        public void run() {
+            List<PendingWrite> batch = new ArrayList<>();
+            while (true) {
+                try {
+                    batch.add(queue.take());
+                    busy = true;
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    writeWithRetry(batch);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    // Never let one bad write kill the worker
+                    System.err.println("⚠️ [DualDB] " + name + " Save Failed: " + e);
+                    for (PendingWrite w : batch) {
+                        if (!w.future.isDone()) w.future.completeExceptionally(e);
                     }
+                } finally {
+                    batch.clear();
+                    busy = false;
                 }
-            } catch (Exception e) {
-                System.err.println("⚠️ [DualDB] Online Save Failed: " + e.getMessage());
-            }
-        }).start();
-
-        // 2. Try Local (Offline)
-        new Thread(() -> {
-            try (Connection conn = DBConnector.getLocalConnection()) {
-                if (conn != null) {
-                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-                        preparer.setParameters(stmt);
-                        stmt.executeUpdate();
-                        System.out.println("✅ [DualDB] Saved to Local DB");
+            }
+        }
+
+        private void writeWithRetry(List<PendingWrite> batch) throws InterruptedException {
+            // Older writes are still waiting in the journal: queue behind them so order is kept
+            if (journal.hasPending()) {
+                journalOrFail(batch, null);
+                return;
+            }
+
+            for (int attempt = 1; ; attempt++) {
+                try (Connection conn = source.open()) {
+                    writeRuns(conn, batch);
+                    return;
+                } catch (SQLException e) {
+                    if (!isTransient(e)) {
+                        System.err.println("⚠️ [DualDB] " + name + " Save Failed: " + e.getMessage());
+                        for (PendingWrite w : batch) {
+                            if (!w.future.isDone()) w.future.completeExceptionally(e);
+                        }
+                        return;
+                    }
+                    if (attempt >= MAX_ATTEMPTS) {
+                        System.err.println("⚠️ [DualDB] " + name + " unreachable (" + e.getMessage() + "), journaling for replay");
+                        journalOrFail(batch, e);
+                        return;
                     }
+                    Thread.sleep(RETRY_BASE_DELAY_MS << (attempt - 1));
                 }
-            } catch (Exception e) {
-                System.err.println("⚠️ [DualDB] Local Save Failed: " + e.getMessage());
             }
-        }).start();
+        }
+
+        private void journalOrFail(List<PendingWrite> batch, SQLException cause) {
+            List<PendingWrite> pending = new ArrayList<>();
+            for (PendingWrite w : batch) {
+                if (!w.future.isDone()) pending.add(w);
+            }
+            try {
+                // Acknowledged only once the journal has fsync'd them
+                journal.append(pending).whenComplete((ok, err) -> {
+                    for (PendingWrite w : pending) {
+                        if (err == null) w.future.complete(null);
+                        else w.future.completeExceptionally(cause != null ? cause : err);
+                    }
+                });
+                System.out.println("📒 [DualDB] " + pending.size() + " write(s) journaled for " + name + " DB");
+            } catch (IOException e) {
+                System.err.println("❌ [DualDB] " + name + " journal append failed: " + e.getMessage());
+                for (PendingWrite w : pending) w.future.completeExceptionally(cause != null ? cause : e);
+            }
+        }
+
+        // Consecutive writes with identical SQL go out as one JDBC batch; order across runs is preserved
+        private void writeRuns(Connection conn, List<PendingWrite> batch) throws SQLException {
+            // On a retry, skip whatever already landed before the connection dropped
+            List<PendingWrite> pending = new ArrayList<>();
+            for (PendingWrite w : batch) {
+                if (!w.future.isDone()) pending.add(w);
+            }
+
+            int start = 0;
+            while (start < pending.size()) {
+                int end = start + 1;
+                while (end < pending.size() && pending.get(end).sql.equals(pending.get(start).sql)) end++;
+                writeRun(conn, pending.subList(start, end));
+                start = end;
+            }
+        }
+
+        private void writeRun(Connection conn, List<PendingWrite> run) throws SQLException {
+            if (run.size() == 1) {
+                PendingWrite w = run.get(0);
+                try (PreparedStatement stmt = conn.prepareStatement(w.sql)) {
+                    w.params.applyTo(stmt);
+                    stmt.executeUpdate();
+                    w.future.complete(null);
+                    System.out.println("✅ [DualDB] Saved to " + name + " DB");
+                } catch (SQLException e) {
+                    if (isTransient(e)) throw e;
+                    // Bad data, not a bad connection: fail this write only
+                    System.err.println("⚠️ [DualDB] " + name + " Save Failed: " + e.getMessage());
+                    w.future.completeExceptionally(e);
+                }
+                return;
+            }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(run.get(0).sql)) {
+                for (PendingWrite w : run) {
+                    w.params.applyTo(stmt);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                for (PendingWrite w : run) w.future.complete(null);
+                System.out.println("✅ [DualDB] Saved batch of " + run.size() + " to " + name + " DB");
+            } catch (BatchUpdateException e) {
+                conn.rollback();
+                if (isTransient(e)) throw e;
+                // One row is bad; replay individually so the good ones still land
+                conn.setAutoCommit(true);
+                for (PendingWrite w : run) writeRun(conn, List.of(w));
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        private static boolean isTransient(SQLException e) {
+            String state = e.getSQLState();
+            return e instanceof SQLTransientException || (state != null && state.startsWith("08"));
+        }
+
+        void awaitDrained(long timeoutMs) {
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            while ((!queue.isEmpty() || busy) && System.currentTimeMillis() < deadline) {
+                try { Thread.sleep(50); } catch (InterruptedException e) { return; }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
@@ -33,6 +31,7 @@ public class Dashboard extends JFrame {
     private final int NAV_HEIGHT = 44;
     private ChatOverlay chatOverlay;
     private String currentUser;
+    private String sessionToken;    // Lets the chat overlay subscribe to the LAN relay
 
     public void createVetAppointment() {
         if (vetForm == null) loadPanelLazy("VET_FORM");
@@ -87,9 +86,15 @@ public class Dashboard extends JFrame {
     }
 
     public Dashboard(String username) {
+        this(username, null);
+    }
+
+    public Dashboard(String username, String sessionToken) {
         this.currentUser = username;
+        this.sessionToken = sessionToken;
         setTitle("Paw Track Management Dashboard - " + username);
-        try { URL iconUrl = getClass().getResource("/image/Logo.png"); if (iconUrl != null) setIconImage(ImageIO.read(iconUrl)); } catch (Exception e) {}
+        BufferedImage appIcon = ResourceImages.get(ResourceImages.LOGO);
+        if (appIcon != null) setIconImage(appIcon);
 
         setSize(1200, 800);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -115,7 +120,7 @@ public class Dashboard extends JFrame {
         basePanel.add(headerPanel, BorderLayout.NORTH);
         basePanel.add(mainContent, BorderLayout.CENTER);
 
-        chatOverlay = new ChatOverlay(this.currentUser) {
+        chatOverlay = new ChatOverlay(this.currentUser, this.sessionToken) {
             @Override public boolean contains(int x, int y) {
                 for (Component c : getComponents()) {
                     if (c.isVisible()) {
@@ -247,13 +252,8 @@ public class Dashboard extends JFrame {
         sidebar.setBorder(new EmptyBorder(18, 10, 18, 10));
 
         JLabel logoLabel = new JLabel("🐾", SwingConstants.CENTER);
-        try {
-            URL url = getClass().getResource("/image/Logo.png");
-            if (url != null) {
-                BufferedImage img = ImageIO.read(url);
-                logoLabel = createCircularLogo(img, 25);
-            }
-        } catch (Exception e) {}
+        BufferedImage logo = ResourceImages.get(ResourceImages.LOGO);
+        if (logo != null) logoLabel = createCircularLogo(logo, 25);
 
         JPanel logoWrap = new JPanel(new BorderLayout());
         logoWrap.setOpaque(false);
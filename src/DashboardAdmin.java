@@ -40,6 +40,13 @@ public class DashboardAdmin extends JFrame {
     // Lazy Loading Tracker
     private Map<String, Boolean> loadedPanels = new HashMap<>();
 
+    // Hot queries (EXPLAINed by QueryPlanCheck)
+    static final String SESSION_TOKEN_SQL = "SELECT session_token FROM user_accounts WHERE username = ?";
+    static final String PENDING_APPOINTMENTS_SQL =
+            "SELECT appt_id, pet_name, owner_name, vet_name, appt_date, appt_time FROM vet_appointments WHERE status = 'PENDING'";
+    static final String PENDING_ADOPTIONS_SQL =
+            "SELECT app_id, applicant_name, pet_name, occupation, residency_type, has_other_pets FROM adoption_applications WHERE status = 'Pending'";
+
     private final Font MAIN_FONT = new Font("Segoe UI", Font.PLAIN, 14);
     private final Font HEADER_FONT = new Font("Segoe UI", Font.BOLD, 24);
 
@@ -147,7 +154,7 @@ public class DashboardAdmin extends JFrame {
 
     private String getSessionTokenFromDB(String username) {
         try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT session_token FROM user_accounts WHERE username = ?")) {
+             PreparedStatement stmt = conn.prepareStatement(SESSION_TOKEN_SQL)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) return rs.getString("session_token");
@@ -362,8 +369,7 @@ public class DashboardAdmin extends JFrame {
         DefaultTableModel model = (DefaultTableModel) appointmentTable.getModel();
         model.setRowCount(0);
         try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT appt_id, pet_name, owner_name, vet_name, appt_date, appt_time FROM vet_appointments WHERE status = 'PENDING'")) {
+             PreparedStatement stmt = conn.prepareStatement(PENDING_APPOINTMENTS_SQL)) {
             ResultSet rs = stmt.executeQuery();
             while(rs.next()) {
                 model.addRow(new Object[]{
@@ -396,8 +402,7 @@ public class DashboardAdmin extends JFrame {
         DefaultTableModel model = (DefaultTableModel) adoptionTable.getModel();
         model.setRowCount(0);
         try (Connection conn = DBConnector.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT app_id, applicant_name, pet_name, occupation, residency_type, has_other_pets FROM adoption_applications WHERE status = 'Pending'")) {
+             PreparedStatement stmt = conn.prepareStatement(PENDING_ADOPTIONS_SQL)) {
             ResultSet rs = stmt.executeQuery();
             while(rs.next()) {
                 model.addRow(new Object[]{
@@ -1,74 +1,374 @@
+import javax.swing.SwingUtilities;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DataSync {
 
-    // Pulls all User Data from Online and saves it to Local DB
+    // Per-user, per-table high-water marks live in the LOCAL database only
+    private static final String CREATE_SYNC_STATE_TABLE = "CREATE TABLE IF NOT EXISTS sync_state (" +
+            "username VARCHAR(100) NOT NULL, " +
+            "table_name VARCHAR(64) NOT NULL, " +
+            "high_water_ts TIMESTAMP NULL DEFAULT NULL, " +
+            "high_water_id BIGINT DEFAULT 0, " +
+            "synced_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (username, table_name))";
+
+    // Streaming sync: push what we have every N rows or M bytes of BLOB data, whichever comes first
+    static final int FLUSH_EVERY_ROWS = 100;
+    static final long FLUSH_EVERY_BYTES = 8L * 1024 * 1024;
+
+    // Describes one table to pull: which columns, how rows belong to the user, and how we track progress
+    static class SyncSpec {
+        final String table;
+        final String columns;          // Explicit list, same order for SELECT and REPLACE
+        final String userColumn;       // e.g. owner_username
+        final String watermarkColumn;  // last_updated (timestamp) or an AUTO_INCREMENT id
+        final boolean watermarkIsId;
+
+        SyncSpec(String table, String columns, String userColumn, String watermarkColumn, boolean watermarkIsId) {
+            this.table = table;
+            this.columns = columns;
+            this.userColumn = userColumn;
+            this.watermarkColumn = watermarkColumn;
+            this.watermarkIsId = watermarkIsId;
+        }
+    }
+
+    // FIXED: Explicitly selecting columns to match INSERT order
+    static final SyncSpec USER_ACCOUNTS = new SyncSpec("user_accounts",
+            "user_id, last_name, first_name, middle_name, username, password, contact_number, email_address, role, last_ip, session_token, trusted_devices",
+            "username", "last_updated", false);
+
+    static final SyncSpec PETS_ACCOUNTS = new SyncSpec("pets_accounts",
+            "pet_id, sync_uuid, name, gender, age, breed, health_status, contact_number, personal_traits, reason_for_adoption, image_hash, status, owner_username",
+            "owner_username", "last_updated", false);
+
+    static final SyncSpec ADOPTION_APPLICATIONS = new SyncSpec("adoption_applications",
+            "app_id, sync_uuid, applicant_name, pet_name, status, application_date, email, contact_number, address, middle_name, dob, age, gender, occupation, province, city, barangay, residency_type, has_other_pets",
+            "applicant_name", "last_updated", false);
+
+    // Transactions are an append-only ledger, so the id alone tells us what's new
+    static final SyncSpec TRANSACTIONS = new SyncSpec("transactions",
+            "id, sync_uuid, username, date, description, type, amount, method, status, reference_no",
+            "username", "id", true);
+
+    static final SyncSpec[] SYNC_TABLES = {USER_ACCOUNTS, PETS_ACCOUNTS, ADOPTION_APPLICATIONS, TRANSACTIONS};
+
+    // --- PROGRESS REPORTING ---
+    // Callbacks are delivered on the Swing thread (same as DatabaseDiscovery.DiscoveryListener)
+    public interface SyncListener {
+        void onTableProgress(String table, long rows, long bytes, long elapsedMs);
+        void onTableFinished(String table, long rows, long bytes, long elapsedMs, Exception error);
+        void onSyncFinished(boolean cancelled);
+    }
+
+    // Returned by startSync so the caller can cancel or wait
+    public static class SyncHandle {
+        private volatile boolean cancelled = false;
+        private final CountDownLatch done = new CountDownLatch(1);
+        // Online connections currently streaming a table for this sync
+        private final Set<Connection> streaming = ConcurrentHashMap.newKeySet();
+
+        // Closing a streaming ResultSet reads every remaining row first, so a flag alone would make
+        // cancel wait out the whole table. Aborting the socket stops the transfer right away
+        // (the pool then discards that connection instead of reusing it).
+        public void cancel() {
+            cancelled = true;
+            for (Connection conn : streaming) abort(conn);
+        }
+
+        void register(Connection conn) {
+            streaming.add(conn);
+            if (cancelled) abort(conn);
+        }
+
+        void unregister(Connection conn) {
+            streaming.remove(conn);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void await() {
+            try { done.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+
+    private static class TableProgress {
+        final String table;
+        final SyncHandle handle;
+        final SyncListener listener;
+        final long startedAt = System.currentTimeMillis();
+        long rows = 0;
+        long bytes = 0;
+
+        TableProgress(String table, SyncHandle handle, SyncListener listener) {
+            this.table = table;
+            this.handle = handle;
+            this.listener = listener;
+        }
+
+        long elapsed() {
+            return System.currentTimeMillis() - startedAt;
+        }
+
+        void report() {
+            if (listener == null) return;
+            long r = rows, b = bytes, ms = elapsed();
+            SwingUtilities.invokeLater(() -> listener.onTableProgress(table, r, b, ms));
+        }
+    }
+
+    // Tables don't depend on each other, but each worker holds one online + one local pooled connection
+    // for the whole table. The pools are shared with TwoWaySync, the DBDual writers / journal replay
+    // and whatever screen is open, so sync only gets about a third of each pool.
+    private static final int SYNC_PARALLELISM = Math.max(1, DBConnector.POOL_SIZE / 3);
+    private static final ExecutorService SYNC_WORKERS = Executors.newFixedThreadPool(SYNC_PARALLELISM, r -> {
+        Thread t = new Thread(r, "PawTrack-Sync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // abort() hands the actual socket teardown to this executor
+    private static final Executor ABORTER = r -> {
+        Thread t = new Thread(r, "PawTrack-SyncAbort");
+        t.setDaemon(true);
+        t.start();
+    };
+
+    private static void abort(Connection conn) {
+        try {
+            conn.abort(ABORTER);
+        } catch (SQLException e) {
+            System.err.println("⚠️ [Sync] Could not abort connection: " + e.getMessage());
+        }
+    }
+
+    // Pulls the User's changed rows from Online and saves them to Local DB (blocks until done)
     public static void syncUserData(String username) {
+        startSync(username, null).await();
+    }
+
+    // Starts the sync in the background and returns immediately
+    public static SyncHandle startSync(String username, SyncListener listener) {
+        SyncHandle handle = new SyncHandle();
+        new Thread(() -> runSync(username, handle, listener), "PawTrack-SyncCoordinator").start();
+        return handle;
+    }
+
+    private static void runSync(String username, SyncHandle handle, SyncListener listener) {
         System.out.println("🔄 [Sync] Starting Data Synchronization for: " + username);
+        long started = System.currentTimeMillis();
 
-        try (Connection online = DBConnector.getOnlineConnection();
-             Connection local = DBConnector.getLocalConnection()) {
+        try {
+            try (Connection local = DBConnector.getLocalConnection();
+                 Statement stmt = local.createStatement()) {
+                stmt.execute(CREATE_SYNC_STATE_TABLE);
+            }
 
-            if (online == null || local == null) {
-                System.out.println("⚠️ [Sync] Cannot sync - one connection is missing.");
-                return;
+            // 1. User Profile, 2. Pets, 3. Adoption Applications, 4. Transactions -- SYNC_PARALLELISM at a time
+            List<Future<?>> running = new ArrayList<>();
+            for (SyncSpec spec : SYNC_TABLES) {
+                running.add(SYNC_WORKERS.submit(() -> runTable(spec, username, handle, listener)));
+            }
+            for (Future<?> f : running) {
+                try { f.get(); } catch (ExecutionException ignored) {} // runTable reports its own errors
             }
 
-            // 1. Sync User Profile
-            // FIXED: Explicitly selecting columns to match INSERT order
-            syncTable(online, local,
-                    "SELECT user_id, last_name, first_name, middle_name, username, password, contact_number, email_address, role, last_ip, session_token, trusted_devices FROM user_accounts WHERE username = ?",
-                    "REPLACE INTO user_accounts (user_id, last_name, first_name, middle_name, username, password, contact_number, email_address, role, last_ip, session_token, trusted_devices) VALUES (?,?,?,?,?,?,?,?,?,?,?,?)",
-                    username, 12);
-
-            // 2. Sync Pets (Owned & Registered)
-            // FIXED: Explicitly selecting columns. 'image' matches 'image', 'age' matches 'age'.
-            syncTable(online, local,
-                    "SELECT pet_id, name, gender, age, breed, health_status, contact_number, personal_traits, reason_for_adoption, image, status, owner_username FROM pets_accounts WHERE owner_username = ?",
-                    "REPLACE INTO pets_accounts (pet_id, name, gender, age, breed, health_status, contact_number, personal_traits, reason_for_adoption, image, status, owner_username) VALUES (?,?,?,?,?,?,?,?,?,?,?,?)",
-                    username, 12);
-
-            // 3. Sync Adoption Applications
-            // FIXED: Explicitly selecting columns
-            syncTable(online, local,
-                    "SELECT app_id, applicant_name, pet_name, status, application_date, email, contact_number, address, middle_name, dob, age, gender, occupation, province, city, barangay, residency_type, has_other_pets FROM adoption_applications WHERE applicant_name = ?",
-                    "REPLACE INTO adoption_applications (app_id, applicant_name, pet_name, status, application_date, email, contact_number, address, middle_name, dob, age, gender, occupation, province, city, barangay, residency_type, has_other_pets) VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)",
-                    username, 18);
-
-            // 4. Sync Transactions
-            // FIXED: Explicitly selecting columns
-            syncTable(online, local,
-                    "SELECT id, username, date, description, type, amount, method, status, reference_no FROM transactions WHERE username = ?",
-                    "REPLACE INTO transactions (id, username, date, description, type, amount, method, status, reference_no) VALUES (?,?,?,?,?,?,?,?,?)",
-                    username, 9);
-
-            System.out.println("✅ [Sync] Synchronization Complete. Local DB is up to date.");
+            if (handle.isCancelled()) {
+                System.out.println("⏹️ [Sync] Cancelled after " + (System.currentTimeMillis() - started) + " ms.");
+            } else {
+                System.out.println("✅ [Sync] Synchronization Complete in " + (System.currentTimeMillis() - started) + " ms. Local DB is up to date.");
+            }
 
         } catch (Exception e) {
             System.err.println("❌ [Sync] Error: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (listener != null) {
+                boolean cancelled = handle.isCancelled();
+                SwingUtilities.invokeLater(() -> listener.onSyncFinished(cancelled));
+            }
+            handle.done.countDown();
+        }
+    }
+
+    private static void runTable(SyncSpec spec, String username, SyncHandle handle, SyncListener listener) {
+        TableProgress progress = new TableProgress(spec.table, handle, listener);
+        Exception error = null;
+        try (Connection online = DBConnector.getOnlineConnection();
+             Connection local = DBConnector.getLocalConnection()) {
+            handle.register(online);
+            try {
+                if (!handle.isCancelled()) syncTable(online, local, spec, username, progress);
+            } finally {
+                handle.unregister(online);
+            }
+        } catch (Exception e) {
+            // An aborted stream fails with a connection error; that's the cancel, not a sync failure
+            if (!handle.isCancelled()) {
+                error = e;
+                System.err.println("❌ [Sync] " + spec.table + ": " + e.getMessage());
+            }
+        }
+        if (listener != null) {
+            long rows = progress.rows, bytes = progress.bytes, ms = progress.elapsed();
+            Exception err = error;
+            SwingUtilities.invokeLater(() -> listener.onTableFinished(spec.table, rows, bytes, ms, err));
         }
     }
 
-    private static void syncTable(Connection source, Connection dest, String selectSql, String insertSql, String param, int columnCount) throws SQLException {
-        try (PreparedStatement fetch = source.prepareStatement(selectSql)) {
-            fetch.setString(1, param);
-            ResultSet rs = fetch.executeQuery();
+    private static void syncTable(Connection source, Connection dest, SyncSpec spec, String username, TableProgress progress) throws SQLException {
+        // Older servers without the stamp column still work, they just get the full pull every time
+        boolean incremental = spec.watermarkIsId
+                || (hasColumn(source, spec.table, spec.watermarkColumn) && hasColumn(dest, spec.table, spec.watermarkColumn));
+
+        String columns = spec.columns;
+        if (incremental && !spec.watermarkIsId) columns += ", " + spec.watermarkColumn;
+        int columnCount = columns.split(",").length;
+
+        String selectSql = "SELECT " + columns + " FROM " + spec.table + " WHERE " + spec.userColumn + " = ?";
+        if (incremental) {
+            // '>=' on timestamps: rows stamped in the same second as the last sync are re-sent rather than missed
+            selectSql += " AND " + spec.watermarkColumn + (spec.watermarkIsId ? " > ?" : " >= ?")
+                    + " ORDER BY " + spec.watermarkColumn;
+        }
+        String insertSql = "REPLACE INTO " + spec.table + " (" + columns + ") VALUES (" + placeholders(columnCount) + ")";
+
+        Timestamp sinceTs = null;
+        long sinceId = 0;
+        if (incremental) {
+            try (PreparedStatement stmt = dest.prepareStatement(
+                    "SELECT high_water_ts, high_water_id FROM sync_state WHERE username = ? AND table_name = ?")) {
+                stmt.setString(1, username);
+                stmt.setString(2, spec.table);
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    sinceTs = rs.getTimestamp(1);
+                    sinceId = rs.getLong(2);
+                }
+            }
+        }
+
+        // Forward-only + MIN_VALUE fetch size = Connector/J streams rows one at a time instead of buffering the table
+        try (PreparedStatement fetch = source.prepareStatement(selectSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            fetch.setFetchSize(Integer.MIN_VALUE);
+            fetch.setString(1, username);
+            if (incremental) {
+                if (spec.watermarkIsId) fetch.setLong(2, sinceId);
+                else fetch.setTimestamp(2, sinceTs != null ? sinceTs : new Timestamp(0));
+            }
+
+            try (ResultSet rs = fetch.executeQuery();
+                 PreparedStatement push = dest.prepareStatement(insertSql)) {
+                boolean[] isBlob = binaryColumns(rs.getMetaData(), columnCount);
 
-            try (PreparedStatement push = dest.prepareStatement(insertSql)) {
                 int count = 0;
-                while (rs.next()) {
-                    for (int i = 1; i <= columnCount; i++) {
-                        push.setObject(i, rs.getObject(i));
-                    }
+                int batchRows = 0;
+                long batchBytes = 0;
+                Timestamp maxTs = sinceTs;
+                long maxId = sinceId;
+                while (!progress.handle.isCancelled() && rs.next()) {
+                    long rowBytes = bindRow(rs, push, isBlob, columnCount);
                     push.addBatch();
                     count++;
+                    batchRows++;
+                    batchBytes += rowBytes;
+                    progress.rows++;
+                    progress.bytes += rowBytes;
+
+                    if (incremental && spec.watermarkIsId) {
+                        maxId = Math.max(maxId, rs.getLong(spec.watermarkColumn));
+                    } else if (incremental) {
+                        Timestamp ts = rs.getTimestamp(spec.watermarkColumn);
+                        if (ts != null && (maxTs == null || ts.after(maxTs))) maxTs = ts;
+                    }
+
+                    // Flush in chunks so a photo-heavy account never sits in memory all at once
+                    if (batchRows >= FLUSH_EVERY_ROWS || batchBytes >= FLUSH_EVERY_BYTES) {
+                        push.executeBatch();
+                        if (incremental) saveWatermark(dest, username, spec.table, maxTs, maxId);
+                        batchRows = 0;
+                        batchBytes = 0;
+                        progress.report();
+                    }
+                }
+
+                // On cancel we still keep (and mark) what was already flushed; rows in flight when the
+                // stream was aborted are simply fetched again next time, since the mark didn't move past them
+                if (batchRows > 0) {
+                    push.executeBatch();
+                    // Only move the mark forward once the rows are safely in the local DB
+                    if (incremental) saveWatermark(dest, username, spec.table, maxTs, maxId);
                 }
-                push.executeBatch();
+
                 if (count > 0) {
-                    System.out.println("   -> Synced " + count + " records.");
+                    System.out.println("   -> Synced " + count + " " + spec.table + " records"
+                            + (incremental ? " (incremental)" : "") + " in " + progress.elapsed() + " ms.");
+                }
+            }
+        }
+    }
+
+    static boolean[] binaryColumns(ResultSetMetaData meta, int columnCount) throws SQLException {
+        boolean[] isBlob = new boolean[columnCount + 1];
+        for (int i = 1; i <= columnCount; i++) {
+            int type = meta.getColumnType(i);
+            isBlob[i] = type == Types.BLOB || type == Types.LONGVARBINARY || type == Types.VARBINARY || type == Types.BINARY;
+        }
+        return isBlob;
+    }
+
+    // Copies the current row into 'push'. Returns how many BLOB bytes it queued.
+    static long bindRow(ResultSet rs, PreparedStatement push, boolean[] isBlob, int columnCount) throws SQLException {
+        long bytes = 0;
+        for (int i = 1; i <= columnCount; i++) {
+            if (isBlob[i]) {
+                // Hand the driver a stream so the image isn't copied into yet another byte[]
+                Blob blob = rs.getBlob(i);
+                if (blob == null) {
+                    push.setNull(i, Types.LONGVARBINARY);
+                } else {
+                    long length = blob.length();
+                    push.setBinaryStream(i, blob.getBinaryStream(), length);
+                    bytes += length;
                 }
+            } else {
+                push.setObject(i, rs.getObject(i));
             }
         }
+        return bytes;
+    }
+
+    private static void saveWatermark(Connection local, String username, String table, Timestamp ts, long id) throws SQLException {
+        try (PreparedStatement stmt = local.prepareStatement(
+                "REPLACE INTO sync_state (username, table_name, high_water_ts, high_water_id) VALUES (?, ?, ?, ?)")) {
+            stmt.setString(1, username);
+            stmt.setString(2, table);
+            stmt.setTimestamp(3, ts);
+            stmt.setLong(4, id);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Answered from the cached schema snapshot, not a metadata round trip per table
+    static boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        return SchemaMigrator.schema(conn).hasColumn(table, column);
+    }
+
+    static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) sb.append(i == 0 ? "?" : ",?");
+        return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -16,6 +16,7 @@ public class DatabaseDiscovery {
 
     // --- MODE 1: SERVER (Device 1) ---
     public static void startServerMode() {
+        ChatRelay.startHost(); // Clients that find us here also get live chat from us
         new Thread(() -> {
             try (DatagramSocket socket = new DatagramSocket(DISCOVERY_PORT)) {
                 socket.setBroadcast(true);
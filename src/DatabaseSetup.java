@@ -1,14 +1,16 @@
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 
 public class DatabaseSetup {
 
     // --- EXISTING TABLES ---
     private static final String CREATE_ACTIVE_BREEDING_PAIRS_TABLE = "CREATE TABLE IF NOT EXISTS active_breeding_pairs (pair_id INT AUTO_INCREMENT PRIMARY KEY, female_pet_name VARCHAR(255), male_pet_name VARCHAR(255), pairing_date DATE, expected_due_date DATE, litter_size_estimate VARCHAR(50), status VARCHAR(50), last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)";
     private static final String CREATE_LITTER_HISTORY_TABLE = "CREATE TABLE IF NOT EXISTS litter_history (litter_id INT AUTO_INCREMENT PRIMARY KEY, female_pet_name VARCHAR(255), litter_date DATE, puppy_kitten_count INT, adoption_status VARCHAR(50), notes TEXT, status VARCHAR(50))";
-    private static final String CREATE_VET_APPOINTMENTS_TABLE = "CREATE TABLE IF NOT EXISTS vet_appointments (appt_id INT AUTO_INCREMENT PRIMARY KEY, pet_name VARCHAR(255), owner_name VARCHAR(255), vet_name VARCHAR(255), appt_date VARCHAR(50), appt_time VARCHAR(50), booking_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, status VARCHAR(50))";
-    private static final String CREATE_PETS_ACCOUNTS_TABLE = "CREATE TABLE IF NOT EXISTS pets_accounts (pet_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), gender VARCHAR(50), age VARCHAR(50), breed VARCHAR(100), health_status VARCHAR(255), contact_number VARCHAR(50), personal_traits TEXT, reason_for_adoption TEXT, image LONGBLOB, status VARCHAR(50) DEFAULT 'Available', owner_username VARCHAR(100))";
+    private static final String CREATE_VET_APPOINTMENTS_TABLE = "CREATE TABLE IF NOT EXISTS vet_appointments (appt_id INT AUTO_INCREMENT PRIMARY KEY, pet_name VARCHAR(255), owner_name VARCHAR(255), vet_name VARCHAR(255), appt_date VARCHAR(50), appt_time VARCHAR(50), booking_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, status VARCHAR(50), last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)";
+    private static final String CREATE_PETS_ACCOUNTS_TABLE = "CREATE TABLE IF NOT EXISTS pets_accounts (pet_id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), gender VARCHAR(50), age VARCHAR(50), breed VARCHAR(100), health_status VARCHAR(255), contact_number VARCHAR(50), personal_traits TEXT, reason_for_adoption TEXT, image LONGBLOB, status VARCHAR(50) DEFAULT 'Available', owner_username VARCHAR(100), last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP)";
 
     // --- [UPDATED] Added pet_id column ---
     private static final String CREATE_ADOPTION_APPS_TABLE = "CREATE TABLE IF NOT EXISTS adoption_applications (" +
@@ -30,7 +32,8 @@ public class DatabaseSetup {
             "has_other_pets VARCHAR(10), " +
             "pet_name VARCHAR(100), " +
             "status VARCHAR(50) DEFAULT 'Pending', " +
-            "application_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            "application_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+            "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
             ")";
 
     private static final String CREATE_USER_ACCOUNTS_TABLE =
@@ -47,7 +50,8 @@ public class DatabaseSetup {
                     "last_ip VARCHAR(50), " +
                     "session_token VARCHAR(100), " +
                     "trusted_devices TEXT, " +
-                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
                     ");";
 
     private static final String CREATE_INVITE_KEYS_TABLE =
@@ -59,76 +63,265 @@ public class DatabaseSetup {
                     "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
                     ");";
 
+    private static final String CREATE_PET_IMAGES =
+            "CREATE TABLE IF NOT EXISTS pet_images (" +
+                    "hash CHAR(64) PRIMARY KEY, " +
+                    "data LONGBLOB NOT NULL, " +
+                    "byte_size INT, " +
+                    "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ");";
+
+    private static final String CREATE_PET_IMAGE_THUMBS =
+            "CREATE TABLE IF NOT EXISTS pet_image_thumbs (" +
+                    "hash CHAR(64) NOT NULL, " +
+                    "size INT NOT NULL, " +
+                    "data MEDIUMBLOB NOT NULL, " +
+                    "PRIMARY KEY (hash, size)" +
+                    ");";
+
+    private static final String CREATE_MESSAGES_TABLE =
+            "CREATE TABLE IF NOT EXISTS messages (" +
+                    "message_id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "sender VARCHAR(100), " +
+                    "receiver VARCHAR(100), " +
+                    "message TEXT, " +
+                    "sent_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                    ");";
+
+    // Payment ledger read by TransactionHistory (DataSync / TwoWaySync copy it by username)
+    private static final String CREATE_TRANSACTIONS_TABLE =
+            "CREATE TABLE IF NOT EXISTS transactions (" +
+                    "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "username VARCHAR(100), " +
+                    "date DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                    "description VARCHAR(255), " +
+                    "type VARCHAR(50), " +
+                    "amount DECIMAL(10,2), " +
+                    "method VARCHAR(50), " +
+                    "status VARCHAR(50), " +
+                    "reference_no VARCHAR(100), " +
+                    "last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP" +
+                    ");";
+
+    // Chat list summary, maintained alongside messages (see Conversations)
+    private static final String CREATE_CONVERSATIONS_TABLE =
+            "CREATE TABLE IF NOT EXISTS conversations (" +
+                    "username VARCHAR(100) NOT NULL, " +
+                    "partner VARCHAR(100) NOT NULL, " +
+                    "last_message_id INT, " +
+                    "last_message VARCHAR(255), " +
+                    "last_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "unread INT NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (username, partner), " +
+                    "INDEX idx_conv_user_recent (username, last_at)" +
+                    ");";
+
+    // --- VERSIONED MIGRATIONS (run once per database, recorded in schema_version) ---
+    // Append new entries at the end; never renumber or edit one that has shipped
+    // (the only exception: adding an idempotent CREATE TABLE IF NOT EXISTS that a later step depends on).
+    static final List<SchemaMigrator.Migration> MIGRATIONS = List.of(
+            new SchemaMigrator.Migration(1, "Base tables", (conn, schema) -> {
+                schema.createTable(conn, CREATE_ACTIVE_BREEDING_PAIRS_TABLE);
+                schema.createTable(conn, CREATE_LITTER_HISTORY_TABLE);
+                schema.createTable(conn, CREATE_VET_APPOINTMENTS_TABLE);
+                schema.createTable(conn, CREATE_USER_ACCOUNTS_TABLE);
+                schema.createTable(conn, CREATE_PETS_ACCOUNTS_TABLE);
+                schema.createTable(conn, CREATE_ADOPTION_APPS_TABLE);
+                schema.createTable(conn, CREATE_INVITE_KEYS_TABLE);
+                // Later migrations add columns / indexes to these, so they must exist from the start
+                schema.createTable(conn, CREATE_MESSAGES_TABLE);
+                schema.createTable(conn, CREATE_TRANSACTIONS_TABLE);
+            }),
+
+            // --- [UPDATED] Added pet_id + applicant detail columns ---
+            new SchemaMigrator.Migration(2, "Adoption application details", (conn, schema) -> {
+                String[] newColumns = {
+                        "pet_id INT", "middle_name VARCHAR(100)", "dob VARCHAR(20)", "age VARCHAR(10)",
+                        "gender VARCHAR(20)", "occupation VARCHAR(100)", "province VARCHAR(100)",
+                        "city VARCHAR(100)", "barangay VARCHAR(100)", "residency_type VARCHAR(50)",
+                        "has_other_pets VARCHAR(10)"
+                };
+                for (String colDef : newColumns) {
+                    String[] parts = colDef.split(" ", 2);
+                    schema.addColumnIfMissing(conn, "adoption_applications", parts[0], parts[1]);
+                }
+            }),
+
+            new SchemaMigrator.Migration(3, "User account security columns", (conn, schema) -> {
+                schema.addColumnIfMissing(conn, "user_accounts", "trusted_devices", "TEXT");
+                schema.addColumnIfMissing(conn, "user_accounts", "role", "VARCHAR(20) DEFAULT 'USER'");
+                schema.addColumnIfMissing(conn, "user_accounts", "last_ip", "VARCHAR(50)");
+                schema.addColumnIfMissing(conn, "user_accounts", "session_token", "VARCHAR(100)");
+            }),
+
+            new SchemaMigrator.Migration(4, "Ownership columns", (conn, schema) -> {
+                schema.addColumnIfMissing(conn, "pets_accounts", "owner_username", "VARCHAR(100)");
+                schema.addColumnIfMissing(conn, "vet_appointments", "username", "VARCHAR(100)");
+            }),
+
+            // Change stamps for incremental sync (DataSync / TwoWaySync watermarks)
+            new SchemaMigrator.Migration(5, "last_updated change stamps", (conn, schema) -> {
+                String[] stampedTables = {"user_accounts", "pets_accounts", "adoption_applications", "vet_appointments", "transactions"};
+                for (String table : stampedTables) {
+                    schema.addColumnIfMissing(conn, table, "last_updated", "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP");
+                }
+            }),
+
+            // Used to live in Breeding.ensureDatabaseSchema()
+            new SchemaMigrator.Migration(6, "Breeding pair pet ids", (conn, schema) -> {
+                schema.addColumnIfMissing(conn, "active_breeding_pairs", "female_id", "INT");
+                schema.addColumnIfMissing(conn, "active_breeding_pairs", "male_id", "INT");
+                schema.createIndexIfMissing(conn, "active_breeding_pairs", "idx_breeding_female_male", "female_id, male_id");
+            }),
+
+            new SchemaMigrator.Migration(7, "Default admin account", (conn, schema) -> {
+                String hashedPassword;
+                try {
+                    hashedPassword = PasswordUtils.hash("admin123");
+                } catch (Exception e) {
+                    throw new SQLException("Could not hash default admin password", e);
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT IGNORE INTO user_accounts " +
+                        "(last_name, first_name, username, password, email_address, role) " +
+                        "VALUES ('System', 'Admin', 'admin', ?, 'admin@pawtrack.com', 'ADMIN')")) {
+                    stmt.setString(1, hashedPassword);
+                    stmt.executeUpdate();
+                }
+            }),
+
+            // Composite indexes matched to the WHERE / ORDER BY of the hot screens (checked by QueryPlanCheck)
+            new SchemaMigrator.Migration(8, "Hot lookup indexes", (conn, schema) -> {
+                // PawManagement grid: status = 'Available' (pet_id second so paging by id stays on the index)
+                schema.createIndexIfMissing(conn, "pets_accounts", "idx_pets_status_id", "status, pet_id");
+                // UserProfile owned / registered lists and counts
+                schema.createIndexIfMissing(conn, "pets_accounts", "idx_pets_owner_status", "owner_username, status");
+                // AppointmentView join, DashboardAdmin / UserProfile updates by name
+                schema.createIndexIfMissing(conn, "pets_accounts", "idx_pets_name_owner", "name, owner_username");
+                // Breeding candidates: gender = ? AND status = 'Pairing'
+                schema.createIndexIfMissing(conn, "pets_accounts", "idx_pets_gender_status", "gender, status");
+
+                // AppointmentView: username = ? ORDER BY appt_date DESC
+                schema.createIndexIfMissing(conn, "vet_appointments", "idx_appt_username_date", "username, appt_date");
+                // DashboardAdmin pending queue + counts
+                schema.createIndexIfMissing(conn, "vet_appointments", "idx_appt_status", "status");
+
+                // UserProfile history: applicant_name = ? ORDER BY application_date DESC
+                schema.createIndexIfMissing(conn, "adoption_applications", "idx_apps_applicant_date", "applicant_name, application_date");
+                schema.createIndexIfMissing(conn, "adoption_applications", "idx_apps_status", "status");
+
+                // ChatOverlay conversation (sender, receiver) ORDER BY sent_at; the receiver index lets
+                // "sender = ? OR receiver = ?" use an index merge instead of a scan
+                schema.createIndexIfMissing(conn, "messages", "idx_msg_sender_receiver_sent", "sender, receiver, sent_at");
+                schema.createIndexIfMissing(conn, "messages", "idx_msg_receiver_sender", "receiver, sender");
+
+                schema.createIndexIfMissing(conn, "transactions", "idx_tx_username", "username");
+            }),
+            new SchemaMigrator.Migration(9, "Content-addressed pet images", (conn, schema) -> {
+                // One row per distinct photo; pets_accounts only points at it (see ImageStore)
+                schema.createTable(conn, CREATE_PET_IMAGES);
+                schema.addColumnIfMissing(conn, "pets_accounts", "image_hash", "CHAR(64) NULL");
+                schema.createIndexIfMissing(conn, "pets_accounts", "idx_pets_image_hash", "image_hash");
+            }),
+            new SchemaMigrator.Migration(10, "Pet photo thumbnails", (conn, schema) -> {
+                // 48/128/300/900px copies of each pet_images row (see Thumbnails)
+                schema.createTable(conn, CREATE_PET_IMAGE_THUMBS);
+            }),
+            new SchemaMigrator.Migration(11, "Chat message cursor", (conn, schema) -> {
+                // ChatOverlay polls "message_id > last seen" instead of re-reading the whole conversation
+                schema.createTable(conn, CREATE_MESSAGES_TABLE);
+                if (!schema.hasColumn("messages", "message_id")) {
+                    // A table can only have one AUTO_INCREMENT column: if an older messages table already has one
+                    // (e.g. 'id'), it becomes message_id instead of adding a second one (which MySQL rejects)
+                    SchemaMigrator.Schema.Column counter = schema.autoIncrementColumn(conn, "messages");
+                    if (counter != null) {
+                        schema.renameColumn(conn, "messages", counter.name(), "message_id", counter.type() + " NOT NULL AUTO_INCREMENT");
+                    } else {
+                        schema.addColumnIfMissing(conn, "messages", "message_id", "INT NOT NULL AUTO_INCREMENT UNIQUE");
+                    }
+                }
+                schema.createIndexIfMissing(conn, "messages", "idx_msg_pair_id", "sender, receiver, message_id");
+            }),
+            new SchemaMigrator.Migration(12, "Conversation summaries", (conn, schema) -> {
+                // ChatOverlay's chat list reads this instead of SELECT DISTINCT over every message
+                schema.createTable(conn, CREATE_CONVERSATIONS_TABLE);
+                // Backfill: newest message per pair, both directions. Nothing was tracked as read before, so unread starts at 0.
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("INSERT IGNORE INTO conversations (username, partner, last_message_id, last_message, last_at, unread) " +
+                            "SELECT c.username, c.partner, m.message_id, LEFT(REPLACE(m.message, '\\n', ' '), 255), m.sent_at, 0 " +
+                            "FROM (SELECT username, partner, MAX(last_id) AS last_id FROM (" +
+                            "  SELECT sender AS username, receiver AS partner, MAX(message_id) AS last_id FROM messages GROUP BY sender, receiver" +
+                            "  UNION ALL" +
+                            "  SELECT receiver, sender, MAX(message_id) FROM messages GROUP BY receiver, sender" +
+                            ") pairs GROUP BY username, partner) c " +
+                            "JOIN messages m ON m.message_id = c.last_id " +
+                            "WHERE c.username IS NOT NULL AND c.partner IS NOT NULL AND c.username <> c.partner");
+                }
+            }),
+            new SchemaMigrator.Migration(13, "Indexes skipped on fresh installs", (conn, schema) -> {
+                // Migrations 5 and 8 used to skip missing tables silently and still get recorded:
+                // transactions was never created and messages only arrived in migration 11
+                schema.createTable(conn, CREATE_TRANSACTIONS_TABLE);
+                schema.addColumnIfMissing(conn, "transactions", "last_updated", "TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP");
+                schema.createIndexIfMissing(conn, "transactions", "idx_tx_username", "username");
+                schema.createIndexIfMissing(conn, "messages", "idx_msg_sender_receiver_sent", "sender, receiver, sent_at");
+                schema.createIndexIfMissing(conn, "messages", "idx_msg_receiver_sender", "receiver, sender");
+            }),
+            new SchemaMigrator.Migration(14, "Sync row ids", (conn, schema) -> {
+                // TwoWaySync matches rows across the two databases by this instead of the AUTO_INCREMENT id,
+                // which is handed out independently on each side. Existing rows were mirrored id-for-id by
+                // DataSync, so 'legacy-<id>-<owner hash>' names the same row on both; the owner part keeps an
+                // offline-only row from claiming the id of someone else's row in the cloud.
+                String[][] tables = {
+                        {"pets_accounts", "pet_id", "owner_username"}, {"vet_appointments", "appt_id", "username"},
+                        {"adoption_applications", "app_id", "applicant_name"}, {"transactions", "id", "username"}};
+                for (String[] t : tables) {
+                    schema.addColumnIfMissing(conn, t[0], "sync_uuid", "CHAR(36) NULL");
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.executeUpdate("UPDATE " + t[0] + " SET sync_uuid = CONCAT('legacy-', " + t[1] + ", '-', " +
+                                "LEFT(MD5(COALESCE(" + t[2] + ", '')), 12)) WHERE sync_uuid IS NULL");
+                        stmt.execute("ALTER TABLE " + t[0] + " MODIFY sync_uuid CHAR(36) NOT NULL DEFAULT (UUID())");
+                    }
+                    schema.createUniqueIndexIfMissing(conn, t[0], "uq_" + t[0] + "_sync_uuid", "sync_uuid");
+                }
+            }),
+            new SchemaMigrator.Migration(15, "Chat client message ids", (conn, schema) -> {
+                // ChatOverlay names each message before sending it, so a retry of one that was in fact stored
+                // finds the stored row instead of inserting it twice. NULL for older rows (and older clients).
+                schema.addColumnIfMissing(conn, "messages", "client_msg_id", "CHAR(36) NULL");
+                schema.createUniqueIndexIfMissing(conn, "messages", "uq_messages_client_msg_id", "client_msg_id");
+            })
+    );
+
+    // Brings the database behind 'conn' up to date. After the first call per database this is free.
+    public static void ensureSchema(Connection conn) throws SQLException {
+        SchemaMigrator.migrate(conn, MIGRATIONS);
+    }
+
     public static void main(String[] args) {
         System.out.println("Starting database setup...");
 
-        Connection conn = null;
-
-        try {
-            conn = DBConnector.getConnection();
+        // Both copies need the same schema, since DataSync and TwoWaySync copy rows between them
+        boolean any = false;
+        try (Connection conn = DBConnector.getOnlineConnection()) {
             System.out.println("✅ Connected to Standard Database.");
+            ensureSchema(conn);
+            any = true;
         } catch (SQLException e) {
-            System.err.println("⚠️ Standard Connection Failed (" + e.getMessage() + ")");
-            System.out.println("🔄 Switching to OFFLINE Mode (Local Database)...");
-            DBConnector.isOfflineMode = true;
-            try {
-                conn = DBConnector.getConnection();
-                System.out.println("✅ Connected to Local Database (Offline Mode).");
-            } catch (SQLException ex) {
-                System.err.println("❌ Critical Error: Could not connect to ANY database.");
-                ex.printStackTrace();
-                return;
-            }
+            System.err.println("⚠️ Standard Database not migrated (" + e.getMessage() + ")");
         }
 
-        try (Statement stmt = conn.createStatement()) {
-            stmt.execute(CREATE_ACTIVE_BREEDING_PAIRS_TABLE);
-            stmt.execute(CREATE_LITTER_HISTORY_TABLE);
-            stmt.execute(CREATE_VET_APPOINTMENTS_TABLE);
-            stmt.execute(CREATE_USER_ACCOUNTS_TABLE);
-            stmt.execute(CREATE_PETS_ACCOUNTS_TABLE);
-            stmt.execute(CREATE_ADOPTION_APPS_TABLE);
-            stmt.execute(CREATE_INVITE_KEYS_TABLE);
-
-            // --- MIGRATION: ADD pet_id TO ADOPTION_APPLICATIONS ---
-            try {
-                stmt.execute("ALTER TABLE adoption_applications ADD COLUMN pet_id INT");
-                System.out.println("✅ Auto-Added column: pet_id");
-            } catch (SQLException e) { } // Ignore if exists
-
-            // --- OTHER MIGRATIONS (KEEPING ORIGINAL) ---
-            String[] newColumns = {
-                    "middle_name VARCHAR(100)", "dob VARCHAR(20)", "age VARCHAR(10)",
-                    "gender VARCHAR(20)", "occupation VARCHAR(100)", "province VARCHAR(100)",
-                    "city VARCHAR(100)", "barangay VARCHAR(100)", "residency_type VARCHAR(50)",
-                    "has_other_pets VARCHAR(10)"
-            };
-            for (String colDef : newColumns) {
-                try { stmt.execute("ALTER TABLE adoption_applications ADD COLUMN " + colDef); } catch (SQLException e) {}
-            }
-            try { stmt.execute("ALTER TABLE user_accounts ADD COLUMN trusted_devices TEXT"); } catch (SQLException e) {}
-            try { stmt.execute("ALTER TABLE user_accounts ADD COLUMN role VARCHAR(20) DEFAULT 'USER'"); } catch (SQLException e) {}
-            try { stmt.execute("ALTER TABLE user_accounts ADD COLUMN last_ip VARCHAR(50)"); } catch (SQLException e) {}
-            try { stmt.execute("ALTER TABLE user_accounts ADD COLUMN session_token VARCHAR(100)"); } catch (SQLException e) {}
-            try { stmt.execute("ALTER TABLE pets_accounts ADD COLUMN owner_username VARCHAR(100)"); } catch (SQLException e) {}
-            try { stmt.execute("ALTER TABLE vet_appointments ADD COLUMN username VARCHAR(100)"); } catch (SQLException e) {}
-
-            try {
-                String hashedPassword = PasswordUtils.hash("admin123");
-                String adminSql = "INSERT IGNORE INTO user_accounts " +
-                        "(last_name, first_name, username, password, email_address, role) " +
-                        "VALUES ('System', 'Admin', 'admin', '" + hashedPassword + "', 'admin@pawtrack.com', 'ADMIN')";
-                stmt.execute(adminSql);
-            } catch (Exception e) {}
+        try (Connection conn = DBConnector.getLocalConnection()) {
+            System.out.println("✅ Connected to Local Database (Offline Mode).");
+            ensureSchema(conn);
+            any = true;
+        } catch (SQLException e) {
+            System.err.println("⚠️ Local Database not migrated (" + e.getMessage() + ")");
+        }
 
+        if (any) {
             System.out.println("✅ Database Setup & Migration Complete.");
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            if (conn != null) {
-                try { conn.close(); } catch (SQLException e) { e.printStackTrace(); }
-            }
+        } else {
+            System.err.println("❌ Critical Error: Could not connect to ANY database.");
         }
     }
 }
\ No newline at end of file
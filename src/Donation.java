@@ -1,5 +1,9 @@
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
@@ -35,6 +39,7 @@ public class Donation extends JFrame {
     };
     private int currentImageIndex = 0;
     private javax.swing.Timer slideshowTimer;
+    private final Slideshow<String> slideshow = new Slideshow<>(Donation::loadSlide, 1);
     
     private boolean imagesLoaded = false; // Track if images have been loaded
 
@@ -89,7 +94,6 @@ public class Donation extends JFrame {
         });
 
         // DO NOT load images here - wait until panel is shown
-        // loadDefaultImage();
         // startSlideshow();
 
         return bgPanel;
@@ -99,8 +103,7 @@ public class Donation extends JFrame {
     private void loadImagesIfNeeded() {
         if (!imagesLoaded) {
             imagesLoaded = true;
-            loadDefaultImage();
-            startSlideshow();
+            startSlideshow();   // Slide 0 is DEFAULT_IMAGE_PATH
         }
     }
 
@@ -260,33 +263,24 @@ public class Donation extends JFrame {
     }
 
     // --- LOGIC: IMAGE LOADING ---
-    private void loadDefaultImage() {
-        if (DEFAULT_IMAGE_PATH != null && !DEFAULT_IMAGE_PATH.isEmpty()) {
-            File imgFile = new File(DEFAULT_IMAGE_PATH);
-            if (imgFile.exists()) {
-                SwingUtilities.invokeLater(() -> {
-                    try {
-                        ImageIcon icon = new ImageIcon(imgFile.getPath());
-                        Image img = icon.getImage();
-                        // Scale to fit card roughly
-                        Image scaled = img.getScaledInstance(900, 550, Image.SCALE_SMOOTH);
-                        if (imageDisplayLabel != null) {
-                          imageDisplayLabel.setText("");
-                          imageDisplayLabel.setIcon(new ImageIcon(scaled));
-                        }
-                    } catch (Exception e) {
-                        // Ignore
-                    }
-                });
-            }
+    // Runs on the slideshow thread: read + scale to the card size there, so the EDT only sets the icon
+    private static BufferedImage loadSlide(String path) {
+        if (path == null || path.isEmpty()) return null;
+        File imgFile = new File(path);
+        if (!imgFile.exists()) return null;
+        try {
+            return Slideshow.exact(ImageIO.read(imgFile), 900, 550);
+        } catch (IOException e) {
+            return null;
         }
     }
 
-    // --- SLIDESHOW: autoplay every 5 seconds ---
+    // --- SLIDESHOW: autoplay every 20 seconds ---
     private void startSlideshow() {
         if (slideshowTimer != null && slideshowTimer.isRunning()) return; // already running
 
-        // Immediately show current index image
+        // Immediately show current index image (the next one starts decoding in the background)
+        slideshow.setSlides(Arrays.asList(slideshowImagePaths));
         showImageAtIndex(currentImageIndex);
 
         slideshowTimer = new javax.swing.Timer(20000, e -> {
@@ -307,42 +301,26 @@ public class Donation extends JFrame {
             slideshowTimer.stop();
             slideshowTimer = null;
         }
+        slideshow.clear();
     }
 
     private void showImageAtIndex(int index) {
         if (slideshowImagePaths == null || slideshowImagePaths.length == 0) return;
         String path = slideshowImagePaths[index];
-        if (path == null || path.isEmpty()) {
-            SwingUtilities.invokeLater(() -> {
-                if (imageDisplayLabel != null) {
-                    imageDisplayLabel.setIcon(null);
-                    imageDisplayLabel.setText("No Image Source Configured");
-                }
-            });
-            return;
-        }
-        File imgFile = new File(path);
-        if (imgFile.exists()) {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    ImageIcon icon = new ImageIcon(imgFile.getPath());
-                    Image img = icon.getImage();
-                    Image scaled = img.getScaledInstance(900, 550, Image.SCALE_SMOOTH);
-                    if (imageDisplayLabel != null) {
-                        imageDisplayLabel.setText("");
-                        imageDisplayLabel.setIcon(new ImageIcon(scaled));
-                    }
-                } catch (Exception ignored) { }
-            });
-        } else {
-            SwingUtilities.invokeLater(() -> {
-                if (imageDisplayLabel != null) {
-                    imageDisplayLabel.setIcon(null);
-                    imageDisplayLabel.setText("<html><center>No Image<br>Path Found</center></html>");
-                    imageDisplayLabel.setForeground(new Color(255, 255, 255, 100));
-                }
-            });
-        }
+        slideshow.show(index, img -> {
+            if (imageDisplayLabel == null) return;
+            if (img != null) {
+                imageDisplayLabel.setText("");
+                imageDisplayLabel.setIcon(new ImageIcon(img));
+            } else if (path == null || path.isEmpty()) {
+                imageDisplayLabel.setIcon(null);
+                imageDisplayLabel.setText("No Image Source Configured");
+            } else {
+                imageDisplayLabel.setIcon(null);
+                imageDisplayLabel.setText("<html><center>No Image<br>Path Found</center></html>");
+                imageDisplayLabel.setForeground(new Color(255, 255, 255, 100));
+            }
+        });
     }
 
     // --- CUSTOM UI CLASS: BACKGROUND PANEL (GRADIENT) ---
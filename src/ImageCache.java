@@ -0,0 +1,204 @@
+import java.awt.AlphaComposite;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.geom.Ellipse2D;
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// One process-wide cache of decoded, already-sized pet images, so switching screens
+// blits pixels we already have instead of running ImageIO.read on the same bytes again.
+// Bounded by pixel memory, not entry count; entries pushed out of the LRU stay reachable
+// through soft references until the GC actually needs the space.
+public class ImageCache {
+
+    // --- LIMITS ---
+    // 1/8 of the heap, capped at 64 MB (about 800 pet cards at 280x200)
+    private static final long MAX_BYTES = Math.min(64L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 8);
+
+    private static final LinkedHashMap<String, BufferedImage> lru = new LinkedHashMap<>(64, 0.75f, true);
+    private static long currentBytes = 0;
+
+    // Evicted from the LRU but not yet collected
+    private static final Map<String, SoftReference<BufferedImage>> soft = new ConcurrentHashMap<>();
+
+    // Same byte[] handed to us again (e.g. a table renderer on every repaint) -> skip rehashing it
+    private static final Map<byte[], String> contentKeys = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // --- METRICS ---
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong softHits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    // --- LOOKUPS ---
+    // Decoded and scaled to exactly width x height (how the cards have always drawn them)
+    public static BufferedImage scaled(byte[] bytes, int width, int height) {
+        String key = contentKey(bytes);
+        if (key == null) return null;
+        return get(key + "@" + width + "x" + height, () -> decodeScaled(bytes, width, height));
+    }
+
+    // Uncached decode + scale, for loaders passed to get() under their own key
+    public static BufferedImage decodeScaled(byte[] bytes, int width, int height) {
+        BufferedImage src = decode(bytes);
+        return src == null ? null : scale(src, width, height);
+    }
+
+    // Same, cropped to an antialiased circle (avatars)
+    public static BufferedImage circle(byte[] bytes, int diameter) {
+        String key = contentKey(bytes);
+        if (key == null) return null;
+        return get(key + "@o" + diameter, () -> {
+            BufferedImage src = decode(bytes);
+            return src == null ? null : toCircle(src, diameter);
+        });
+    }
+
+    // General form: any key (pet id, content hash, resource path...) plus whatever makes the image
+    public static BufferedImage get(String key, Supplier<BufferedImage> loader) {
+        synchronized (ImageCache.class) {
+            BufferedImage img = lru.get(key);
+            if (img != null) {
+                hits.incrementAndGet();
+                return img;
+            }
+        }
+
+        SoftReference<BufferedImage> ref = soft.remove(key);
+        BufferedImage img = ref != null ? ref.get() : null;
+        if (img != null) {
+            softHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            img = loader.get();     // Decode outside the lock; two threads may both decode, that's fine
+            if (img == null) return null;
+        }
+        put(key, img);
+        return img;
+    }
+
+    // Lookup only; never decodes (safe to call from paint code or the EDT)
+    public static synchronized BufferedImage getIfPresent(String key) {
+        BufferedImage img = lru.get(key);
+        if (img != null) hits.incrementAndGet();
+        return img;
+    }
+
+    public static void clear() {
+        synchronized (ImageCache.class) {
+            lru.clear();
+            currentBytes = 0;
+        }
+        soft.clear();
+    }
+
+    public static long getHits() { return hits.get() + softHits.get(); }
+
+    public static long getMisses() { return misses.get(); }
+
+    public static String getStats() {
+        long total = hits.get() + softHits.get() + misses.get();
+        long hitPct = total == 0 ? 0 : (hits.get() + softHits.get()) * 100 / total;
+        synchronized (ImageCache.class) {
+            return "images=" + lru.size() + " mem=" + (currentBytes / 1024) + "KB/" + (MAX_BYTES / 1024) + "KB"
+                    + " hits=" + hits.get() + " softHits=" + softHits.get() + " misses=" + misses.get()
+                    + " (" + hitPct + "%) evicted=" + evictions.get() + " soft=" + soft.size();
+        }
+    }
+
+    // --- INTERNALS ---
+    private static synchronized void put(String key, BufferedImage img) {
+        BufferedImage old = lru.put(key, img);
+        if (old != null) currentBytes -= sizeOf(old);
+        currentBytes += sizeOf(img);
+
+        Iterator<Map.Entry<String, BufferedImage>> it = lru.entrySet().iterator();
+        while (currentBytes > MAX_BYTES && it.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;      // Never evict what we just added
+            currentBytes -= sizeOf(eldest.getValue());
+            soft.put(eldest.getKey(), new SoftReference<>(eldest.getValue()));
+            it.remove();
+            evictions.incrementAndGet();
+        }
+
+        // Drop soft entries the GC already cleared
+        if (soft.size() > lru.size() * 4 + 64) soft.values().removeIf(r -> r.get() == null);
+    }
+
+    static long sizeOf(BufferedImage img) {
+        return (long) img.getWidth() * img.getHeight() * 4;
+    }
+
+    private static String contentKey(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        String key = contentKeys.get(bytes);
+        if (key == null) {
+            key = ImageStore.sha256(bytes);
+            contentKeys.put(bytes, key);
+        }
+        return key;
+    }
+
+    private static BufferedImage decode(byte[] bytes) {
+        try {
+            return Thumbnails.decode(bytes);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Image in the screen's native pixel layout, so drawing it is a straight copy
+    static BufferedImage compatible(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    // Scaled to diameter x diameter and masked to an antialiased circle
+    public static BufferedImage toCircle(BufferedImage src, int diameter) {
+        BufferedImage sized = scale(src, diameter, diameter);
+        BufferedImage out = compatible(diameter, diameter);
+        Graphics2D g2 = out.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.fill(new Ellipse2D.Float(0, 0, diameter, diameter));
+        g2.setComposite(AlphaComposite.SrcIn);
+        g2.drawImage(sized, 0, 0, null);
+        g2.dispose();
+        return out;
+    }
+
+    // Exact width x height; halves first when shrinking a lot so bilinear doesn't alias
+    static BufferedImage scale(BufferedImage src, int width, int height) {
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        while (w / 2 >= width && h / 2 >= height) {
+            w /= 2;
+            h /= 2;
+            current = draw(current, w, h);
+        }
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage draw(BufferedImage src, int width, int height) {
+        BufferedImage out = compatible(width, height);
+        Graphics2D g2 = out.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(src, 0, 0, width, height, null);
+        g2.dispose();
+        return out;
+    }
+}
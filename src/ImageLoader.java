@@ -0,0 +1,160 @@
+import javax.swing.JComponent;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import java.awt.Rectangle;
+import java.awt.event.HierarchyEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Background image decoding for card grids: cards are shown straight away with a placeholder and
+// their pictures stream in, visible cards first. Cards far off-screen (or in a hidden view) are parked
+// until they come back into range, and a closed view cancels everything it still had queued.
+public class ImageLoader {
+
+    // --- PRIORITIES (lower runs first) ---
+    static final int VISIBLE = 0;
+    static final int NEAR = 1;      // Within one screen of the viewport, or not laid out yet
+    static final int FAR = 2;       // Parked: not queued at all
+
+    private static final int WORKERS = 2;
+
+    private static final PriorityBlockingQueue<Request> queue = new PriorityBlockingQueue<>();
+    private static final AtomicLong sequence = new AtomicLong();
+
+    static {
+        for (int i = 0; i < WORKERS; i++) {
+            Thread t = new Thread(ImageLoader::workLoop, "PawTrack-ImageLoader-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    static class Request implements Comparable<Request> {
+        final JComponent target;
+        final String key;
+        final Supplier<BufferedImage> loader;
+        final Consumer<BufferedImage> onLoaded;
+        final long seq = sequence.incrementAndGet();   // Ties go in the order cards were added
+        volatile int priority = NEAR;
+        volatile boolean cancelled;
+        volatile boolean taken;         // A worker has it; no more re-queuing
+
+        Request(JComponent target, String key, Supplier<BufferedImage> loader, Consumer<BufferedImage> onLoaded) {
+            this.target = target;
+            this.key = key;
+            this.loader = loader;
+            this.onLoaded = onLoaded;
+        }
+
+        @Override
+        public int compareTo(Request o) {
+            if (priority != o.priority) return Integer.compare(priority, o.priority);
+            return Long.compare(seq, o.seq);
+        }
+    }
+
+    // --- ONE GRID / VIEW ---
+    // All methods are called on the EDT; pictures are delivered on the EDT.
+    public static class Group {
+        private final JViewport viewport;
+        private final List<Request> requests = new ArrayList<>();
+
+        public Group(JViewport viewport) {
+            this.viewport = viewport;
+            if (viewport != null) {
+                viewport.addChangeListener(e -> reprioritize());
+                viewport.addHierarchyListener(e -> {
+                    if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) reprioritize();
+                });
+            }
+        }
+
+        // 'key' should name the finished image (content + size); a cache hit skips the queue entirely
+        public void load(JComponent target, String key, Supplier<BufferedImage> loader, Consumer<BufferedImage> onLoaded) {
+            BufferedImage cached = ImageCache.getIfPresent(key);
+            if (cached != null) {
+                onLoaded.accept(cached);
+                return;
+            }
+            Request r = new Request(target, key, loader, onLoaded);
+            requests.add(r);
+            r.priority = priorityOf(target);
+            if (r.priority != FAR) queue.offer(r);
+        }
+
+        // Re-sorts what's still waiting after a scroll, resize or show/hide
+        public void reprioritize() {
+            requests.removeIf(r -> r.taken || r.cancelled);
+            for (Request r : requests) {
+                int p = priorityOf(r.target);
+                if (p == r.priority) continue;
+                queue.remove(r);
+                r.priority = p;
+                if (p != FAR) queue.offer(r);
+            }
+        }
+
+        // A recycled card is about to show something else: forget what it was waiting for
+        public void cancel(JComponent target) {
+            requests.removeIf(r -> {
+                if (r.target != target) return false;
+                r.cancelled = true;
+                queue.remove(r);
+                return true;
+            });
+        }
+
+        // View closed or reloaded: drop everything not yet delivered (the group can be reused)
+        public void cancelAll() {
+            for (Request r : requests) {
+                r.cancelled = true;
+                queue.remove(r);
+            }
+            requests.clear();
+        }
+
+        private int priorityOf(JComponent target) {
+            if (viewport == null) return NEAR;
+            if (!viewport.isShowing() || !target.isShowing()) return FAR;
+            if (target.getWidth() == 0 || target.getHeight() == 0 || viewport.getView() == null) return NEAR;
+
+            Rectangle bounds = SwingUtilities.convertRectangle(target.getParent(), target.getBounds(), viewport.getView());
+            Rectangle view = viewport.getViewRect();
+            if (bounds.intersects(view)) return VISIBLE;
+            view.grow(0, view.height);
+            return bounds.intersects(view) ? NEAR : FAR;
+        }
+    }
+
+    // --- WORKERS ---
+    private static void workLoop() {
+        while (true) {
+            Request r;
+            try {
+                r = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            r.taken = true;
+            if (r.cancelled) continue;
+
+            BufferedImage img = null;
+            try {
+                img = ImageCache.get(r.key, r.loader);
+            } catch (Exception e) {
+                System.err.println("⚠️ [ImageLoader] " + r.key + ": " + e.getMessage());
+            }
+            if (img == null || r.cancelled) continue;
+
+            BufferedImage loaded = img;
+            SwingUtilities.invokeLater(() -> {
+                if (!r.cancelled) r.onLoaded.accept(loaded);
+            });
+        }
+    }
+}
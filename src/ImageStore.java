@@ -0,0 +1,390 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Content-addressed pet photo store.
+// pets_accounts only keeps image_hash (SHA-256 hex); the bytes live once per distinct photo in pet_images,
+// and each machine keeps a copy on disk under pawtrack_images/ so a photo crosses the network at most once.
+// Screens ask for a Thumbnails size rather than the original.
+public class ImageStore {
+
+    private static final Path ROOT = Paths.get("pawtrack_images");
+
+    // Hashes we already know are on disk this session (saves a stat per card)
+    private static final ConcurrentHashMap<String, Boolean> onDisk = new ConcurrentHashMap<>();
+
+    // pet_id -> hash for rows migrated this session (the UPDATE may still be queued in DBDual)
+    private static final ConcurrentHashMap<Integer, String> migratedPets = new ConcurrentHashMap<>();
+
+    private static final int LEGACY_BATCH = 50;
+    private static final AtomicBoolean legacyMigrationStarted = new AtomicBoolean(false);
+
+    // Thumbnail generation happens here, not on whatever thread called put()
+    private static final ExecutorService THUMBNAILER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "PawTrack-Thumbnailer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // --- WRITE ---
+    // Saves the photo (disk + both databases) and returns the reference to put in pets_accounts.image_hash
+    public static String put(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+        String hash = sha256(bytes);
+        store(hash, bytes);
+        return hash;
+    }
+
+    // Completes once both databases have the photo row (or have it journaled behind the queue)
+    private static CompletableFuture<Void> store(String hash, byte[] bytes) {
+        writeToDisk(hash, bytes);
+
+        // INSERT IGNORE: identical photos (same hash) are stored once
+        CompletableFuture<Void> saved = DBDual.executeUpdateBoth("INSERT IGNORE INTO pet_images (hash, data, byte_size) VALUES (?, ?, ?)", stmt -> {
+            stmt.setString(1, hash);
+            stmt.setBytes(2, bytes);
+            stmt.setInt(3, bytes.length);
+        });
+
+        // Sized copies are made in the background; a screen asking before they're ready makes them itself
+        THUMBNAILER.execute(() -> {
+            // Same photo uploaded again: the smallest variant is written last, so if it's there they all are
+            if (readFromDisk(hash + "_" + Thumbnails.AVATAR) == null) storeThumbnails(hash, bytes);
+        });
+        return saved;
+    }
+
+    // --- READ ---
+    // Disk first, then whichever database has it. Returns null if the photo can't be found anywhere.
+    public static byte[] load(String hash) {
+        if (hash == null || hash.isEmpty()) return null;
+
+        byte[] bytes = readFromDisk(hash);
+        if (bytes != null) return bytes;
+
+        String sql = "SELECT data FROM pet_images WHERE hash = ?";
+        bytes = fetch(sql, hash, Source.ROUTED);
+        if (bytes == null) bytes = fetch(sql, hash, Source.ONLINE);
+        if (bytes == null) bytes = fetch(sql, hash, Source.LOCAL);
+
+        if (bytes != null) {
+            if (!hash.equals(sha256(bytes))) {
+                System.err.println("⚠️ [ImageStore] Hash mismatch for " + hash + ", ignoring");
+                return null;
+            }
+            writeToDisk(hash, bytes);
+        }
+        return bytes;
+    }
+
+    // Pre-sized copy for a view that draws at 'px' (rounded up to the nearest Thumbnails size)
+    public static byte[] loadThumbnail(String hash, int px) {
+        if (hash == null || hash.isEmpty()) return null;
+        int size = Thumbnails.sizeFor(px);
+        String key = hash + "_" + size;
+
+        byte[] bytes = readFromDisk(key);
+        if (bytes != null) return bytes;
+
+        String sql = "SELECT data FROM pet_image_thumbs WHERE hash = ? AND size = " + size;
+        bytes = fetch(sql, hash, Source.ROUTED);
+        if (bytes == null) bytes = fetch(sql, hash, Source.ONLINE);
+        if (bytes == null) bytes = fetch(sql, hash, Source.LOCAL);
+        if (bytes != null) {
+            writeToDisk(key, bytes);
+            return bytes;
+        }
+
+        // Photo stored before thumbnails existed (or the background job hasn't run yet): make them now
+        byte[] original = load(hash);
+        if (original == null) return null;
+        Map<Integer, byte[]> variants = storeThumbnails(hash, original);
+        return variants != null ? variants.get(size) : original;
+    }
+
+    // What the list screens call: thumbnail by reference. Rows from before image_hash existed show no
+    // photo until the legacy migration job (startLegacyMigration) has moved theirs into the store.
+    public static byte[] loadPetThumbnail(int petId, String hash, int px) {
+        if (hash == null) hash = migratedPets.get(petId);
+        if (hash == null) return null;
+        return loadThumbnail(hash, px);
+    }
+
+    // Batched form for list screens whose main query only returns pet ids: one query maps ids to hashes,
+    // thumbnails come from disk where we have them and from one IN (...) query per database for the rest.
+    // Pets with no photo are left out of the map.
+    public static Map<Integer, byte[]> loadPetThumbnails(Collection<Integer> petIds, int px) {
+        return loadPetThumbnails(petIds, "pet_id", px);
+    }
+
+    // 'idColumn': what pets_accounts' key is called on this schema (Breeding also runs against ones that use "id")
+    public static Map<Integer, byte[]> loadPetThumbnails(Collection<Integer> petIds, String idColumn, int px) {
+        Map<Integer, byte[]> result = new HashMap<>();
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Integer id : petIds) if (id != null && id > 0) ids.add(id);
+        if (ids.isEmpty()) return result;
+
+        int size = Thumbnails.sizeFor(px);
+        Map<Integer, String> hashes = lookupHashes(ids, idColumn);
+
+        // Disk first; whatever's left is fetched together
+        Map<String, byte[]> thumbs = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String hash : new LinkedHashSet<>(hashes.values())) {
+            byte[] bytes = readFromDisk(hash + "_" + size);
+            if (bytes != null) thumbs.put(hash, bytes);
+            else missing.add(hash);
+        }
+        for (Source source : Source.values()) {
+            if (missing.isEmpty()) break;
+            fetchThumbs(missing, size, source, thumbs);
+            missing.removeIf(thumbs::containsKey);
+        }
+        // Never thumbnailed (or not synced yet): make them one by one, as loadThumbnail would
+        for (String hash : missing) {
+            byte[] bytes = loadThumbnail(hash, size);
+            if (bytes != null) thumbs.put(hash, bytes);
+        }
+
+        for (Map.Entry<Integer, String> e : hashes.entrySet()) {
+            byte[] bytes = thumbs.get(e.getValue());
+            if (bytes != null) result.put(e.getKey(), bytes);
+        }
+        return result;
+    }
+
+    public static byte[] loadPetImage(int petId, String hash) {
+        if (hash == null) hash = migratedPets.get(petId);
+        return load(hash);
+    }
+
+    // --- LEGACY MIGRATION (one-time job) ---
+    // Rows saved before image_hash existed still carry the photo in pets_accounts.image. This moves them
+    // into the store a batch at a time on its own thread, instead of on whichever screen saw them first.
+    // Started once per run after login; when no such rows are left it costs one query.
+    public static void startLegacyMigration() {
+        if (!legacyMigrationStarted.compareAndSet(false, true)) return;
+        Thread t = new Thread(() -> {
+            int moved = migrateLegacyImages();
+            if (moved > 0) System.out.println("✅ [ImageStore] Moved " + moved + " legacy pet photos into the image store");
+        }, "PawTrack-ImageMigration");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    static int migrateLegacyImages() {
+        int moved = 0;
+        int lastId = 0;
+        while (true) {
+            List<Integer> batch = new ArrayList<>();
+            try (Connection conn = DBConnector.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT pet_id FROM pets_accounts " +
+                         "WHERE image_hash IS NULL AND image IS NOT NULL AND pet_id > ? ORDER BY pet_id LIMIT " + LEGACY_BATCH)) {
+                stmt.setInt(1, lastId);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) batch.add(rs.getInt(1));
+            } catch (SQLException e) {
+                System.err.println("⚠️ [ImageStore] Legacy photo scan stopped: " + e.getMessage());
+                return moved;
+            }
+            if (batch.isEmpty()) return moved;
+
+            for (int petId : batch) {
+                lastId = petId;
+                try {
+                    if (migrateLegacy(petId).join() != null) moved++;
+                } catch (Exception e) {
+                    // The BLOB is still in place; the next run tries this pet again
+                    System.err.println("⚠️ [ImageStore] Pet " + petId + " photo not migrated: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Copies one row's old LONGBLOB into the store. The BLOB is only cleared after the store write has
+    // succeeded on both databases, so a rejected insert never loses the photo. Matched by sync_uuid,
+    // since the two databases can number the same pet differently.
+    private static CompletableFuture<String> migrateLegacy(int petId) {
+        byte[] legacy = null;
+        String syncId = null;
+        try (Connection conn = DBConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT image, sync_uuid FROM pets_accounts WHERE pet_id = ?")) {
+            stmt.setInt(1, petId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                legacy = rs.getBytes(1);
+                syncId = rs.getString(2);
+            }
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (legacy == null || legacy.length == 0 || syncId == null) return CompletableFuture.completedFuture(null);
+
+        String hash = sha256(legacy);
+        String key = syncId;
+        return store(hash, legacy)
+                .thenCompose(v -> DBDual.executeUpdateBoth(
+                        "UPDATE pets_accounts SET image_hash = ?, image = NULL WHERE sync_uuid = ? AND image_hash IS NULL", stmt -> {
+                            stmt.setString(1, hash);
+                            stmt.setString(2, key);
+                        }))
+                .thenApply(v -> {
+                    migratedPets.put(petId, hash);
+                    return hash;
+                });
+    }
+
+    // --- INTERNALS ---
+    private enum Source { ROUTED, ONLINE, LOCAL }
+
+    private static Map<Integer, byte[]> storeThumbnails(String hash, byte[] original) {
+        Map<Integer, byte[]> variants;
+        try {
+            variants = Thumbnails.generate(original);
+        } catch (Exception e) {
+            System.err.println("⚠️ [ImageStore] No thumbnails for " + hash + ": " + e.getMessage());
+            return null;
+        }
+
+        for (Map.Entry<Integer, byte[]> v : variants.entrySet()) {
+            // Smallest last, so its presence on disk means the whole set is there
+            writeToDisk(hash + "_" + v.getKey(), v.getValue());
+        }
+        for (Map.Entry<Integer, byte[]> v : variants.entrySet()) {
+            int size = v.getKey();
+            byte[] data = v.getValue();
+            DBDual.executeUpdateBoth("INSERT IGNORE INTO pet_image_thumbs (hash, size, data) VALUES (?, ?, ?)", stmt -> {
+                stmt.setString(1, hash);
+                stmt.setInt(2, size);
+                stmt.setBytes(3, data);
+            });
+        }
+        return variants;
+    }
+
+    // pet id -> image_hash in one query (rows still waiting for the legacy migration are left out)
+    private static Map<Integer, String> lookupHashes(Set<Integer> ids, String idColumn) {
+        Map<Integer, String> hashes = new HashMap<>();
+        String sql = "SELECT " + idColumn + ", image_hash FROM pets_accounts WHERE " + idColumn + " IN (" + placeholders(ids.size()) + ")";
+        try (Connection conn = DBConnector.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Integer id : ids) stmt.setInt(i++, id);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                String hash = rs.getString(2);
+                if (hash == null) hash = migratedPets.get(rs.getInt(1));
+                if (hash != null) hashes.put(rs.getInt(1), hash);
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠️ [ImageStore] Hash lookup failed: " + e.getMessage());
+        }
+        return hashes;
+    }
+
+    private static void fetchThumbs(List<String> hashes, int size, Source source, Map<String, byte[]> into) {
+        String sql = "SELECT hash, data FROM pet_image_thumbs WHERE size = ? AND hash IN (" + placeholders(hashes.size()) + ")";
+        try (Connection conn = connectionFor(source);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, size);
+            for (int i = 0; i < hashes.size(); i++) stmt.setString(i + 2, hashes.get(i));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                String hash = rs.getString(1);
+                byte[] data = rs.getBytes(2);
+                writeToDisk(hash + "_" + size, data);
+                into.put(hash, data);
+            }
+        } catch (SQLException e) {
+            // That database is unreachable; the next source gets its chance
+        }
+    }
+
+    private static String placeholders(int n) {
+        return String.join(",", Collections.nCopies(n, "?"));
+    }
+
+    private static Connection connectionFor(Source source) throws SQLException {
+        return source == Source.ONLINE ? DBConnector.getOnlineConnection()
+                : source == Source.LOCAL ? DBConnector.getLocalConnection()
+                : DBConnector.getConnection();
+    }
+
+    private static byte[] fetch(String sql, String hash, Source source) {
+        try (Connection conn = connectionFor(source);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, hash);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getBytes(1) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    // Originals are <hash>, thumbnails <hash>_<size>, all in the same folder
+    private static Path pathFor(String key) {
+        return ROOT.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static byte[] readFromDisk(String key) {
+        Path path = pathFor(key);
+        try {
+            if (!onDisk.containsKey(key) && !Files.exists(path)) return null;
+            byte[] bytes = Files.readAllBytes(path);
+            onDisk.put(key, Boolean.TRUE);
+            return bytes;
+        } catch (IOException e) {
+            onDisk.remove(key);
+            return null;
+        }
+    }
+
+    private static void writeToDisk(String key, byte[] bytes) {
+        if (onDisk.containsKey(key)) return;
+        Path path = pathFor(key);
+        try {
+            Files.createDirectories(path.getParent());
+            if (!Files.exists(path)) {
+                // Write then rename, so a crash never leaves a half-written photo under a valid hash
+                Path tmp = Files.createTempFile(path.getParent(), key, ".tmp");
+                Files.write(tmp, bytes);
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            onDisk.put(key, Boolean.TRUE);
+        } catch (IOException e) {
+            System.err.println("⚠️ [ImageStore] Could not cache " + key + ": " + e.getMessage());
+        }
+    }
+
+    static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cleans up a picked photo before it goes anywhere near ImageStore / DBDual:
+// reject what we can't or shouldn't decode, turn it the right way up, cap the resolution,
+// and re-encode without metadata (EXIF, GPS, embedded thumbnails). A 12 MB phone photo
+// ends up a few hundred KB, and that's what gets written to both databases.
+public class ImageUpload {
+
+    // --- LIMITS ---
+    private static final long MAX_FILE_BYTES = 30L * 1024 * 1024;    // Bigger than any phone photo
+    private static final long MAX_PIXELS = 50_000_000L;              // Header dimensions; stops decompression bombs
+    private static final int MAX_EDGE = 1600;                        // Longest side kept (LARGE thumbnail is 900)
+
+    // --- METRICS ---
+    private static final AtomicLong uploads = new AtomicLong();
+    private static final AtomicLong rejected = new AtomicLong();
+    private static final AtomicLong bytesIn = new AtomicLong();
+    private static final AtomicLong bytesOut = new AtomicLong();
+
+    // What to store, plus enough to report what the pipeline did
+    public record Normalized(byte[] bytes, int width, int height, int originalBytes, int originalWidth, int originalHeight) {
+        public long bytesSaved() { return (long) originalBytes - bytes.length; }
+    }
+
+    public static Normalized normalize(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size > MAX_FILE_BYTES) {
+            rejected.incrementAndGet();
+            throw new IOException("Image is too large (" + (size / (1024 * 1024)) + " MB, max " + (MAX_FILE_BYTES / (1024 * 1024)) + " MB)");
+        }
+        return normalize(Files.readAllBytes(file));
+    }
+
+    // Throws IOException with a message fit for the user when the image is rejected
+    public static Normalized normalize(byte[] original) throws IOException {
+        try {
+            Normalized result = process(original);
+            uploads.incrementAndGet();
+            bytesIn.addAndGet(original.length);
+            bytesOut.addAndGet(result.bytes().length);
+            System.out.println("🖼️ [ImageUpload] " + result.originalWidth() + "x" + result.originalHeight() + " " + kb(original.length)
+                    + " -> " + result.width() + "x" + result.height() + " " + kb(result.bytes().length)
+                    + " (saved " + kb(result.bytesSaved()) + ")");
+            return result;
+        } catch (IOException | RuntimeException e) {
+            rejected.incrementAndGet();
+            System.err.println("⚠️ [ImageUpload] Rejected: " + e.getMessage());
+            throw e instanceof IOException io ? io : new IOException("Could not read image", e);
+        }
+    }
+
+    public static String getStats() {
+        long in = bytesIn.get();
+        long out = bytesOut.get();
+        long pct = in == 0 ? 0 : (in - out) * 100 / in;
+        return "uploads=" + uploads.get() + " rejected=" + rejected.get()
+                + " in=" + kb(in) + " out=" + kb(out) + " saved=" + kb(in - out) + " (" + pct + "%)";
+    }
+
+    // --- PIPELINE ---
+    private static Normalized process(byte[] original) throws IOException {
+        if (original == null || original.length == 0) throw new IOException("Image file is empty");
+        if (original.length > MAX_FILE_BYTES) throw new IOException("Image is too large");
+        if (isWebP(original)) throw new IOException("WebP is not supported. Please save the picture as PNG or JPG.");
+
+        BufferedImage img;
+        int srcW, srcH;
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new IOException("Unsupported or corrupted image");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);     // ignoreMetadata: we never keep it anyway
+                srcW = reader.getWidth(0);
+                srcH = reader.getHeight(0);
+                if (srcW <= 0 || srcH <= 0) throw new IOException("Image has no pixels");
+                if ((long) srcW * srcH > MAX_PIXELS) {
+                    throw new IOException("Image resolution is too high (" + srcW + "x" + srcH + ")");
+                }
+
+                // Far bigger than we keep: let the decoder skip pixels instead of decoding them all
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(srcW, srcH) / (MAX_EDGE * 2));
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                img = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+        if (img == null) throw new IOException("Unsupported or corrupted image");
+
+        img = orient(img, exifOrientation(original));
+
+        int longSide = Math.max(img.getWidth(), img.getHeight());
+        if (longSide > MAX_EDGE) {
+            int shortSide = Math.min(img.getWidth(), img.getHeight());
+            img = Thumbnails.downscale(img, Math.max(1, shortSide * MAX_EDGE / longSide));
+        }
+        if (img.getColorModel().hasAlpha() && isOpaque(img)) img = toRgb(img);
+
+        // Fresh IIOImage with no metadata: EXIF/GPS/ICC comments are gone from here on
+        byte[] out = Thumbnails.encode(img);
+        return new Normalized(out, img.getWidth(), img.getHeight(), original.length, srcW, srcH);
+    }
+
+    private static boolean isWebP(byte[] b) {
+        return b.length > 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P';
+    }
+
+    // --- ORIENTATION ---
+    // ImageIO ignores the EXIF orientation tag, so phone photos would otherwise come out sideways.
+    // Returns 1 (as stored) when there's no tag or the file isn't a JPEG.
+    static int exifOrientation(byte[] b) {
+        if (b.length < 4 || (b[0] & 0xFF) != 0xFF || (b[1] & 0xFF) != 0xD8) return 1;
+        int pos = 2;
+        while (pos + 4 <= b.length && (b[pos] & 0xFF) == 0xFF) {
+            int marker = b[pos + 1] & 0xFF;
+            int len = ((b[pos + 2] & 0xFF) << 8) | (b[pos + 3] & 0xFF);
+            if (marker == 0xDA || len < 2) break;        // Start of scan: no more headers
+            int seg = pos + 4;
+            if (marker == 0xE1 && seg + 14 <= b.length && b[seg] == 'E' && b[seg + 1] == 'x' && b[seg + 2] == 'i' && b[seg + 3] == 'f') {
+                return readOrientation(b, seg + 6, Math.min(b.length, pos + 2 + len));
+            }
+            pos += 2 + len;
+        }
+        return 1;
+    }
+
+    private static int readOrientation(byte[] b, int tiff, int end) {
+        boolean little = b[tiff] == 'I';
+        int ifd = tiff + readInt(b, tiff + 4, little);
+        if (ifd < tiff || ifd + 2 > end) return 1;
+        int entries = readShort(b, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) break;
+            if (readShort(b, entry, little) == 0x0112) {
+                int value = readShort(b, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] b, int at, boolean little) {
+        int b0 = b[at] & 0xFF, b1 = b[at + 1] & 0xFF;
+        return little ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] b, int at, boolean little) {
+        return little ? (readShort(b, at + 2, true) << 16) | readShort(b, at, true)
+                : (readShort(b, at, false) << 16) | readShort(b, at + 2, false);
+    }
+
+    // Applies EXIF orientation 2..8 (mirror and/or rotate) so the pixels are stored upright
+    static BufferedImage orient(BufferedImage src, int orientation) {
+        if (orientation <= 1 || orientation > 8) return src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.translate(w, 0); t.scale(-1, 1); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.translate(0, h); t.scale(1, -1); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.translate(h, w); t.scale(-1, -1); t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+        }
+        BufferedImage out = new BufferedImage(swap ? h : w, swap ? w : h,
+                src.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = out.createGraphics();
+        g2.drawImage(src, t, null);
+        g2.dispose();
+        return out;
+    }
+
+    // --- HELPERS ---
+    private static boolean isOpaque(BufferedImage img) {
+        for (int y = 0; y < img.getHeight(); y++) {
+            for (int x = 0; x < img.getWidth(); x++) {
+                if ((img.getRGB(x, y) >>> 24) != 0xFF) return false;
+            }
+        }
+        return true;
+    }
+
+    private static BufferedImage toRgb(BufferedImage src) {
+        BufferedImage out = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = out.createGraphics();
+        g2.drawImage(src, 0, 0, null);
+        g2.dispose();
+        return out;
+    }
+
+    private static String kb(long bytes) {
+        return (bytes / 1024) + "KB";
+    }
+}
@@ -0,0 +1,468 @@
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Chat history for ChatOverlay, painted instead of built from one JPanel + JTextArea per message.
+// Each message keeps its wrapped lines for the width they were measured at, so a bubble is measured
+// once (again only if the chat window width changes) and painting only touches the bubbles in view.
+// Older history arrives a page at a time from a HistorySource when the user scrolls near the top.
+// Our own messages can be shown before they're stored (SENDING, negative local id) and are then
+// confirmed with their real message_id or marked FAILED; a failed bubble can be clicked to retry.
+// Put it directly in a JScrollPane (it implements Scrollable).
+public class MessageList extends JComponent implements Scrollable {
+
+    public record Item(long id, String text, boolean mine) {}
+
+    public enum Status { SENT, SENDING, FAILED }
+
+    // Page of messages older than 'firstId', oldest first. Implement as "WHERE id < ? ORDER BY id DESC LIMIT ?" reversed.
+    public interface HistorySource {
+        List<Item> fetchBefore(long firstId, int limit) throws Exception;
+    }
+
+    // --- LOOK (same as the old JTextArea bubbles) ---
+    private static final Font FONT = new Font("Segoe UI", Font.PLAIN, 14);
+    private static final int MAX_BUBBLE_W = 260;
+    private static final int PAD_X = 12;
+    private static final int PAD_Y = 8;
+    private static final int GAP = 5;
+    private static final int MARGIN = 10;
+    private static final int ARC = 18;
+    private static final int LOAD_OLDER_PX = 300;      // Start fetching older history this close to the top
+    private static final Font CAPTION_FONT = new Font("Segoe UI", Font.PLAIN, 11);
+    private static final int CAPTION_H = 16;           // "Not sent" line under a failed bubble
+    private static final Color FAILED_COLOR = new Color(231, 76, 60);
+
+    private Color selfBubble = new Color(0, 132, 255);
+    private Color selfText = Color.WHITE;
+    private Color otherBubble = new Color(62, 64, 66);
+    private Color otherText = new Color(228, 230, 235);
+
+    private static class Row {
+        Item item;
+        Status status = Status.SENT;
+        int wrapWidth = -1;         // Width 'lines' were wrapped at; -1 = not measured yet
+        String[] lines;
+        int width;
+        int height;
+
+        Row(Item item) { this.item = item; }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private final Set<Long> ids = new HashSet<>();     // Stored message ids on screen, to drop repeats
+    private int[] tops = new int[64];           // y of each row, relative to the top margin
+    private int contentHeight;
+    private int wrapWidth = -1;                 // What the current 'tops' were computed for
+    private boolean dirty = true;               // 'tops' need rebuilding (prepend / width change / clear)
+
+    private HistorySource history;
+    private int pageSize;
+    private boolean hasOlder;
+    private boolean loadingOlder;
+    private int generation;                     // Bumped on clear() so a late page from the old chat is dropped
+    private boolean anchoring;
+    private boolean awaitingBottom;             // New history not scrolled down yet: the view at the top isn't the user scrolling up
+    private Consumer<Item> retryHandler;
+
+    public MessageList() {
+        setOpaque(false);
+        setFont(FONT);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                Row row = rowAt(e.getY());
+                if (row != null && row.status == Status.FAILED && retryHandler != null) retryHandler.accept(row.item);
+            }
+        });
+    }
+
+    public void setColors(Color selfBubble, Color selfText, Color otherBubble, Color otherText) {
+        this.selfBubble = selfBubble;
+        this.selfText = selfText;
+        this.otherBubble = otherBubble;
+        this.otherText = otherText;
+        repaint();
+    }
+
+    public int getItemCount() { return rows.size(); }
+
+    // Empty list for a new conversation; no older paging until setHistory()
+    public void clear() {
+        generation++;
+        rows.clear();
+        ids.clear();
+        history = null;
+        hasOlder = false;
+        loadingOlder = false;
+        dirty = true;
+        revalidate();
+        repaint();
+    }
+
+    // 'hasOlder' = the first page came back full, so there may be more before it
+    public void setHistory(HistorySource source, int pageSize, boolean hasOlder) {
+        this.history = source;
+        this.pageSize = pageSize;
+        this.hasOlder = hasOlder;
+        awaitingBottom = true;
+    }
+
+    // Call after adding rows; the first call after setHistory() also lets older pages start loading
+    public void scrollToBottom() {
+        revalidate();
+        repaint();
+        SwingUtilities.invokeLater(() -> {      // After the revalidate above has laid us out
+            if (SwingUtilities.getAncestorOfClass(JScrollPane.class, this) instanceof JScrollPane pane) {
+                JScrollBar vertical = pane.getVerticalScrollBar();
+                vertical.setValue(vertical.getMaximum());
+            }
+            awaitingBottom = false;
+        });
+    }
+
+    public void append(Item item) {
+        append(item, Status.SENT);
+    }
+
+    // Optimistic bubble for a message that's still on its way; 'item.id()' is a negative local id
+    public void appendSending(Item item) {
+        append(item, Status.SENDING);
+    }
+
+    private void append(Item item, Status status) {
+        Row row = new Row(item);
+        row.status = status;
+        rows.add(row);
+        if (item.id() > 0) ids.add(item.id());
+        if (!dirty) {
+            measure(row, wrapWidth);
+            place(rows.size() - 1, row);
+        }
+        revalidate();
+        repaint();
+    }
+
+    public boolean contains(long id) {
+        return ids.contains(id);
+    }
+
+    // Clicked on a FAILED bubble; mark it sending again and resend
+    public void setRetryHandler(Consumer<Item> handler) { this.retryHandler = handler; }
+
+    // --- SEND STATUS ---
+    // Stored: the bubble takes its real id. False if it's not here (conversation changed, or already confirmed).
+    // If a poll already put the stored copy on screen, the pending bubble just goes away. A FAILED bubble
+    // can be confirmed too (it timed out, but was stored after all).
+    public boolean confirm(long localId, long id) {
+        Row row = findUnconfirmed(localId);
+        if (row == null) return false;
+        if (ids.contains(id)) {
+            rows.remove(row);
+            dirty = true;
+            revalidate();
+            repaint();
+            return true;
+        }
+        setStatus(row, new Item(id, row.item.text(), true), Status.SENT);
+        return true;
+    }
+
+    public void fail(long localId) {
+        Row row = findSending(localId);
+        if (row != null) setStatus(row, row.item, Status.FAILED);
+    }
+
+    public void markSending(long localId) {
+        for (Row row : rows) {
+            if (row.item.id() == localId && row.status == Status.FAILED) setStatus(row, row.item, Status.SENDING);
+        }
+    }
+
+    // The SENDING bubble with this local id
+    private Row findSending(long localId) {
+        Row row = findUnconfirmed(localId);
+        return row != null && row.status == Status.SENDING ? row : null;
+    }
+
+    private Row findUnconfirmed(long localId) {
+        for (Row row : rows) {
+            if (row.status != Status.SENT && row.item.id() == localId) return row;
+        }
+        return null;
+    }
+
+    private void setStatus(Row row, Item item, Status status) {
+        boolean captionChanged = (row.status == Status.FAILED) != (status == Status.FAILED);
+        row.item = item;
+        row.status = status;
+        if (item.id() > 0) ids.add(item.id());
+        if (captionChanged) {
+            dirty = true;
+            revalidate();
+        }
+        repaint();
+    }
+
+    // --- OLDER HISTORY ---
+    private void loadOlder() {
+        if (history == null || !hasOlder || loadingOlder || rows.isEmpty()) return;
+        loadingOlder = true;
+        repaint();
+        int gen = generation;
+        HistorySource src = history;
+        long firstId = rows.get(0).item.id();
+
+        new SwingWorker<List<Item>, Void>() {
+            @Override
+            protected List<Item> doInBackground() throws Exception {
+                return src.fetchBefore(firstId, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                loadingOlder = false;
+                List<Item> page;
+                try {
+                    page = get();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    hasOlder = false;
+                    repaint();
+                    return;
+                }
+                hasOlder = page.size() >= pageSize;
+                prepend(page);
+            }
+        }.execute();
+    }
+
+    // Inserts above what's on screen and moves the view down by the same amount, so nothing jumps
+    private void prepend(List<Item> page) {
+        if (page.isEmpty()) {
+            repaint();
+            return;
+        }
+        int before = ensureLayout();
+        List<Row> added = new ArrayList<>(page.size());
+        for (Item item : page) added.add(new Row(item));
+        rows.addAll(0, added);
+        dirty = true;
+        int grown = ensureLayout() - before;
+
+        if (getParent() instanceof JViewport viewport) {
+            Point pos = viewport.getViewPosition();
+            anchoring = true;       // The resize below would otherwise look like a scroll to the top
+            try {
+                viewport.setViewSize(new Dimension(viewport.getExtentSize().width, getPreferredSize().height));
+                viewport.setViewPosition(new Point(pos.x, pos.y + grown));
+            } finally {
+                anchoring = false;
+            }
+        }
+        revalidate();
+        repaint();
+    }
+
+    private final ChangeListener scrollListener = e -> {
+        if (!anchoring && !awaitingBottom && hasOlder && !loadingOlder && getVisibleRect().y < LOAD_OLDER_PX) loadOlder();
+    };
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport viewport) viewport.addChangeListener(scrollListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        if (getParent() instanceof JViewport viewport) viewport.removeChangeListener(scrollListener);
+        super.removeNotify();
+    }
+
+    // --- LAYOUT ---
+    private int currentWrapWidth() {
+        int available = getWidth() > 0 ? getWidth() - 2 * MARGIN : MAX_BUBBLE_W;
+        return Math.max(40, Math.min(MAX_BUBBLE_W, available) - 2 * PAD_X);
+    }
+
+    // Brings 'tops' up to date and returns the content height. Rows already wrapped at this width are reused.
+    private int ensureLayout() {
+        int wrap = currentWrapWidth();
+        if (wrap != wrapWidth) {
+            wrapWidth = wrap;
+            dirty = true;
+        }
+        if (dirty) {
+            contentHeight = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                measure(row, wrap);
+                place(i, row);
+            }
+            dirty = false;
+        }
+        return contentHeight;
+    }
+
+    private void place(int index, Row row) {
+        if (index >= tops.length) {
+            int[] grown = new int[Math.max(index + 1, tops.length * 2)];
+            System.arraycopy(tops, 0, grown, 0, tops.length);
+            tops = grown;
+        }
+        tops[index] = contentHeight;
+        contentHeight += span(row) + GAP;
+    }
+
+    // Bubble plus the caption under it, if any
+    private static int span(Row row) {
+        return row.height + (row.status == Status.FAILED ? CAPTION_H : 0);
+    }
+
+    private void measure(Row row, int wrap) {
+        if (row.wrapWidth == wrap) return;
+        FontMetrics fm = getFontMetrics(FONT);
+        List<String> lines = wrap(row.item.text() == null ? "" : row.item.text(), fm, wrap);
+        int widest = 0;
+        for (String line : lines) widest = Math.max(widest, fm.stringWidth(line));
+        row.lines = lines.toArray(new String[0]);
+        row.width = widest + 2 * PAD_X;
+        row.height = lines.size() * fm.getHeight() + 2 * PAD_Y;
+        row.wrapWidth = wrap;
+    }
+
+    // Word wrap like JTextArea(lineWrap, wrapStyleWord): break at spaces, split words that don't fit at all
+    private static List<String> wrap(String text, FontMetrics fm, int width) {
+        List<String> lines = new ArrayList<>();
+        for (String paragraph : text.split("\n", -1)) {
+            StringBuilder line = new StringBuilder();
+            for (String word : paragraph.split(" ", -1)) {
+                String candidate = line.length() == 0 ? word : line + " " + word;
+                if (fm.stringWidth(candidate) <= width) {
+                    line.setLength(0);
+                    line.append(candidate);
+                    continue;
+                }
+                if (line.length() > 0) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                while (fm.stringWidth(word) > width) {
+                    int cut = 1;
+                    while (cut < word.length() && fm.stringWidth(word.substring(0, cut + 1)) <= width) cut++;
+                    lines.add(word.substring(0, cut));
+                    word = word.substring(cut);
+                }
+                line.append(word);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    // First row whose bottom is below y
+    private int firstRowAt(int y) {
+        int lo = 0, hi = rows.size() - 1, found = rows.size();
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tops[mid] + span(rows.get(mid)) >= y) {
+                found = mid;
+                hi = mid - 1;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return found;
+    }
+
+    private Row rowAt(int y) {
+        ensureLayout();
+        int i = firstRowAt(y - MARGIN);
+        if (i >= rows.size() || MARGIN + tops[i] > y) return null;
+        return rows.get(i);
+    }
+
+    // --- PAINTING ---
+    @Override
+    protected void paintComponent(Graphics g) {
+        ensureLayout();
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+        if (loadingOlder) {
+            String text = "Loading earlier messages...";
+            g2.setColor(otherText);
+            g2.drawString(text, (getWidth() - fm.stringWidth(text)) / 2, 2 + fm.getAscent());
+        }
+
+        for (int i = firstRowAt(clip.y - MARGIN); i < rows.size(); i++) {
+            int y = MARGIN + tops[i];
+            if (y > clip.y + clip.height) break;
+            Row row = rows.get(i);
+            boolean mine = row.item.mine();
+            int x = mine ? getWidth() - MARGIN - row.width : MARGIN;
+
+            Graphics2D b = g2;
+            if (row.status == Status.SENDING) {
+                b = (Graphics2D) g2.create();
+                b.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.55f));
+            }
+            b.setColor(mine ? selfBubble : otherBubble);
+            b.fillRoundRect(x, y, row.width, row.height, ARC, ARC);
+            b.setColor(mine ? selfText : otherText);
+            int baseline = y + PAD_Y + fm.getAscent();
+            for (String line : row.lines) {
+                b.drawString(line, x + PAD_X, baseline);
+                baseline += fm.getHeight();
+            }
+            if (b != g2) b.dispose();
+
+            if (row.status == Status.FAILED) {
+                String caption = "Not sent - click to retry";
+                g2.setFont(CAPTION_FONT);
+                g2.setColor(FAILED_COLOR);
+                FontMetrics cfm = g2.getFontMetrics();
+                g2.drawString(caption, getWidth() - MARGIN - cfm.stringWidth(caption), y + row.height + cfm.getAscent() + 2);
+                g2.setFont(FONT);
+            }
+        }
+        g2.dispose();
+    }
+
+    // --- SIZING ---
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(MAX_BUBBLE_W + 2 * MARGIN, ensureLayout() + 2 * MARGIN);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() { return getPreferredSize(); }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) { return 16; }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() { return true; }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() { return false; }
+}
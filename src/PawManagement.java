@@ -2,14 +2,11 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.RoundRectangle2D;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.plaf.basic.BasicScrollBarUI;
@@ -23,7 +20,25 @@ public class PawManagement extends JPanel {
     private final Color ACCENT_SECONDARY = new Color(168, 85, 247);
     private final Color TEXT_MUTED = new Color(100, 116, 139);
 
-    private JPanel imageGridPanel;
+    // Only the cards around the viewport exist; rows are paged in 30 at a time
+    private VirtualGrid<PetRow> petGrid;
+    // Card photos stream in through this; visible cards first
+    private ImageLoader.Group imageLoads;
+
+    private static final int CARD_W = 280;
+    private static final int CARD_H = 420;
+    private static final int CARD_GAP = 30;
+    private static final int PAGE_SIZE = 30;
+
+    // Card photo size (also the ImageCache key suffix)
+    private static final int CARD_IMG_W = 280;
+    private static final int CARD_IMG_H = 200;
+
+    // One row of the grid query; the photo is fetched separately
+    private record PetRow(int petId, String imageHash, String name, String status, String breed,
+                          String gender, String age, String description) {}
+
+    private record LoadedPhoto(PetRow row, byte[] bytes) {}
 
     public PawManagement() {
         setLayout(new BorderLayout());
@@ -31,24 +46,33 @@ public class PawManagement extends JPanel {
         JPanel headerPanel = createHeaderPanel();
         add(headerPanel, BorderLayout.NORTH);
 
-        imageGridPanel = new JPanel(new GridLayout(0, 3, 30, 30));
-        imageGridPanel.setOpaque(false);
-        imageGridPanel.setBorder(BorderFactory.createEmptyBorder(30, 40, 30, 40));
+        petGrid = new VirtualGrid<PetRow>(CARD_W, CARD_H, CARD_GAP, PAGE_SIZE, new VirtualGrid.CardRenderer<PetRow>() {
+            @Override
+            public JComponent create() {
+                return new PetCard();
+            }
 
-        JPanel contentWrapper = new JPanel(new BorderLayout()) {
+            @Override
+            public void bind(JComponent card, PetRow row) {
+                ((PetCard) card).bind(row);
+            }
+        }) {
             @Override
             protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2d = (Graphics2D) g;
+                Graphics2D g2d = (Graphics2D) g.create();
                 g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
                 GradientPaint gp = new GradientPaint(0, 0, BACKGROUND_START, 0, getHeight(), BACKGROUND_END);
                 g2d.setPaint(gp);
                 g2d.fillRect(0, 0, getWidth(), getHeight());
+                g2d.dispose();
+                super.paintComponent(g);
             }
         };
-        contentWrapper.add(imageGridPanel);
+        petGrid.setBorder(BorderFactory.createEmptyBorder(30, 40, 30, 40));
+        petGrid.setLoadingText("Loading pets from database...");
+        petGrid.setEmptyText("No available pets for adoption right now.");
 
-        JScrollPane scrollPane = new JScrollPane(contentWrapper);
+        JScrollPane scrollPane = new JScrollPane(petGrid);
         scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
@@ -58,10 +82,18 @@ public class PawManagement extends JPanel {
         scrollPane.getVerticalScrollBar().setUI(new ModernScrollBarUI());
 
         add(scrollPane, BorderLayout.CENTER);
+        imageLoads = new ImageLoader.Group(scrollPane.getViewport());
 
         reloadPets();
     }
 
+    @Override
+    public void removeNotify() {
+        // View closed: stop decoding photos nobody will see
+        imageLoads.cancelAll();
+        super.removeNotify();
+    }
+
     private JPanel createHeaderPanel() {
         JPanel headerPanel = new JPanel() {
             @Override
@@ -86,205 +118,233 @@ public class PawManagement extends JPanel {
         return headerPanel;
     }
 
+    // Keyset page of the adoption grid (EXPLAINed by QueryPlanCheck): last pet_id seen, page size
+    static final String PETS_PAGE_SQL = "SELECT pet_id, name, status, breed, gender, age, image_hash, reason_for_adoption FROM pets_accounts " +
+            "WHERE status = 'Available' AND pet_id > ? ORDER BY pet_id LIMIT ?";
+
     public void reloadPets() {
-        imageGridPanel.removeAll();
-        imageGridPanel.setLayout(new BorderLayout());
-        JLabel loadingLabel = new JLabel("Loading pets from database...", SwingConstants.CENTER);
-        loadingLabel.setFont(new Font("SansSerif", Font.BOLD, 24));
-        imageGridPanel.add(loadingLabel, BorderLayout.CENTER);
-        imageGridPanel.revalidate();
-        imageGridPanel.repaint();
-
-        SwingWorker<List<JPanel>, Void> worker = new SwingWorker<>() {
-            @Override
-            protected List<JPanel> doInBackground() throws Exception {
-                List<JPanel> cards = new ArrayList<>();
-                try (Connection conn = DBConnector.getConnection()) {
-                    Statement stmt = conn.createStatement();
-
-                    // [ADDED] pet_id to query
-                    String sql = "SELECT pet_id, name, status, breed, gender, age, image, reason_for_adoption FROM pets_accounts WHERE status = 'Available'";
-
-                    ResultSet rs = stmt.executeQuery(sql);
-                    while (rs.next()) {
-                        cards.add(createModernPetCard(
-                                rs.getInt("pet_id"), // [ADDED]
-                                rs.getBytes("image"),
-                                rs.getString("name"),
-                                rs.getString("status"),
-                                rs.getString("breed"),
-                                rs.getString("gender"),
-                                rs.getString("age"),
-                                rs.getString("reason_for_adoption")
-                        ));
-                    }
+        imageLoads.cancelAll();
+        // Keyset pages straight off idx_pets_status_id; only the image reference comes back with a row
+        petGrid.reset((last, limit) -> {
+            List<PetRow> rows = new ArrayList<>();
+            try (Connection conn = DBConnector.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(PETS_PAGE_SQL)) {
+                stmt.setInt(1, last == null ? 0 : last.petId());
+                stmt.setInt(2, limit);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    rows.add(new PetRow(
+                            rs.getInt("pet_id"), // [ADDED]
+                            rs.getString("image_hash"),
+                            rs.getString("name"),
+                            rs.getString("status"),
+                            rs.getString("breed"),
+                            rs.getString("gender"),
+                            rs.getString("age"),
+                            rs.getString("reason_for_adoption")
+                    ));
                 }
-                return cards;
             }
+            return rows;
+        });
+    }
 
-            @Override
-            protected void done() {
-                imageGridPanel.removeAll();
-                imageGridPanel.setLayout(new GridLayout(0, 3, 30, 30));
-                try {
-                    List<JPanel> cards = get();
-                    if (cards.isEmpty()) {
-                        imageGridPanel.setLayout(new BorderLayout());
-                        JLabel noPetLabel = new JLabel("No available pets for adoption right now.", SwingConstants.CENTER);
-                        noPetLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
-                        imageGridPanel.add(noPetLabel, BorderLayout.CENTER);
-                    } else {
-                        for (JPanel card : cards) {
-                            imageGridPanel.add(card);
-                        }
-                    }
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                    imageGridPanel.setLayout(new BorderLayout());
-                    JLabel errorLabel = new JLabel("DB Error: " + ex.getMessage(), SwingConstants.CENTER);
-                    errorLabel.setForeground(Color.RED);
-                    imageGridPanel.add(errorLabel, BorderLayout.CENTER);
+    // One reusable card; VirtualGrid re-binds it to another pet as the user scrolls
+    private class PetCard extends JPanel {
+        private PetRow row;
+        // The 300px photo bytes the image loader fetched for 'row', reused by View Details
+        private volatile LoadedPhoto photo;
+        private Color cardColor = CARD_BACKGROUND;
+        private final RoundedImageLabel imageLabel = new RoundedImageLabel();
+        private final JLabel nameLabel = new JLabel();
+        private final JLabel breedLabel = new JLabel();
+        private final JLabel metaLabel = new JLabel();
+        private final JPanel statusHolder = new JPanel(new BorderLayout());
+        private final JButton adoptButton;
+
+        PetCard() {
+            super(new BorderLayout(0, 0));
+            setOpaque(false);
+            setPreferredSize(new Dimension(CARD_W, CARD_H));
+            setCursor(new Cursor(Cursor.HAND_CURSOR));
+
+            addMouseListener(new MouseAdapter() {
+                public void mouseEntered(MouseEvent e) { setLocation(getX(), getY() - 5); }
+                public void mouseExited(MouseEvent e) { setLocation(getX(), getY() + 5); }
+            });
+
+            imageLabel.setPreferredSize(new Dimension(CARD_IMG_W, CARD_IMG_H));
+
+            JPanel detailsPanel = new JPanel();
+            detailsPanel.setLayout(new BoxLayout(detailsPanel, BoxLayout.Y_AXIS));
+            detailsPanel.setOpaque(false);
+            detailsPanel.setBorder(new EmptyBorder(12, 20, 5, 20));
+
+            nameLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
+            nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+            breedLabel.setFont(new Font("SansSerif", Font.PLAIN, 14));
+            breedLabel.setForeground(TEXT_MUTED);
+            breedLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+            JPanel metaPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+            metaPanel.setOpaque(false);
+            metaPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            metaLabel.setFont(new Font("SansSerif", Font.PLAIN, 13));
+            metaLabel.setForeground(TEXT_MUTED);
+            metaPanel.add(metaLabel);
+
+            statusHolder.setOpaque(false);
+            statusHolder.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+            detailsPanel.add(nameLabel);
+            detailsPanel.add(Box.createRigidArea(new Dimension(0, 4)));
+            detailsPanel.add(breedLabel);
+            detailsPanel.add(Box.createRigidArea(new Dimension(0, 4)));
+            detailsPanel.add(metaPanel);
+            detailsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+            detailsPanel.add(statusHolder);
+
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+            buttonPanel.setOpaque(false);
+            buttonPanel.setBorder(new EmptyBorder(5, 10, 15, 10));
+
+            JButton viewButton = createModernButton("View Details", new Color(99, 102, 241), false);
+            viewButton.addActionListener(e -> openDetails(viewButton));
+
+            adoptButton = createModernButton("Adopt Now", new Color(236, 72, 153), true);
+            adoptButton.addActionListener(e -> {
+                Window window = SwingUtilities.getWindowAncestor(PawManagement.this);
+                if (window instanceof Dashboard dash) {
+                    // [UPDATED] Pass petId
+                    dash.showAdoptionForm(row.petId(), row.name());
                 }
-                imageGridPanel.revalidate();
-                imageGridPanel.repaint();
+            });
+
+            buttonPanel.add(viewButton);
+            buttonPanel.add(adoptButton);
+
+            add(imageLabel, BorderLayout.NORTH);
+            add(detailsPanel, BorderLayout.CENTER);
+            add(buttonPanel, BorderLayout.SOUTH);
+        }
+
+        void bind(PetRow row) {
+            this.row = row;
+            String gender = row.gender();
+            if ("Female".equalsIgnoreCase(gender)) {
+                cardColor = new Color(252, 231, 243);
+            } else if ("Male".equalsIgnoreCase(gender)) {
+                cardColor = new Color(219, 234, 254);
+            } else {
+                cardColor = CARD_BACKGROUND;
             }
-        };
-        worker.execute();
-    }
 
-    // [UPDATED] Method signature includes int petId
-    private JPanel createModernPetCard(int petId, byte[] imgBytes, String petName, String status, String breed, String gender, String age, String description) {
-        final Color cardColor;
-        if ("Female".equalsIgnoreCase(gender)) {
-            cardColor = new Color(252, 231, 243);
-        } else if ("Male".equalsIgnoreCase(gender)) {
-            cardColor = new Color(219, 234, 254);
-        } else {
-            cardColor = CARD_BACKGROUND;
+            nameLabel.setText(row.name() == null ? "Unknown" : row.name());
+            breedLabel.setText(row.breed() == null || row.breed().isEmpty() ? "Unknown Breed" : row.breed());
+            String genderText = (gender != null && !gender.isEmpty()) ? gender : "?";
+            String ageText = (row.age() != null && !row.age().isEmpty()) ? row.age() + " yrs" : "?";
+            metaLabel.setText(genderText + " • " + ageText);
+
+            statusHolder.removeAll();
+            statusHolder.add(createStatusBadge(row.status()), BorderLayout.WEST);
+
+            String status = row.status();
+            boolean closed = "Adopted".equalsIgnoreCase(status) || "Pending".equalsIgnoreCase(status);
+            adoptButton.setEnabled(!closed);
+            adoptButton.setText(closed ? status : "Adopt Now");
+
+            // Photo streams in; a late photo for the pet this card showed before is ignored
+            imageLoads.cancel(imageLabel);
+            imageLabel.setImage(null);
+            int petId = row.petId();
+            String imageHash = row.imageHash();
+            String imageKey = "pet:" + (imageHash != null ? imageHash : "#" + petId) + "@" + CARD_IMG_W + "x" + CARD_IMG_H;
+            imageLoads.load(imageLabel, imageKey,
+                    () -> {
+                        byte[] bytes = ImageStore.loadPetThumbnail(petId, imageHash, Thumbnails.DETAIL);
+                        photo = new LoadedPhoto(row, bytes);
+                        return ImageCache.decodeScaled(bytes, CARD_IMG_W, CARD_IMG_H);
+                    },
+                    img -> { if (this.row == row) imageLabel.setImage(img); });
+            repaint();
         }
 
-        JPanel cardPanel = new JPanel(new BorderLayout(0, 0)) {
-            @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2d = (Graphics2D) g.create();
-                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2d.setColor(cardColor);
-                g2d.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 20, 20));
-                g2d.setColor(new Color(0, 0, 0, 10));
-                g2d.fill(new RoundRectangle2D.Float(3, 3, getWidth(), getHeight(), 20, 20));
-                g2d.dispose();
+        // Same 300px copy the card shows, so it's normally already here; if the card was served from the
+        // decoded-image cache instead, fetch it off the EDT and open the window when it arrives
+        private void openDetails(JButton viewButton) {
+            PetRow shown = row;
+            LoadedPhoto loaded = photo;
+            if (loaded != null && loaded.row() == shown) {
+                showDetails(shown, loaded.bytes());
+                return;
             }
-        };
-        cardPanel.setOpaque(false);
-        cardPanel.setPreferredSize(new Dimension(280, 420));
-        cardPanel.setCursor(new Cursor(Cursor.HAND_CURSOR));
 
-        cardPanel.addMouseListener(new MouseAdapter() {
-            public void mouseEntered(MouseEvent e) { cardPanel.setLocation(cardPanel.getX(), cardPanel.getY() - 5); }
-            public void mouseExited(MouseEvent e) { cardPanel.setLocation(cardPanel.getX(), cardPanel.getY() + 5); }
-        });
+            viewButton.setEnabled(false);
+            new SwingWorker<byte[], Void>() {
+                @Override
+                protected byte[] doInBackground() {
+                    return ImageStore.loadPetThumbnail(shown.petId(), shown.imageHash(), Thumbnails.DETAIL);
+                }
 
-        JLabel imageLabel = createRoundedImageLabel(imgBytes);
-        imageLabel.setPreferredSize(new Dimension(280, 200));
-
-        JPanel detailsPanel = new JPanel();
-        detailsPanel.setLayout(new BoxLayout(detailsPanel, BoxLayout.Y_AXIS));
-        detailsPanel.setOpaque(false);
-        detailsPanel.setBorder(new EmptyBorder(12, 20, 5, 20));
-
-        JLabel nameLabel = new JLabel(petName == null ? "Unknown" : petName);
-        nameLabel.setFont(new Font("SansSerif", Font.BOLD, 20));
-        nameLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        JLabel breedLabel = new JLabel(breed == null || breed.isEmpty() ? "Unknown Breed" : breed);
-        breedLabel.setFont(new Font("SansSerif", Font.PLAIN, 14));
-        breedLabel.setForeground(TEXT_MUTED);
-        breedLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        JPanel metaPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
-        metaPanel.setOpaque(false);
-        metaPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        String genderText = (gender != null && !gender.isEmpty()) ? gender : "?";
-        String ageText = (age != null && !age.isEmpty()) ? age + " yrs" : "?";
-        JLabel metaLabel = new JLabel(genderText + " • " + ageText);
-        metaLabel.setFont(new Font("SansSerif", Font.PLAIN, 13));
-        metaLabel.setForeground(TEXT_MUTED);
-        metaPanel.add(metaLabel);
-
-        JPanel statusPanel = createStatusBadge(status);
-        statusPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        detailsPanel.add(nameLabel);
-        detailsPanel.add(Box.createRigidArea(new Dimension(0, 4)));
-        detailsPanel.add(breedLabel);
-        detailsPanel.add(Box.createRigidArea(new Dimension(0, 4)));
-        detailsPanel.add(metaPanel);
-        detailsPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-        detailsPanel.add(statusPanel);
-
-        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
-        buttonPanel.setOpaque(false);
-        buttonPanel.setBorder(new EmptyBorder(5, 10, 15, 10));
-
-        JButton viewButton = createModernButton("View Details", new Color(99, 102, 241), false);
-        viewButton.addActionListener(e -> {
+                @Override
+                protected void done() {
+                    viewButton.setEnabled(true);
+                    byte[] bytes = null;
+                    try {
+                        bytes = get();
+                        photo = new LoadedPhoto(shown, bytes);
+                    } catch (Exception e) {
+                        System.err.println("⚠️ Detail photo for " + shown.name() + " not loaded: " + e.getMessage());
+                    }
+                    showDetails(shown, bytes);
+                }
+            }.execute();
+        }
+
+        private void showDetails(PetRow shown, byte[] imageBytes) {
             ViewContent view = new ViewContent(
-                    (JFrame) SwingUtilities.getWindowAncestor(this),
-                    petName, breed, gender, age, imgBytes, description
+                    (JFrame) SwingUtilities.getWindowAncestor(PawManagement.this),
+                    shown.name(), shown.breed(), shown.gender(), shown.age(),
+                    imageBytes, shown.description()
             );
             view.setVisible(true);
-        });
-
-        JButton adoptButton = createModernButton("Adopt Now", new Color(236, 72, 153), true);
-
-        if ("Adopted".equalsIgnoreCase(status) || "Pending".equalsIgnoreCase(status)) {
-            adoptButton.setEnabled(false);
-            adoptButton.setText(status);
         }
 
-        adoptButton.addActionListener(e -> {
-            Window window = SwingUtilities.getWindowAncestor(this);
-            if (window instanceof Dashboard dash) {
-                // [UPDATED] Pass petId
-                dash.showAdoptionForm(petId, petName);
-            }
-        });
-
-        buttonPanel.add(viewButton);
-        buttonPanel.add(adoptButton);
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2d = (Graphics2D) g.create();
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(cardColor);
+            g2d.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 20, 20));
+            g2d.setColor(new Color(0, 0, 0, 10));
+            g2d.fill(new RoundRectangle2D.Float(3, 3, getWidth(), getHeight(), 20, 20));
+            g2d.dispose();
+        }
+    }
 
-        cardPanel.add(imageLabel, BorderLayout.NORTH);
-        cardPanel.add(detailsPanel, BorderLayout.CENTER);
-        cardPanel.add(buttonPanel, BorderLayout.SOUTH);
+    // Grey placeholder until the ImageLoader hands it the photo
+    private static class RoundedImageLabel extends JLabel {
+        private Image img;
 
-        return cardPanel;
-    }
+        void setImage(Image img) {
+            this.img = img;
+            repaint();
+        }
 
-    private JLabel createRoundedImageLabel(byte[] imgBytes) {
-        return new JLabel() {
-            Image img;
-            {
-                if(imgBytes!=null && imgBytes.length>0) {
-                    try {
-                        InputStream in = new ByteArrayInputStream(imgBytes);
-                        img = ImageIO.read(in);
-                    } catch(Exception e){}
-                }
-            }
-            @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                if (img != null) {
-                    g2.setClip(new RoundRectangle2D.Float(5, 5, getWidth() - 10, getHeight() - 10, 15, 15));
-                    g2.drawImage(img, 0, 0, getWidth(), getHeight(), null);
-                } else {
-                    g2.setColor(Color.LIGHT_GRAY);
-                    g2.fillRoundRect(5, 5, getWidth() - 10, getHeight() - 10, 15, 15);
-                }
-                g2.dispose();
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            if (img != null) {
+                g2.setClip(new RoundRectangle2D.Float(5, 5, getWidth() - 10, getHeight() - 10, 15, 15));
+                g2.drawImage(img, 0, 0, getWidth(), getHeight(), null);
+            } else {
+                g2.setColor(Color.LIGHT_GRAY);
+                g2.fillRoundRect(5, 5, getWidth() - 10, getHeight() - 10, 15, 15);
             }
-        };
+            g2.dispose();
+        }
     }
 
     private JPanel createStatusBadge(String status) {
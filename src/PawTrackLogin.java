@@ -8,7 +8,6 @@ import java.nio.file.*;
 import java.sql.*;
 import java.util.Scanner;
 import java.util.concurrent.atomic.AtomicBoolean;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
@@ -39,11 +38,8 @@ public class PawTrackLogin extends JFrame {
     public PawTrackLogin() {
         setTitle("PawTrack Login");
 
-        try {
-            URL iconUrl = getClass().getResource("/image/Logo.png");
-            if (iconUrl != null) setIconImage(ImageIO.read(iconUrl));
-        } catch (Exception e) {
-        }
+        Image appIcon = ResourceImages.get(ResourceImages.LOGO);
+        if (appIcon != null) setIconImage(appIcon);
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(950, 600);
@@ -324,6 +320,14 @@ public class PawTrackLogin extends JFrame {
         return leftPanel;
     }
 
+    // Both databases: the LAN chat relay checks it against the host's, DashboardAdmin against the routed one
+    private static void saveSessionToken(String username, String sessionToken) {
+        DBDual.executeUpdateBoth("UPDATE user_accounts SET session_token = ? WHERE username = ?", s -> {
+            s.setString(1, sessionToken);
+            s.setString(2, username);
+        });
+    }
+
     private void performLogin(String username, String password) {
         if (username.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please enter credentials.");
@@ -339,16 +343,19 @@ public class PawTrackLogin extends JFrame {
                 if (PasswordUtils.verify(password, rs.getString("password"))) {
                     String role = rs.getString("role");
                     String sessionToken = java.util.UUID.randomUUID().toString();
-
-                    // --- 🔥 SYNC TRIGGER ---
-                    // This pulls all Online Data to Local DB immediately on login
-                    new Thread(() -> DataSync.syncUserData(username)).start();
-                    // -----------------------
+                    saveSessionToken(username, sessionToken);
 
                     JOptionPane.showMessageDialog(this, "Welcome, " + rs.getString("first_name") + "!");
                     dispose();
-                    if ("ADMIN".equalsIgnoreCase(role)) new DashboardAdmin(username, sessionToken).setVisible(true);
-                    else new Dashboard(username).setVisible(true);
+                    JFrame home = "ADMIN".equalsIgnoreCase(role) ? new DashboardAdmin(username, sessionToken) : new Dashboard(username, sessionToken);
+                    home.setVisible(true);
+
+                    // --- 🔥 SYNC TRIGGER ---
+                    // This pulls all Online Data to Local DB right after login (progress + Cancel in the corner)
+                    SyncProgressDialog.start(home, username);
+                    TwoWaySync.start(username); // Keeps pushing offline edits back up while the app runs
+                    ImageStore.startLegacyMigration(); // Old in-row pet photos -> image store, once, in the background
+                    // -----------------------
                     return;
                 }
             }
@@ -362,14 +369,17 @@ public class PawTrackLogin extends JFrame {
                 if (rs.next() && PasswordUtils.verify(password, rs.getString("password"))) {
                     String role = rs.getString("role");
                     String sessionToken = java.util.UUID.randomUUID().toString();
-
-                    // Sync even if we connected via failover
-                    new Thread(() -> DataSync.syncUserData(username)).start();
+                    saveSessionToken(username, sessionToken);
 
                     JOptionPane.showMessageDialog(this, "Welcome, " + rs.getString("first_name") + "! (Cloud Mode)");
                     dispose();
-                    if ("ADMIN".equalsIgnoreCase(role)) new DashboardAdmin(username, sessionToken).setVisible(true);
-                    else new Dashboard(username).setVisible(true);
+                    JFrame home = "ADMIN".equalsIgnoreCase(role) ? new DashboardAdmin(username, sessionToken) : new Dashboard(username, sessionToken);
+                    home.setVisible(true);
+
+                    // Sync even if we connected via failover
+                    SyncProgressDialog.start(home, username);
+                    TwoWaySync.start(username);
+                    ImageStore.startLegacyMigration();
                     return;
                 }
             } catch (Exception e2) {
@@ -486,11 +496,7 @@ public class PawTrackLogin extends JFrame {
         private Image img;
 
         public BackgroundPanel(String path) {
-            try {
-                URL u = getClass().getResource("/" + path);
-                if (u != null) img = ImageIO.read(u);
-            } catch (Exception e) {
-            }
+            img = ResourceImages.get(path);
         }
 
         protected void paintComponent(Graphics g) {
@@ -610,11 +616,7 @@ public class PawTrackLogin extends JFrame {
         Image i;
 
         public CircularImageComponent(String p) {
-            try {
-                URL u = getClass().getResource("/" + p);
-                if (u != null) i = ImageIO.read(u);
-            } catch (Exception e) {
-            }
+            i = ResourceImages.get(p);
         }
 
         protected void paintComponent(Graphics g) {
@@ -641,11 +643,7 @@ public class PawTrackLogin extends JFrame {
 
         public RoundedImageComponent(String p, int r) {
             this.r = r;
-            try {
-                URL u = getClass().getResource("/" + p);
-                if (u != null) i = ImageIO.read(u);
-            } catch (Exception e) {
-            }
+            i = ResourceImages.get(p);
         }
 
         protected void paintComponent(Graphics g) {
@@ -661,6 +659,9 @@ public class PawTrackLogin extends JFrame {
     }
 
     public static void main(String[] args) {
+        // 0. Decode the bundled images in the background while setup runs
+        ResourceImages.preload();
+
         // 1. Run the Silent Auto-Installer FIRST
         AutoInstaller.runSilentSetup();
 
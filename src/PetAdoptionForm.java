@@ -139,8 +139,10 @@ public class PetAdoptionForm extends JPanel {
         // 1. Insert Application with PET ID
         String sqlApp = "INSERT INTO adoption_applications " +
                 "(pet_id, applicant_name, pet_name, status, email, contact_number, address, " +
-                "middle_name, dob, age, gender, occupation, province, city, barangay, residency_type, has_other_pets) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+                "middle_name, dob, age, gender, occupation, province, city, barangay, residency_type, has_other_pets, sync_uuid) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        // Same id on both databases so TwoWaySync sees one application, not two
+        String syncId = java.util.UUID.randomUUID().toString();
 
         DBDual.executeUpdateBoth(sqlApp, stmt -> {
             stmt.setInt(1, petId); // [NEW] Save ID
@@ -160,6 +162,7 @@ public class PetAdoptionForm extends JPanel {
             stmt.setString(15, barangayField.getText());
             stmt.setString(16, residencySelection);
             stmt.setString(17, hasPetsSelection);
+            stmt.setString(18, syncId);
         });
 
         // 2. Update Pet Status using PET ID (Prevent name conflict)
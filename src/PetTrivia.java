@@ -6,6 +6,8 @@ import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -28,10 +30,15 @@ public class PetTrivia extends JFrame {
     private static final Color COLOR_ACCENT = new Color(0xFF6B35);      // Orange
     private static final Color COLOR_ACCENT_HOVER = new Color(0xE85A2B); // Darker orange
 
+    // Fact images are scaled to fit the 800x600 card (minus padding, 70% height)
+    private static final int IMAGE_MAX_WIDTH = 760;
+    private static final int IMAGE_MAX_HEIGHT = 420;
+
     // --- Core App State ---
     private List<Fact> facts;
     private int currentFactIndex;
     private Timer autoAdvanceTimer; // Add timer for automatic advancement
+    private final Slideshow<String> factImages = new Slideshow<>(PetTrivia::loadFactImage, 2); // Decodes ahead off the EDT
 
     // --- UI Components ---
     private JLabel titleLabel;
@@ -195,6 +202,7 @@ public class PetTrivia extends JFrame {
     private void startApp() {
         currentFactIndex = 0;
         Collections.shuffle(facts); // Randomize the fact order
+        factImages.setSlides(imagePaths(facts));
         loadFact(currentFactIndex);
         
         // Start the auto-advance timer
@@ -228,25 +236,8 @@ public class PetTrivia extends JFrame {
             + f.description + "</body></html>");
 
         // --- THIS IS WHERE THE IMAGE IS LOADED ---
-        // Use robust loader that tries classpath and several file locations
-        ImageIcon imageIcon = loadImageIcon(f.imagePath);
-
-        // 2. Check if the image was found
-        if (imageIcon == null || imageIcon.getIconWidth() == -1) {
-            // Error: Image not found
-            imagePlaceholderLabel.setIcon(null); // Remove old icon
-            imagePlaceholderLabel.setText("Image not found: " + f.imagePath);
-        } else {
-            // Success: Scale the image and set it
-            // We scale it to fit inside the label's parent card (minus padding)
-            // Add null check for contentCard
-            int labelWidth = (contentCard != null) ? contentCard.getPreferredSize().width - 40 : 760; // Default fallback
-            int labelHeight = (contentCard != null) ? (int)(contentCard.getPreferredSize().height * 0.7) : 420; // Default fallback
-
-            Icon scaledIcon = scaleImageIcon(imageIcon, labelWidth, labelHeight);
-            imagePlaceholderLabel.setText(null); // Remove text
-            imagePlaceholderLabel.setIcon(scaledIcon); // Set the new scaled image
-        }
+        // Decoded and scaled on the slideshow thread (this one and the next two); we only set the icon
+        showFactImage(factImages, index, f.imagePath, imagePlaceholderLabel);
         
         // Update button text
         if (currentFactIndex == facts.size() - 1) {
@@ -256,44 +247,6 @@ public class PetTrivia extends JFrame {
         }
     }
 
-    /**
-     * NEW HELPER METHOD
-     * Scales an ImageIcon to fit within a target width and height,
-     * maintaining its original aspect ratio.
-     *
-     * @param icon The source ImageIcon.
-     * @param targetWidth The maximum width of the new icon.
-     * @param targetHeight The maximum height of the new icon.
-     * @return A new, scaled Icon.
-     */
-    private Icon scaleImageIcon(ImageIcon icon, int targetWidth, int targetHeight) {
-        int originalWidth = icon.getIconWidth();
-        int originalHeight = icon.getIconHeight();
-
-        // If the image is already smaller than the target, no need to scale up
-        if (originalWidth <= targetWidth && originalHeight <= targetHeight) {
-            return icon;
-        }
-
-        // Calculate the new dimensions while maintaining aspect ratio
-        double widthRatio = (double) targetWidth / (double) originalWidth;
-        double heightRatio = (double) targetHeight / (double) originalHeight;
-        double ratio = Math.min(widthRatio, heightRatio); // Use the smaller ratio to fit inside
-
-        int newWidth = (int) (originalWidth * ratio);
-        int newHeight = (int) (originalHeight * ratio);
-
-        // Get the Image object from the ImageIcon
-        Image image = icon.getImage();
-
-        // Create a new scaled Image
-        Image scaledImage = image.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH);
-
-        // Return the scaled image as a new ImageIcon
-        return new ImageIcon(scaledImage);
-    }
-
-
     /**
      * Main action listener for the "Next" / "Restart" button.
      */
@@ -350,12 +303,6 @@ public class PetTrivia extends JFrame {
         JPanel wrapperPanel = new GradientPanel();
         wrapperPanel.setLayout(new BorderLayout(10, 10));
 
-        // Create an instance of PetTrivia to access its methods and components
-        PetTrivia triviaInstance = new PetTrivia();
-        
-        // Extract the content from the PetTrivia frame
-        Container contentPane = triviaInstance.getContentPane();
-        
         // Create new components similar to the original but for panel use
         JLabel titleLabel = new JLabel("Pet Facts", SwingConstants.CENTER);
         titleLabel.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 36));
@@ -409,6 +356,7 @@ public class PetTrivia extends JFrame {
         
         final int[] currentFactIndex = {0};
         Timer autoAdvanceTimer = new Timer(5000, null);
+        Slideshow<String> images = new Slideshow<>(PetTrivia::loadFactImage, 2);
         
         // Set up the auto-advance and manual advance functionality
         ActionListener advanceAction = e -> {
@@ -416,8 +364,9 @@ public class PetTrivia extends JFrame {
             if (currentFactIndex[0] >= facts.size()) {
                 currentFactIndex[0] = 0;
                 Collections.shuffle(facts);
+                images.setSlides(imagePaths(facts));
             }
-            loadPanelFact(facts.get(currentFactIndex[0]), imagePlaceholderLabel, descriptionLabel, contentCard, nextButton, currentFactIndex[0], facts.size());
+            loadPanelFact(facts.get(currentFactIndex[0]), imagePlaceholderLabel, descriptionLabel, images, nextButton, currentFactIndex[0], facts.size());
             if (autoAdvanceTimer.isRunning()) {
                 autoAdvanceTimer.restart();
             }
@@ -428,7 +377,8 @@ public class PetTrivia extends JFrame {
         
         // Load first fact
         Collections.shuffle(facts);
-        loadPanelFact(facts.get(0), imagePlaceholderLabel, descriptionLabel, contentCard, nextButton, 0, facts.size());
+        images.setSlides(imagePaths(facts));
+        loadPanelFact(facts.get(0), imagePlaceholderLabel, descriptionLabel, images, nextButton, 0, facts.size());
         autoAdvanceTimer.start();
 
         return wrapperPanel;
@@ -477,8 +427,8 @@ public class PetTrivia extends JFrame {
         ));
     }
 
-    private static void loadPanelFact(Fact fact, JLabel imagePlaceholderLabel, JLabel descriptionLabel, 
-                                    RoundedPanel contentCard, RoundedButton nextButton, 
+    private static void loadPanelFact(Fact fact, JLabel imagePlaceholderLabel, JLabel descriptionLabel,
+                                    Slideshow<String> images, RoundedButton nextButton,
                                     int currentIndex, int totalFacts) {
         if (fact == null) {
             descriptionLabel.setText("Fact not available.");
@@ -491,19 +441,8 @@ public class PetTrivia extends JFrame {
         descriptionLabel.setText("<html><body style='width: 600px; text-align: center; color: #333333;'>"
             + fact.description + "</body></html>");
 
-        // Load and scale image (robust loader)
-        ImageIcon imageIcon = loadImageIconStatic(fact.imagePath);
-
-        if (imageIcon == null || imageIcon.getIconWidth() == -1) {
-            imagePlaceholderLabel.setIcon(null);
-            imagePlaceholderLabel.setText("Image not found: " + fact.imagePath);
-        } else {
-            int labelWidth = (contentCard != null) ? contentCard.getPreferredSize().width - 40 : 760;
-            int labelHeight = (contentCard != null) ? (int)(contentCard.getPreferredSize().height * 0.7) : 420;
-            Icon scaledIcon = scaleImageIconStatic(imageIcon, labelWidth, labelHeight);
-            imagePlaceholderLabel.setText(null);
-            imagePlaceholderLabel.setIcon(scaledIcon);
-        }
+        // Already decoded in the background (this fact and the next two)
+        showFactImage(images, currentIndex, fact.imagePath, imagePlaceholderLabel);
         
         // Update button text
         if (currentIndex == totalFacts - 1) {
@@ -513,117 +452,79 @@ public class PetTrivia extends JFrame {
         }
     }
 
-    private static Icon scaleImageIconStatic(ImageIcon icon, int targetWidth, int targetHeight) {
-        int originalWidth = icon.getIconWidth();
-        int originalHeight = icon.getIconHeight();
-
-        if (originalWidth <= targetWidth && originalHeight <= targetHeight) {
-            return icon;
+    /**
+     * Runs on the slideshow thread: reads the fact image and scales it to fit the card,
+     * so the EDT only has to set the icon.
+     */
+    private static BufferedImage loadFactImage(String path) {
+        java.net.URL url = findImage(path);
+        if (url == null) return null;
+        try {
+            return Slideshow.fit(ImageIO.read(url), IMAGE_MAX_WIDTH, IMAGE_MAX_HEIGHT);
+        } catch (java.io.IOException e) {
+            return null;
         }
-
-        double widthRatio = (double) targetWidth / (double) originalWidth;
-        double heightRatio = (double) targetHeight / (double) originalHeight;
-        double ratio = Math.min(widthRatio, heightRatio);
-
-        int newWidth = (int) (originalWidth * ratio);
-        int newHeight = (int) (originalHeight * ratio);
-
-        Image image = icon.getImage();
-        Image scaledImage = image.getScaledInstance(newWidth, newHeight, Image.SCALE_SMOOTH);
-
-        return new ImageIcon(scaledImage);
     }
 
     /**
-     * Attempts to load an ImageIcon using several fallbacks:
-     * 1) Classpath resource (e.g. resources bundled in JAR under /image/...)
-     * 2) Direct file path as given
-     * 3) Relative to user.dir
-     * 4) Try with a leading "image/" prefix
+     * Shows a fact's image from the slideshow buffer; "Loading image..." only if it isn't decoded yet.
      */
-    private ImageIcon loadImageIcon(String path) {
-        if (path == null) return null;
-
-        // 1) Try loading as classpath resource
-        try {
-            String resourcePath = path.startsWith("/") ? path.substring(1) : path;
-            java.net.URL url = getClass().getClassLoader().getResource(resourcePath);
-            if (url != null) {
-                return new ImageIcon(url);
-            }
-        } catch (Exception ignored) {}
-
-        // 2) Try direct file path
-        try {
-            java.io.File f = new java.io.File(path);
-            if (f.exists()) {
-                return new ImageIcon(f.getAbsolutePath());
-            }
-        } catch (Exception ignored) {}
-
-        // 3) Try relative to working directory
-        try {
-            java.io.File wd = new java.io.File(System.getProperty("user.dir"));
-            java.io.File f = new java.io.File(wd, path);
-            if (f.exists()) {
-                return new ImageIcon(f.getAbsolutePath());
-            }
-        } catch (Exception ignored) {}
-
-        // 4) Try prefixing with "image/" (common project layout)
-        try {
-            java.io.File f = new java.io.File("image" + java.io.File.separator + new java.io.File(path).getName());
-            if (f.exists()) {
-                return new ImageIcon(f.getAbsolutePath());
+    private static void showFactImage(Slideshow<String> images, int index, String path, JLabel label) {
+        boolean ready = images.show(index, img -> {
+            if (img == null) {
+                label.setIcon(null);
+                label.setText("Image not found: " + path);
+            } else {
+                label.setText(null);
+                label.setIcon(new ImageIcon(img));
             }
-        } catch (Exception ignored) {}
+        });
+        if (!ready) {
+            label.setIcon(null);
+            label.setText("Loading image...");
+        }
+    }
 
-        // Not found
-        return null;
+    private static List<String> imagePaths(List<Fact> facts) {
+        List<String> paths = new ArrayList<>();
+        for (Fact f : facts) paths.add(f.imagePath);
+        return paths;
     }
 
-    // Static variant used by static helper methods
-    private static ImageIcon loadImageIconStatic(String path) {
+    /**
+     * Finds an image using several fallbacks:
+     * 1) Classpath resource (e.g. resources bundled in JAR under /image/...)
+     * 2) Class.getResource (keeps leading slash)
+     * 3) Direct file path as given
+     * 4) Relative to user.dir
+     * 5) src/image/ and image/ prefixes (common project layouts)
+     */
+    private static java.net.URL findImage(String path) {
         if (path == null) return null;
 
-        // 1) Try classloader resource (strip leading slash for getResource)
         try {
             String resourcePath = path.startsWith("/") ? path.substring(1) : path;
             java.net.URL url = PetTrivia.class.getClassLoader().getResource(resourcePath);
-            if (url != null) return new ImageIcon(url);
+            if (url != null) return url;
         } catch (Exception ignored) {}
 
-        // 2) Try with Class.getResource (keeps leading slash)
         try {
             java.net.URL url = PetTrivia.class.getResource(path);
-            if (url != null) return new ImageIcon(url);
-        } catch (Exception ignored) {}
-
-        // 3) Direct file path
-        try {
-            java.io.File f = new java.io.File(path);
-            if (f.exists()) return new ImageIcon(f.getAbsolutePath());
-        } catch (Exception ignored) {}
-
-        // 4) Relative to user.dir
-        try {
-            java.io.File wd = new java.io.File(System.getProperty("user.dir"));
-            java.io.File f = new java.io.File(wd, path);
-            if (f.exists()) return new ImageIcon(f.getAbsolutePath());
-        } catch (Exception ignored) {}
-
-        // 5) Try src/image/ prefix (common Maven/IDE layout)
-        try {
-            java.io.File f = new java.io.File("src" + java.io.File.separator + "image" + java.io.File.separator + new java.io.File(path).getName());
-            if (f.exists()) return new ImageIcon(f.getAbsolutePath());
-        } catch (Exception ignored) {}
-
-        // 6) Try image/ prefix
-        try {
-            java.io.File f = new java.io.File("image" + java.io.File.separator + new java.io.File(path).getName());
-            if (f.exists()) return new ImageIcon(f.getAbsolutePath());
+            if (url != null) return url;
         } catch (Exception ignored) {}
 
+        String name = new java.io.File(path).getName();
+        java.io.File[] candidates = {
+            new java.io.File(path),
+            new java.io.File(new java.io.File(System.getProperty("user.dir")), path),
+            new java.io.File("src" + java.io.File.separator + "image" + java.io.File.separator + name),
+            new java.io.File("image" + java.io.File.separator + name)
+        };
+        for (java.io.File f : candidates) {
+            try {
+                if (f.exists()) return f.toURI().toURL();
+            } catch (Exception ignored) {}
+        }
         return null;
     }
 
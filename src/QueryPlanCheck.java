@@ -0,0 +1,99 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+// EXPLAINs the hot screen queries and flags any that would fall back to a full table scan.
+// Run it after touching a query or an index:  java QueryPlanCheck   (exit code 1 = regression)
+public class QueryPlanCheck {
+
+    static class HotQuery {
+        final String screen;
+        final String sql;
+        final Object[] params;
+
+        HotQuery(String screen, String sql, Object... params) {
+            this.screen = screen;
+            this.sql = sql;
+            this.params = params;
+        }
+    }
+
+    // The screens' own SQL constants, so a query edited there is what gets checked here
+    static final List<HotQuery> QUERIES = List.of(
+            new HotQuery("PawManagement.reloadPets", PawManagement.PETS_PAGE_SQL, 0, 24),
+            new HotQuery("UserProfile owned pets", UserProfile.OWNED_PETS_SQL, "probe"),
+            new HotQuery("UserProfile registered pets", UserProfile.REGISTERED_PETS_SQL, "probe"),
+            new HotQuery("UserProfile owned count", UserProfile.OWNED_COUNT_SQL, "probe"),
+            new HotQuery("UserProfile registered count", UserProfile.REGISTERED_COUNT_SQL, "probe"),
+            new HotQuery("UserProfile adoption history", UserProfile.ADOPTION_HISTORY_SQL, "probe"),
+            new HotQuery("Breeding candidates", Breeding.candidatesSql("pet_id"), "Female"),
+            new HotQuery("AppointmentView.loadAppointments", AppointmentView.APPOINTMENTS_SQL, "probe"),
+            new HotQuery("DashboardAdmin pending appointments", DashboardAdmin.PENDING_APPOINTMENTS_SQL),
+            new HotQuery("DashboardAdmin pending adoptions", DashboardAdmin.PENDING_ADOPTIONS_SQL),
+            new HotQuery("DashboardAdmin session check", DashboardAdmin.SESSION_TOKEN_SQL, "probe"),
+            new HotQuery("ChatOverlay.loadRecentChats", Conversations.RECENT_SQL, "probe"),
+            new HotQuery("ChatOverlay.fetchNewMessages", ChatOverlay.MESSAGES_SQL + ChatOverlay.NEWER_THAN,
+                    "probe", "other", "other", "probe", 0L),
+            new HotQuery("ChatOverlay history page", ChatOverlay.MESSAGES_SQL + ChatOverlay.olderThan(50),
+                    "probe", "other", "other", "probe", 1000L));
+
+    // Returns one line per hot query that scans a whole table. With no usable index that's a missing
+    // index; with one listed in possible_keys the optimizer still chose not to use it (usually a
+    // predicate that doesn't match the index). Either way the screen reads every row, so both fail.
+    public static List<String> check(Connection conn) throws SQLException {
+        List<String> errors = new ArrayList<>();
+        SchemaMigrator.Schema schema = SchemaMigrator.schema(conn);
+
+        for (HotQuery q : QUERIES) {
+            try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + q.sql)) {
+                for (int i = 0; i < q.params.length; i++) stmt.setObject(i + 1, q.params[i]);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String table = rs.getString("table");
+                        String type = rs.getString("type");
+                        String possibleKeys = rs.getString("possible_keys");
+                        if (!"ALL".equalsIgnoreCase(type)) continue;
+
+                        String line = q.screen + ": full scan of " + table;
+                        if (possibleKeys == null || possibleKeys.isEmpty()) errors.add(line + " (no usable index)");
+                        else errors.add(line + " (optimizer skipped " + possibleKeys + ")");
+                    }
+                }
+            } catch (SQLException e) {
+                // Missing table (e.g. messages on a fresh local DB) isn't a plan regression
+                if (!schema.hasTable(firstTable(q.sql))) continue;
+                throw e;
+            }
+        }
+        return errors;
+    }
+
+    private static String firstTable(String sql) {
+        String[] words = sql.split("\\s+");
+        for (int i = 0; i < words.length - 1; i++) {
+            if (words[i].equalsIgnoreCase("FROM")) return words[i + 1];
+        }
+        return "";
+    }
+
+    public static void main(String[] args) {
+        try (Connection conn = DBConnector.getConnection()) {
+            DatabaseSetup.ensureSchema(conn);
+
+            List<String> errors = check(conn);
+            for (String e : errors) System.err.println("❌ " + e);
+
+            if (!errors.isEmpty()) {
+                System.err.println("❌ " + errors.size() + " hot quer" + (errors.size() == 1 ? "y" : "ies") + " regressed to a table scan.");
+                System.exit(1);
+            }
+            System.out.println("✅ All " + QUERIES.size() + " hot queries use an index.");
+        } catch (SQLException e) {
+            System.err.println("❌ Query plan check failed: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Bundled images (logo, background, chat icon) decoded once per run instead of once per window.
+// preload() starts them all in parallel at startup, while the installer/DB checks are still running;
+// windows then get() an already-decoded image in the screen's native pixel format.
+public class ResourceImages {
+
+    // --- BUNDLED IMAGES ---
+    public static final String LOGO = "/image/Logo.png";
+    public static final String BACKGROUND = "/image/background.png";
+    public static final String CHAT_ICON = "/image/Gemini_Generated_Image_55spsm55spsm55sp.png";
+
+    private static final String[] BUNDLED = {BACKGROUND, LOGO, CHAT_ICON};     // Biggest first
+
+    private static final ExecutorService DECODERS = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(BUNDLED.length, Runtime.getRuntime().availableProcessors())), r -> {
+                Thread t = new Thread(r, "PawTrack-ResourceImages");
+                t.setDaemon(true);
+                return t;
+            });
+
+    // path -> decode (finished or in flight); a missing resource completes with null
+    private static final Map<String, CompletableFuture<BufferedImage>> images = new ConcurrentHashMap<>();
+
+    // Call once at startup; returns immediately
+    public static void preload() {
+        for (String path : BUNDLED) load(path);
+    }
+
+    // Decoded image for a classpath path ("/image/x.png" or "image/x.png"), or null if it isn't bundled.
+    // Waits only if the startup decode of that image is still running.
+    public static BufferedImage get(String path) {
+        try {
+            return load(normalize(path)).join();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static CompletableFuture<BufferedImage> load(String path) {
+        return images.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> decode(p), DECODERS));
+    }
+
+    private static BufferedImage decode(String path) {
+        long start = System.currentTimeMillis();
+        try {
+            URL url = ResourceImages.class.getResource(path);
+            if (url == null) return null;
+            BufferedImage src = ImageIO.read(url);
+            if (src == null) return null;
+
+            // Same pixel layout as the screen, so drawing it later is a plain copy
+            BufferedImage out = ImageCache.compatible(src.getWidth(), src.getHeight());
+            Graphics2D g2 = out.createGraphics();
+            g2.drawImage(src, 0, 0, null);
+            g2.dispose();
+            System.out.println("🖼️ [ResourceImages] " + path + " (" + out.getWidth() + "x" + out.getHeight() + ") in "
+                    + (System.currentTimeMillis() - start) + "ms");
+            return out;
+        } catch (Exception e) {
+            System.err.println("⚠️ [ResourceImages] Could not load " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String normalize(String path) {
+        return path.startsWith("/") ? path : "/" + path;
+    }
+}
@@ -0,0 +1,239 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Versioned schema migrations. Each migration runs once per database and is recorded in schema_version,
+// so startup no longer fires a wall of ALTER TABLEs and swallows the "already exists" errors.
+public class SchemaMigrator {
+
+    public interface MigrationStep {
+        void apply(Connection conn, Schema schema) throws SQLException;
+    }
+
+    public static class Migration {
+        final int version;
+        final String description;
+        final MigrationStep step;
+
+        public Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, " +
+            "description VARCHAR(255), " +
+            "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+
+    // One snapshot per database (URL + schema name), loaded with two information_schema queries
+    private static final Map<String, Schema> snapshots = new ConcurrentHashMap<>();
+    // Databases already brought up to date during this run of the app
+    private static final Set<String> migrated = ConcurrentHashMap.newKeySet();
+
+    // Server-side lock so two clients starting against the same database don't migrate it at once
+    private static final String LOCK_NAME = "pawtrack_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    // --- SCHEMA SNAPSHOT ---
+    public static class Schema {
+        public record Column(String name, String type) {}
+
+        private final Map<String, Set<String>> columns = new HashMap<>();
+        private final Map<String, Set<String>> indexes = new HashMap<>();
+
+        public synchronized boolean hasTable(String table) {
+            return columns.containsKey(table.toLowerCase());
+        }
+
+        public synchronized boolean hasColumn(String table, String column) {
+            Set<String> cols = columns.get(table.toLowerCase());
+            return cols != null && cols.contains(column.toLowerCase());
+        }
+
+        public synchronized boolean hasIndex(String table, String index) {
+            Set<String> idx = indexes.get(table.toLowerCase());
+            return idx != null && idx.contains(index.toLowerCase());
+        }
+
+        // --- Idempotent DDL helpers (check the snapshot instead of catching "duplicate" errors) ---
+        // A missing table is an error, not a no-op: otherwise the migration gets recorded without its change
+        public void addColumnIfMissing(Connection conn, String table, String column, String definition) throws SQLException {
+            requireTable(table);
+            if (hasColumn(table, column)) return;
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+            }
+            synchronized (this) {
+                columns.get(table.toLowerCase()).add(column.toLowerCase());
+            }
+            System.out.println("✅ Auto-Added column: " + table + "." + column);
+        }
+
+        // Renames in place (data, keys and AUTO_INCREMENT counter stay); 'definition' is the column's full new definition
+        public void renameColumn(Connection conn, String table, String from, String to, String definition) throws SQLException {
+            requireTable(table);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("ALTER TABLE " + table + " CHANGE COLUMN " + from + " " + to + " " + definition);
+            }
+            load(conn);
+            System.out.println("✅ Renamed column: " + table + "." + from + " -> " + to);
+        }
+
+        // The table's AUTO_INCREMENT column (MySQL allows at most one), or null. Not in the snapshot: asked for rarely.
+        public Column autoIncrementColumn(Connection conn, String table) throws SQLException {
+            requireTable(table);
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT COLUMN_NAME, COLUMN_TYPE FROM information_schema.COLUMNS " +
+                            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND EXTRA LIKE '%auto_increment%'")) {
+                stmt.setString(1, table);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? new Column(rs.getString(1), rs.getString(2)) : null;
+                }
+            }
+        }
+
+        public void createIndexIfMissing(Connection conn, String table, String index, String columnList) throws SQLException {
+            createIndex(conn, "CREATE INDEX ", table, index, columnList);
+        }
+
+        public void createUniqueIndexIfMissing(Connection conn, String table, String index, String columnList) throws SQLException {
+            createIndex(conn, "CREATE UNIQUE INDEX ", table, index, columnList);
+        }
+
+        private void createIndex(Connection conn, String create, String table, String index, String columnList) throws SQLException {
+            requireTable(table);
+            if (hasIndex(table, index)) return;
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(create + index + " ON " + table + " (" + columnList + ")");
+            }
+            synchronized (this) {
+                indexes.computeIfAbsent(table.toLowerCase(), k -> new HashSet<>()).add(index.toLowerCase());
+            }
+            System.out.println("✅ Added index: " + table + "." + index);
+        }
+
+        private void requireTable(String table) throws SQLException {
+            if (!hasTable(table)) throw new SQLException("Migration needs table '" + table + "', which does not exist yet");
+        }
+
+        // CREATE TABLE IF NOT EXISTS, then refresh so later steps can see the new table
+        public void createTable(Connection conn, String ddl) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(ddl);
+            }
+            load(conn);
+        }
+
+        private synchronized void load(Connection conn) throws SQLException {
+            columns.clear();
+            indexes.clear();
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE()")) {
+                    while (rs.next()) {
+                        columns.computeIfAbsent(rs.getString(1).toLowerCase(), k -> new HashSet<>()).add(rs.getString(2).toLowerCase());
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT DISTINCT TABLE_NAME, INDEX_NAME FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE()")) {
+                    while (rs.next()) {
+                        indexes.computeIfAbsent(rs.getString(1).toLowerCase(), k -> new HashSet<>()).add(rs.getString(2).toLowerCase());
+                    }
+                }
+            }
+        }
+    }
+
+    // Cached metadata for whatever database 'conn' points at
+    public static Schema schema(Connection conn) throws SQLException {
+        String key = databaseKey(conn);
+        Schema schema = snapshots.get(key);
+        if (schema == null) {
+            schema = new Schema();
+            schema.load(conn);
+            snapshots.put(key, schema);
+        }
+        return schema;
+    }
+
+    // --- RUNNER ---
+    // Cheap after the first call per database: just a set lookup.
+    // A failing step stops the run before its version is recorded, so it is retried next start.
+    public static void migrate(Connection conn, List<Migration> migrations) throws SQLException {
+        String key = databaseKey(conn);
+        if (migrated.contains(key)) return;
+
+        synchronized (SchemaMigrator.class) {
+            if (migrated.contains(key)) return;
+
+            acquireLock(conn);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_VERSION_TABLE);
+                }
+
+                // Read under the lock: another client may have just finished migrating
+                Set<Integer> applied = new HashSet<>();
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+                    while (rs.next()) applied.add(rs.getInt(1));
+                }
+
+                Schema schema = schema(conn);
+                schema.load(conn);
+                for (Migration m : migrations) {
+                    if (applied.contains(m.version)) continue;
+
+                    System.out.println("🛠️ Migration " + m.version + ": " + m.description);
+                    m.step.apply(conn, schema);
+
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+                        stmt.setInt(1, m.version);
+                        stmt.setString(2, m.description);
+                        stmt.executeUpdate();
+                    }
+                }
+                migrated.add(key);
+            } finally {
+                releaseLock(conn);
+            }
+        }
+    }
+
+    // GET_LOCK is held by this session (connection) until RELEASE_LOCK or disconnect
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another client to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            System.err.println("⚠️ Could not release schema lock: " + e.getMessage());
+        }
+    }
+
+    private static String databaseKey(Connection conn) throws SQLException {
+        return conn.getMetaData().getURL() + "|" + conn.getCatalog();
+    }
+}
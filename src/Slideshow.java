@@ -0,0 +1,111 @@
+import javax.swing.SwingUtilities;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Rotating images (Donation banner, PetTrivia facts) without decoding on the EDT.
+// The current slide and the next few are decoded + scaled on a background thread into a small
+// ring buffer; the EDT only ever gets a finished BufferedImage to put in a label.
+// Slides are identified by key (path, fact...) so a reshuffled order just misses and reloads.
+public class Slideshow<K> {
+
+    // One thread for every slideshow: they change every few seconds, nothing to parallelise
+    private static final ExecutorService DECODER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "PawTrack-Slideshow");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private record Slot<K>(K key, CompletableFuture<BufferedImage> image) {}
+
+    private final Function<K, BufferedImage> loader;     // Runs off the EDT; null = no image for this slide
+    private final List<Slot<K>> ring;                       // Current slide + lookahead; slots reused as the window moves
+    private List<K> slides = new ArrayList<>();
+    private int shown;                                    // Bumped per show() so a slow slide can't land late
+
+    public Slideshow(Function<K, BufferedImage> loader, int lookahead) {
+        this.loader = loader;
+        this.ring = new ArrayList<>(Collections.nCopies(Math.max(1, lookahead) + 1, null));
+    }
+
+    // New order (or new content): what's already decoded is kept where the key still matches
+    public void setSlides(List<K> newSlides) {
+        slides = new ArrayList<>(newSlides);
+    }
+
+    public int size() { return slides.size(); }
+
+    // Call on the EDT. Delivers right away (and returns true) if the slide is already decoded,
+    // otherwise delivers later on the EDT. Either way the following slides start decoding.
+    public boolean show(int index, Consumer<BufferedImage> onReady) {
+        if (slides.isEmpty()) return false;
+        int ticket = ++shown;
+        List<K> window = new ArrayList<>();
+        for (int i = 0; i < Math.min(ring.size(), slides.size()); i++) {
+            window.add(slides.get(Math.floorMod(index + i, slides.size())));
+        }
+        CompletableFuture<BufferedImage> current = prefetch(window.get(0), window);
+        for (int i = 1; i < window.size(); i++) prefetch(window.get(i), window);
+
+        if (current.isDone()) {
+            onReady.accept(current.getNow(null));
+            return true;
+        }
+        current.whenComplete((img, err) -> SwingUtilities.invokeLater(() -> {
+            if (ticket == shown) onReady.accept(img);
+        }));
+        return false;
+    }
+
+    // Frees the decoded slides (view hidden or closed); show() starts again from scratch
+    public void clear() {
+        shown++;
+        for (int i = 0; i < ring.size(); i++) {
+            if (ring.get(i) != null) ring.get(i).image().cancel(false);
+            ring.set(i, null);
+        }
+    }
+
+    // Already decoded (or decoding) somewhere in the ring, or takes over a slot the window no longer needs
+    private CompletableFuture<BufferedImage> prefetch(K key, List<K> window) {
+        int pos = -1;
+        for (int i = 0; i < ring.size(); i++) {
+            Slot<K> slot = ring.get(i);
+            if (slot != null && Objects.equals(slot.key(), key)) return slot.image();
+            if (pos < 0 && (slot == null || !window.contains(slot.key()))) pos = i;
+        }
+
+        if (ring.get(pos) != null) ring.get(pos).image().cancel(false);
+        CompletableFuture<BufferedImage> image = CompletableFuture.supplyAsync(() -> {
+            try {
+                return loader.apply(key);
+            } catch (Exception e) {
+                System.err.println("⚠️ [Slideshow] " + key + ": " + e.getMessage());
+                return null;
+            }
+        }, DECODER);
+        ring.set(pos, new Slot<>(key, image));
+        return image;
+    }
+
+    // --- SCALING HELPERS (for loaders) ---
+    // Exactly width x height, like getScaledInstance(width, height)
+    public static BufferedImage exact(BufferedImage src, int width, int height) {
+        return src == null ? null : ImageCache.scale(src, width, height);
+    }
+
+    // Fits inside maxW x maxH keeping the aspect ratio; never upscales
+    public static BufferedImage fit(BufferedImage src, int maxW, int maxH) {
+        if (src == null) return null;
+        if (src.getWidth() <= maxW && src.getHeight() <= maxH) return src;
+        double ratio = Math.min((double) maxW / src.getWidth(), (double) maxH / src.getHeight());
+        return ImageCache.scale(src, Math.max(1, (int) (src.getWidth() * ratio)), Math.max(1, (int) (src.getHeight() * ratio)));
+    }
+}
@@ -0,0 +1,90 @@
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+
+// Small corner window showing the login sync (DataSync) table by table, with a Cancel button.
+// Closes itself when the sync ends; stays up with the error if a table failed.
+public class SyncProgressDialog extends JDialog implements DataSync.SyncListener {
+
+    private final JLabel status = new JLabel("Syncing your data...");
+    private final JProgressBar bar = new JProgressBar(0, DataSync.SYNC_TABLES.length);
+    private final Theme.ModernButton cancelButton = new Theme.ModernButton("Cancel", Theme.DANGER);
+    private DataSync.SyncHandle handle;
+    private String failure;
+
+    // Starts DataSync for 'username' and shows its progress in the corner of 'owner'
+    public static DataSync.SyncHandle start(Window owner, String username) {
+        SyncProgressDialog dialog = new SyncProgressDialog(owner);
+        // Listener callbacks are queued on the EDT, so they can't run before 'handle' is set
+        dialog.handle = DataSync.startSync(username, dialog);
+        dialog.setVisible(true);
+        return dialog.handle;
+    }
+
+    private SyncProgressDialog(Window owner) {
+        super(owner, "Sync", ModalityType.MODELESS);
+        setUndecorated(true);
+        setFocusableWindowState(false); // Don't steal focus from the dashboard
+
+        JPanel content = new JPanel(new BorderLayout(10, 8));
+        content.setBackground(Theme.CARD_BG);
+        content.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Theme.PRIMARY),
+                new EmptyBorder(12, 14, 12, 14)));
+
+        status.setFont(Theme.BODY);
+        status.setForeground(Theme.TEXT_DARK);
+        bar.setStringPainted(true);
+        bar.setString("0 / " + DataSync.SYNC_TABLES.length + " tables");
+
+        cancelButton.addActionListener(e -> {
+            if (handle == null || handle.isCancelled()) {
+                dispose();
+                return;
+            }
+            handle.cancel();
+            cancelButton.setEnabled(false);
+            status.setText("Cancelling...");
+        });
+
+        content.add(status, BorderLayout.NORTH);
+        content.add(bar, BorderLayout.CENTER);
+        content.add(cancelButton, BorderLayout.EAST);
+        setContentPane(content);
+        setSize(380, 90);
+
+        // Bottom-right corner of the owner (or the screen)
+        Rectangle area = owner != null && owner.isShowing()
+                ? owner.getBounds()
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        setLocation(area.x + area.width - getWidth() - 24, area.y + area.height - getHeight() - 24);
+    }
+
+    // --- DataSync.SyncListener (called on the EDT) ---
+    @Override
+    public void onTableProgress(String table, long rows, long bytes, long elapsedMs) {
+        if (handle != null && handle.isCancelled()) return;
+        status.setText("Syncing " + table + ": " + rows + " rows" + (bytes > 0 ? " (" + (bytes / 1024) + " KB)" : ""));
+    }
+
+    @Override
+    public void onTableFinished(String table, long rows, long bytes, long elapsedMs, Exception error) {
+        bar.setValue(bar.getValue() + 1);
+        bar.setString(bar.getValue() + " / " + DataSync.SYNC_TABLES.length + " tables");
+        if (error != null && failure == null) failure = table + ": " + error.getMessage();
+    }
+
+    @Override
+    public void onSyncFinished(boolean cancelled) {
+        // A cancelled sync picks up from its marks next login; nothing to tell the user
+        if (failure == null || cancelled) {
+            dispose();
+            return;
+        }
+        status.setText("⚠️ Sync failed (" + failure + ")");
+        status.setToolTipText(failure);
+        cancelButton.setText("Close");
+        cancelButton.setEnabled(true);
+        setFocusableWindowState(true);
+    }
+}
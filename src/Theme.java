@@ -5,6 +5,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
 
 public class Theme {
     // --- PALETTE ---
@@ -118,6 +119,44 @@ public class Theme {
         }
     }
 
+    // Round picture that only blits a pre-made circular image (see ImageCache.toCircle).
+    // Nothing is decoded or scaled in paintComponent; until an image is set it shows a grey disc.
+    public static class CircleImage extends JComponent {
+        private final int diameter;
+        private BufferedImage image;
+
+        public CircleImage(int diameter) {
+            this.diameter = diameter;
+            Dimension d = new Dimension(diameter, diameter);
+            setPreferredSize(d);
+            setMinimumSize(d);
+            setMaximumSize(d);
+            setOpaque(false);
+        }
+
+        public int getDiameter() { return diameter; }
+
+        public void setImage(BufferedImage image) {
+            this.image = image;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            int x = (getWidth() - diameter) / 2;
+            int y = (getHeight() - diameter) / 2;
+            if (image != null) {
+                g.drawImage(image, x, y, null);
+            } else {
+                Graphics2D g2 = (Graphics2D) g.create();
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.setColor(new Color(230, 230, 240));
+                g2.fillOval(x, y, diameter, diameter);
+                g2.dispose();
+            }
+        }
+    }
+
     // --- [NEW] MODERN SCROLLBAR UI ---
     public static class ModernScrollBarUI extends BasicScrollBarUI {
         private final Dimension d = new Dimension();
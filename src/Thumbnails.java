@@ -0,0 +1,109 @@
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Pre-sized copies of a pet photo, made once when the photo is stored (see ImageStore),
+// so screens decode a few KB for a 45px avatar instead of the full phone picture.
+public class Thumbnails {
+
+    // --- VARIANT SIZES (shortest side, in px) ---
+    public static final int AVATAR = 48;    // Table avatars, profile list cards
+    public static final int SMALL = 128;    // Breeding thumbnails and detail cards
+    public static final int DETAIL = 300;   // PawManagement cards, ViewContent, Breeding swipe card
+    public static final int LARGE = 900;    // Full view
+
+    static final int[] SIZES = {LARGE, DETAIL, SMALL, AVATAR};  // Largest first: each is scaled from the previous one
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    // Smallest variant that still covers 'px' without upscaling
+    public static int sizeFor(int px) {
+        for (int i = SIZES.length - 1; i >= 0; i--) {
+            if (SIZES[i] >= px) return SIZES[i];
+        }
+        return LARGE;
+    }
+
+    // Decodes the original once and returns every variant, keyed by size
+    public static Map<Integer, byte[]> generate(byte[] original) throws IOException {
+        BufferedImage current = decode(original);
+        if (current == null) throw new IOException("Unsupported image format");
+
+        Map<Integer, byte[]> variants = new LinkedHashMap<>();
+        for (int size : SIZES) {
+            current = downscale(current, size);
+            variants.put(size, encode(current));
+        }
+        return variants;
+    }
+
+    // One-off render at a given size (e.g. the AdoptionForm preview before anything is stored)
+    public static BufferedImage render(byte[] original, int size) throws IOException {
+        BufferedImage img = decode(original);
+        return img == null ? null : downscale(img, size);
+    }
+
+    public static BufferedImage decode(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length == 0) return null;
+        return ImageIO.read(new ByteArrayInputStream(bytes));
+    }
+
+    // Shrinks until the shortest side equals 'size', halving with bilinear steps
+    // (same quality as SCALE_SMOOTH, a fraction of the cost). Never upscales.
+    static BufferedImage downscale(BufferedImage src, int size) {
+        int shortSide = Math.min(src.getWidth(), src.getHeight());
+        if (shortSide <= size) return src;
+
+        double scale = (double) size / shortSide;
+        int targetW = Math.max(1, (int) Math.round(src.getWidth() * scale));
+        int targetH = Math.max(1, (int) Math.round(src.getHeight() * scale));
+        boolean alpha = src.getColorModel().hasAlpha();
+
+        BufferedImage current = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        do {
+            w = Math.max(targetW, w / 2);
+            h = Math.max(targetH, h / 2);
+            BufferedImage next = new BufferedImage(w, h, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = next.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2.drawImage(current, 0, 0, w, h, null);
+            g2.dispose();
+            current = next;
+        } while (w != targetW || h != targetH);
+        return current;
+    }
+
+    // JPEG for photos; PNG only when there's transparency to keep
+    static byte[] encode(BufferedImage img) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (img.getColorModel().hasAlpha()) {
+            ImageIO.write(img, "png", out);
+            return out.toByteArray();
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(img, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
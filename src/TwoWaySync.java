@@ -0,0 +1,396 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Keeps Online and Local in step in BOTH directions for the logged-in user (DataSync only pulls down at login).
+// Each side's changes since the last run are found through last_updated; when a row changed on
+// both sides, the table's ConflictPolicy decides which copy survives.
+//
+// Rows are matched across databases by a key both sides agree on (username, or the sync_uuid column from
+// migration 14), never by the AUTO_INCREMENT id, since each database hands those out on its own.
+// Stamps are compared as epoch seconds (UNIX_TIMESTAMP) with both sessions on UTC, so the cloud running
+// in UTC and the LAN server in local time can't skew "last writer wins".
+public class TwoWaySync {
+
+    public enum ConflictPolicy {
+        LAST_WRITER_WINS,   // Newer last_updated wins, ties go to Online
+        ONLINE_WINS,
+        LOCAL_WINS
+    }
+
+    // A column holding another synced table's id (e.g. adoption_applications.pet_id). Ids differ per side,
+    // so it travels as that row's sync_uuid and is looked up again on the other database. If the referenced
+    // row isn't there (someone else's pet), the destination keeps whatever it had.
+    record Reference(String column, String table, String idColumn) {}
+
+    static class TableSpec {
+        final String table;
+        final String key;           // Same value on both databases: username or sync_uuid
+        final String ownerColumn;   // Only rows belonging to the synced user are looked at
+        final String columns;       // Copied columns, without the key, the AUTO_INCREMENT id or last_updated
+        final ConflictPolicy policy;
+        final boolean insertMissing;  // false = only update rows the other side already has
+        final Reference reference;    // May be null
+
+        TableSpec(String table, String key, String ownerColumn, String columns, ConflictPolicy policy,
+                  boolean insertMissing, Reference reference) {
+            this.table = table;
+            this.key = key;
+            this.ownerColumn = ownerColumn;
+            this.columns = columns;
+            this.policy = policy;
+            this.insertMissing = insertMissing;
+            this.reference = reference;
+        }
+    }
+
+    private static final String STAMP = "last_updated";
+    private static final String SYNC_ID = "sync_uuid";
+    private static final long DEFAULT_INTERVAL_SEC = 60;
+    private static final int ROWS_PER_FETCH = 100;
+
+    // Accounts and the money ledger are authoritative in the cloud. Only profile fields travel for accounts:
+    // passwords, roles, session tokens and trusted devices are never written by this engine, and accounts
+    // are never created by it (update only, matched by username).
+    static final List<TableSpec> TABLES = List.of(
+            new TableSpec("user_accounts", "username", "username",
+                    "last_name, first_name, middle_name, contact_number, email_address",
+                    ConflictPolicy.ONLINE_WINS, false, null),
+            new TableSpec("pets_accounts", SYNC_ID, "owner_username",
+                    "name, gender, age, breed, health_status, contact_number, personal_traits, reason_for_adoption, image_hash, status, owner_username",
+                    ConflictPolicy.LAST_WRITER_WINS, true, null),
+            new TableSpec("vet_appointments", SYNC_ID, "username",
+                    "pet_name, owner_name, vet_name, appt_date, appt_time, booking_time, status, username",
+                    ConflictPolicy.LAST_WRITER_WINS, true, null),
+            new TableSpec("adoption_applications", SYNC_ID, "applicant_name",
+                    "applicant_name, pet_name, status, application_date, email, contact_number, address, middle_name, dob, age, gender, occupation, province, city, barangay, residency_type, has_other_pets",
+                    ConflictPolicy.LAST_WRITER_WINS, true, new Reference("pet_id", "pets_accounts", "pet_id")),
+            new TableSpec("transactions", SYNC_ID, "username",
+                    "username, date, description, type, amount, method, status, reference_no",
+                    ConflictPolicy.ONLINE_WINS, true, null));
+
+    // Progress marks per (user, table, side) as epoch seconds of that side's clock, kept in the LOCAL database
+    static final String CREATE_MARKS_TABLE = "CREATE TABLE IF NOT EXISTS twoway_sync_marks (" +
+            "username VARCHAR(100) NOT NULL, " +
+            "table_name VARCHAR(64) NOT NULL, " +
+            "side VARCHAR(10) NOT NULL, " +
+            "high_water BIGINT NOT NULL, " +
+            "PRIMARY KEY (username, table_name, side))";
+
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "PawTrack-TwoWaySync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final TwoWaySync DEFAULT = new TwoWaySync(DBConnector::getOnlineConnection, DBConnector::getLocalConnection, TABLES);
+    private static ScheduledFuture<?> scheduled;
+    private static String scheduledUser;
+
+    private final DBDual.ConnectionSource onlineSource;
+    private final DBDual.ConnectionSource localSource;
+    private final List<TableSpec> tables;
+
+    // Sources are injectable so the engine can be pointed at any two MySQL-compatible databases (see TwoWaySyncHarness)
+    TwoWaySync(DBDual.ConnectionSource onlineSource, DBDual.ConnectionSource localSource, List<TableSpec> tables) {
+        this.onlineSource = onlineSource;
+        this.localSource = localSource;
+        this.tables = tables;
+    }
+
+    // --- SCHEDULING ---
+    // One user at a time: logging in as someone else moves the schedule over to them
+    public static synchronized void start(String username) {
+        if (scheduled != null && username.equals(scheduledUser)) return;
+        stop();
+        scheduledUser = username;
+        scheduled = SCHEDULER.scheduleWithFixedDelay(() -> {
+            try {
+                DEFAULT.syncOnce(username);
+            } catch (Exception e) {
+                // Usually just "still offline"; try again next round
+                System.err.println("⚠️ [TwoWaySync] Skipped: " + e.getMessage());
+            }
+        }, 0, DEFAULT_INTERVAL_SEC, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (scheduled != null) scheduled.cancel(false);
+        scheduled = null;
+        scheduledUser = null;
+    }
+
+    // --- ONE ROUND ---
+    public synchronized Map<String, int[]> syncOnce(String username) throws SQLException {
+        Map<String, int[]> summary = new HashMap<>();   // table -> {pulled, pushed}
+        try (Connection online = onlineSource.open();
+             Connection local = localSource.open()) {
+
+            try (Statement stmt = local.createStatement()) {
+                stmt.execute(CREATE_MARKS_TABLE);
+            }
+
+            // Pooled connections: put the session zone back before they're handed to anyone else
+            String onlineZone = null;
+            String localZone = null;
+            try {
+                onlineZone = useUtc(online);
+                localZone = useUtc(local);
+                for (TableSpec spec : tables) {
+                    if (!ready(online, spec) || !ready(local, spec)) {
+                        continue; // Table not migrated on one side yet
+                    }
+                    summary.put(spec.table, syncTable(online, local, spec, username));
+                }
+            } finally {
+                restoreZone(online, onlineZone);
+                restoreZone(local, localZone);
+            }
+        }
+        return summary;
+    }
+
+    private static boolean ready(Connection conn, TableSpec spec) throws SQLException {
+        return DataSync.hasColumn(conn, spec.table, STAMP) && DataSync.hasColumn(conn, spec.table, spec.key);
+    }
+
+    private int[] syncTable(Connection online, Connection local, TableSpec spec, String username) throws SQLException {
+        Long onlineMark = loadMark(local, username, spec.table, "online");
+        Long localMark = loadMark(local, username, spec.table, "local");
+
+        // First round for this user: there is no "since" yet, and every stamp in the table (including
+        // ones bumped by ALTERs and backfills) would look like a fresh edit. So rows that exist on both
+        // sides are taken as already in step, only rows missing on one side are copied, and the marks
+        // start from here.
+        boolean seeding = onlineMark == null || localMark == null;
+
+        // 1. Cheap pass: only keys + stamps of what changed on each side
+        Map<String, Long> onlineChanged = changedSince(online, spec, username, seeding ? null : onlineMark);
+        Map<String, Long> localChanged = changedSince(local, spec, username, seeding ? null : localMark);
+
+        // 2. Current stamps on the other side for keys only one side reported (a copied row keeps its
+        //    original stamp, which can sit below the destination's mark)
+        Set<String> keys = new LinkedHashSet<>(onlineChanged.keySet());
+        keys.addAll(localChanged.keySet());
+        Map<String, Long> onlineNow = new HashMap<>(onlineChanged);
+        onlineNow.putAll(stampsOf(online, spec, username, missingFrom(keys, onlineChanged)));
+        Map<String, Long> localNow = new HashMap<>(localChanged);
+        localNow.putAll(stampsOf(local, spec, username, missingFrom(keys, localChanged)));
+
+        // 3. Decide a direction for every changed key
+        List<String> pull = new ArrayList<>();
+        List<String> push = new ArrayList<>();
+        for (String key : keys) {
+            Long onlineTs = onlineNow.get(key);
+            Long localTs = localNow.get(key);
+            if (localTs == null) {
+                pull.add(key);
+            } else if (onlineTs == null) {
+                push.add(key);
+            } else if (seeding || onlineTs.equals(localTs)) {
+                // Same stamp on both sides = same write seen twice (e.g. DBDual or our own copy); nothing to do
+            } else if (!localChanged.containsKey(key)) {
+                pull.add(key);
+            } else if (!onlineChanged.containsKey(key)) {
+                push.add(key);
+            } else if (onlineWins(spec.policy, onlineTs, localTs)) {
+                pull.add(key);
+            } else {
+                push.add(key);
+            }
+        }
+
+        // 4. Copy full rows for the winners
+        copyRows(online, local, spec, username, pull);
+        copyRows(local, online, spec, username, push);
+
+        // 5. Move marks up to the newest stamp we looked at
+        saveMark(local, username, spec.table, "online", maxOf(onlineMark, onlineChanged));
+        saveMark(local, username, spec.table, "local", maxOf(localMark, localChanged));
+
+        if (!pull.isEmpty() || !push.isEmpty()) {
+            System.out.println("🔁 [TwoWaySync] " + spec.table + ": pulled " + pull.size() + ", pushed " + push.size());
+        }
+        return new int[]{pull.size(), push.size()};
+    }
+
+    static boolean onlineWins(ConflictPolicy policy, long onlineTs, long localTs) {
+        switch (policy) {
+            case ONLINE_WINS: return true;
+            case LOCAL_WINS: return false;
+            default: return localTs <= onlineTs;
+        }
+    }
+
+    // key -> last_updated (epoch seconds) for the user's rows stamped at or after 'mark' (all of them when null)
+    private static Map<String, Long> changedSince(Connection conn, TableSpec spec, String username, Long mark) throws SQLException {
+        Map<String, Long> changed = new HashMap<>();
+        String sql = "SELECT " + spec.key + ", UNIX_TIMESTAMP(" + STAMP + ") FROM " + spec.table + " WHERE " + spec.ownerColumn + " = ?";
+        // '>=' so rows stamped in the same second as the last round are looked at again rather than missed
+        if (mark != null) sql += " AND " + STAMP + " >= FROM_UNIXTIME(?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, username);
+            if (mark != null) stmt.setLong(2, mark);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String key = rs.getString(1);
+                    if (key != null) changed.put(key, rs.getLong(2));
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static List<String> missingFrom(Set<String> keys, Map<String, Long> found) {
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) if (!found.containsKey(key)) missing.add(key);
+        return missing;
+    }
+
+    // key -> last_updated for the given keys of the user's rows (absent = no such row on this side)
+    private static Map<String, Long> stampsOf(Connection conn, TableSpec spec, String username, List<String> keys) throws SQLException {
+        Map<String, Long> stamps = new HashMap<>();
+        for (int start = 0; start < keys.size(); start += ROWS_PER_FETCH) {
+            List<String> chunk = keys.subList(start, Math.min(start + ROWS_PER_FETCH, keys.size()));
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT " + spec.key + ", UNIX_TIMESTAMP(" + STAMP + ") FROM " + spec.table
+                    + " WHERE " + spec.ownerColumn + " = ? AND " + spec.key + " IN (" + DataSync.placeholders(chunk.size()) + ")")) {
+                stmt.setString(1, username);
+                for (int i = 0; i < chunk.size(); i++) stmt.setString(i + 2, chunk.get(i));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) stamps.put(rs.getString(1), rs.getLong(2));
+                }
+            }
+        }
+        return stamps;
+    }
+
+    // Streams the chosen rows across in chunks, keeping their original last_updated.
+    // Only the listed columns are written, so anything else on the destination row (created_at, the
+    // legacy image BLOB, its own id) is left alone.
+    private static void copyRows(Connection source, Connection dest, TableSpec spec, String username, List<String> keys) throws SQLException {
+        if (keys.isEmpty()) return;
+        String[] columns = spec.columns.split(",\\s*");
+        Reference ref = spec.reference;
+
+        // SELECT order = parameter order of the write: columns..., key, stamp[, referenced sync_uuid]
+        String selected = spec.columns + ", " + spec.key + ", UNIX_TIMESTAMP(" + STAMP + ")"
+                + (ref == null ? "" : ", (SELECT r." + SYNC_ID + " FROM " + ref.table() + " r WHERE r." + ref.idColumn() + " = t." + ref.column() + ")");
+        int selectedCount = columns.length + 2 + (ref == null ? 0 : 1);
+        String refLookup = ref == null ? null : "(SELECT r." + ref.idColumn() + " FROM " + ref.table() + " r WHERE r." + SYNC_ID + " = ?)";
+
+        String writeSql;
+        if (spec.insertMissing) {
+            StringBuilder updates = new StringBuilder();
+            for (String c : columns) updates.append(c).append(" = VALUES(").append(c).append("), ");
+            updates.append(STAMP).append(" = VALUES(").append(STAMP).append(")");
+            if (ref != null) updates.append(", ").append(ref.column()).append(" = COALESCE(VALUES(").append(ref.column()).append("), ").append(ref.column()).append(")");
+            writeSql = "INSERT INTO " + spec.table + " (" + spec.columns + ", " + spec.key + ", " + STAMP
+                    + (ref == null ? "" : ", " + ref.column()) + ") VALUES (" + DataSync.placeholders(columns.length + 1)
+                    + ", FROM_UNIXTIME(?)" + (ref == null ? "" : ", " + refLookup) + ") ON DUPLICATE KEY UPDATE " + updates;
+        } else {
+            StringBuilder sets = new StringBuilder();
+            for (String c : columns) sets.append(c).append(" = ?, ");
+            // The key is bound once as a no-op SET (keeps the SELECT/parameter order) and again in WHERE
+            sets.append(spec.key).append(" = ?, ").append(STAMP).append(" = FROM_UNIXTIME(?)");
+            if (ref != null) sets.append(", ").append(ref.column()).append(" = COALESCE(").append(refLookup).append(", ").append(ref.column()).append(")");
+            writeSql = "UPDATE " + spec.table + " SET " + sets + " WHERE " + spec.key + " = ? AND " + spec.ownerColumn + " = ?";
+        }
+
+        try (PreparedStatement write = dest.prepareStatement(writeSql)) {
+            for (int start = 0; start < keys.size(); start += ROWS_PER_FETCH) {
+                List<String> chunk = keys.subList(start, Math.min(start + ROWS_PER_FETCH, keys.size()));
+                String selectSql = "SELECT " + selected + " FROM " + spec.table + " t WHERE t." + spec.ownerColumn + " = ?"
+                        + " AND t." + spec.key + " IN (" + DataSync.placeholders(chunk.size()) + ")";
+
+                try (PreparedStatement fetch = source.prepareStatement(selectSql)) {
+                    fetch.setString(1, username);
+                    for (int i = 0; i < chunk.size(); i++) fetch.setString(i + 2, chunk.get(i));
+                    try (ResultSet rs = fetch.executeQuery()) {
+                        boolean[] isBlob = DataSync.binaryColumns(rs.getMetaData(), selectedCount);
+                        long batchBytes = 0;
+                        int batchRows = 0;
+                        while (rs.next()) {
+                            batchBytes += DataSync.bindRow(rs, write, isBlob, selectedCount);
+                            if (!spec.insertMissing) {
+                                write.setString(selectedCount + 1, rs.getString(columns.length + 1));
+                                write.setString(selectedCount + 2, username);
+                            }
+                            write.addBatch();
+                            batchRows++;
+                            if (batchBytes >= DataSync.FLUSH_EVERY_BYTES) {
+                                write.executeBatch();
+                                batchBytes = 0;
+                                batchRows = 0;
+                            }
+                        }
+                        if (batchRows > 0) write.executeBatch();
+                    }
+                }
+            }
+        }
+    }
+
+    // --- SESSION TIME ZONE ---
+    private static String useUtc(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            String previous;
+            try (ResultSet rs = stmt.executeQuery("SELECT @@session.time_zone")) {
+                previous = rs.next() ? rs.getString(1) : null;
+            }
+            stmt.execute("SET time_zone = '+00:00'");
+            return previous;
+        }
+    }
+
+    private static void restoreZone(Connection conn, String zone) {
+        if (zone == null) return;
+        try (PreparedStatement stmt = conn.prepareStatement("SET time_zone = ?")) {
+            stmt.setString(1, zone);
+            stmt.execute();
+        } catch (SQLException e) {
+            System.err.println("⚠️ [TwoWaySync] Could not restore session time zone: " + e.getMessage());
+        }
+    }
+
+    // --- MARKS ---
+    private static Long maxOf(Long mark, Map<String, Long> changed) {
+        Long max = mark;
+        for (Long ts : changed.values()) {
+            if (ts != null && (max == null || ts > max)) max = ts;
+        }
+        return max;
+    }
+
+    private static Long loadMark(Connection local, String username, String table, String side) throws SQLException {
+        try (PreparedStatement stmt = local.prepareStatement(
+                "SELECT high_water FROM twoway_sync_marks WHERE username = ? AND table_name = ? AND side = ?")) {
+            stmt.setString(1, username);
+            stmt.setString(2, table);
+            stmt.setString(3, side);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : null;
+            }
+        }
+    }
+
+    // An empty side still gets a mark (0), so the next round isn't treated as a first round again
+    private static void saveMark(Connection local, String username, String table, String side, Long mark) throws SQLException {
+        try (PreparedStatement stmt = local.prepareStatement(
+                "INSERT INTO twoway_sync_marks (username, table_name, side, high_water) VALUES (?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE high_water = VALUES(high_water)")) {
+            stmt.setString(1, username);
+            stmt.setString(2, table);
+            stmt.setString(3, side);
+            stmt.setLong(4, mark != null ? mark : 0);
+            stmt.executeUpdate();
+        }
+    }
+}
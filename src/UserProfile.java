@@ -1,14 +1,13 @@
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -20,8 +19,7 @@ public class UserProfile {
     private JLabel petsCountLabel;
     private JLabel adoptionsCountLabel;
 
-    private static BufferedImage profileImage = null;
-    private static JPanel iconPanel;
+    private static Theme.CircleImage iconPanel;
     private String username;
     private JPanel mainContentPanel;
 
@@ -40,6 +38,26 @@ public class UserProfile {
     };
 
     private int currentImageIndex = 0;
+
+    // Avatars are drawn at exactly these sizes, so they're prepared at exactly these sizes
+    private static final int ICON_DIAMETER = 130;
+    private static final int PICKER_DIAMETER = 120;
+
+    // Hot queries (EXPLAINed by QueryPlanCheck)
+    static final String OWNED_PETS_SQL = "SELECT pet_id, name, breed, gender, age, image_hash, reason_for_adoption, status " +
+            "FROM pets_accounts " +
+            "WHERE owner_username = ? AND status IN ('Owned', 'Pairing', 'Paired')";
+    static final String REGISTERED_PETS_SQL = "SELECT pet_id, name, breed, gender, age, image_hash, reason_for_adoption, status " +
+            "FROM pets_accounts " +
+            "WHERE owner_username = ? AND status = 'Available'";
+    static final String OWNED_COUNT_SQL = "SELECT COUNT(*) FROM pets_accounts WHERE owner_username = ? AND status IN ('Owned', 'Pairing', 'Paired')";
+    static final String REGISTERED_COUNT_SQL = "SELECT COUNT(*) FROM pets_accounts WHERE owner_username = ? AND status = 'Available'";
+    static final String ADOPTION_HISTORY_SQL = "SELECT a.pet_id, a.pet_name, a.status, a.application_date, " +
+            "p.breed, p.gender, p.age, p.pet_id AS photo_pet_id, p.image_hash, p.reason_for_adoption " +
+            "FROM adoption_applications a " +
+            "LEFT JOIN pets_accounts p ON (a.pet_id = p.pet_id OR (a.pet_id IS NULL AND a.pet_name = p.name)) " +
+            "WHERE a.applicant_name = ? " +
+            "ORDER BY a.application_date DESC";
     
     // Edit mode components
     private boolean isEditMode = false;
@@ -49,6 +67,7 @@ public class UserProfile {
 
     public UserProfile(String username) {
         this.username = username;
+        preloadAvatars();
         initializeUI();
         loadUserData();
         loadStats();
@@ -84,15 +103,13 @@ public class UserProfile {
                 int registeredCount = 0;
 
                 try (Connection conn = DBConnector.getConnection()) {
-                    String sqlOwned = "SELECT COUNT(*) FROM pets_accounts WHERE owner_username = ? AND status IN ('Owned', 'Pairing', 'Paired')";
-                    try (PreparedStatement stmt = conn.prepareStatement(sqlOwned)) {
+                    try (PreparedStatement stmt = conn.prepareStatement(OWNED_COUNT_SQL)) {
                         stmt.setString(1, username);
                         ResultSet rs = stmt.executeQuery();
                         if (rs.next()) ownedCount = rs.getInt(1);
                     }
 
-                    String sqlReg = "SELECT COUNT(*) FROM pets_accounts WHERE owner_username = ? AND status = 'Available'";
-                    try (PreparedStatement stmt = conn.prepareStatement(sqlReg)) {
+                    try (PreparedStatement stmt = conn.prepareStatement(REGISTERED_COUNT_SQL)) {
                         stmt.setString(1, username);
                         ResultSet rs = stmt.executeQuery();
                         if (rs.next()) registeredCount = rs.getInt(1);
@@ -162,29 +179,7 @@ public class UserProfile {
         leftPanel.setLayout(new BoxLayout(leftPanel, BoxLayout.Y_AXIS));
         leftPanel.setOpaque(false);
 
-        iconPanel = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2 = (Graphics2D) g;
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                int size = Math.min(getWidth(), getHeight());
-                int x = (getWidth() - size) / 2;
-                int y = (getHeight() - size) / 2;
-
-                if (profileImage != null) {
-                    g2.setClip(new java.awt.geom.Ellipse2D.Float(x, y, size, size));
-                    g2.drawImage(profileImage, x, y, size, size, null);
-                } else {
-                    g2.setColor(new Color(230, 230, 240));
-                    g2.fillOval(x, y, size, size);
-                }
-            }
-        };
-        iconPanel.setPreferredSize(new Dimension(130, 130));
-        iconPanel.setMaximumSize(new Dimension(130, 130));
-        iconPanel.setMinimumSize(new Dimension(130, 130));
-        iconPanel.setOpaque(false);
+        iconPanel = new Theme.CircleImage(ICON_DIAMETER);
         iconPanel.setCursor(new Cursor(Cursor.HAND_CURSOR));
         iconPanel.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
@@ -482,15 +477,8 @@ public class UserProfile {
                 Set<Integer> processedPetIds = new HashSet<>();
 
                 // Query 1: Try new schema with pet_id
-                String sql = "SELECT a.pet_id, a.pet_name, a.status, a.application_date, " +
-                        "p.breed, p.gender, p.age, p.image, p.reason_for_adoption " +
-                        "FROM adoption_applications a " +
-                        "LEFT JOIN pets_accounts p ON (a.pet_id = p.pet_id OR (a.pet_id IS NULL AND a.pet_name = p.name)) " +
-                        "WHERE a.applicant_name = ? " +
-                        "ORDER BY a.application_date DESC";
-
                 try (Connection conn = DBConnector.getConnection()) {
-                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    try (PreparedStatement stmt = conn.prepareStatement(ADOPTION_HISTORY_SQL)) {
                         stmt.setString(1, username);
                         ResultSet rs = stmt.executeQuery();
                         while (rs.next()) {
@@ -505,9 +493,11 @@ public class UserProfile {
                             String pBreed = rs.getString("breed");
                             String pGender = rs.getString("gender");
                             String pAge = rs.getString("age");
-                            byte[] pImg = rs.getBytes("image");
+                            int photoId = rs.getInt("photo_pet_id");
+                            String pHash = rs.getString("image_hash");
+                            byte[] pImg = ImageStore.loadPetThumbnail(photoId, pHash, Thumbnails.AVATAR);
                             String pDesc = rs.getString("reason_for_adoption");
-                            list.add(createAdoptedPetCard(pName, pBreed, pGender, pAge, pStatus, pDate, pImg, pDesc));
+                            list.add(createAdoptedPetCard(pName, pBreed, pGender, pAge, pStatus, pDate, pImg, photoId, pHash, pDesc));
                         }
                     } catch (SQLException ex) {
                         // FALLBACK: If column 'pet_id' is unknown, run legacy query
@@ -543,7 +533,7 @@ public class UserProfile {
                         String pAge = rs.getString("age");
                         byte[] pImg = rs.getBytes("image");
                         String pDesc = rs.getString("reason_for_adoption");
-                        list.add(createAdoptedPetCard(pName, pBreed, pGender, pAge, pStatus, pDate, pImg, pDesc));
+                        list.add(createAdoptedPetCard(pName, pBreed, pGender, pAge, pStatus, pDate, pImg, 0, null, pDesc));
                     }
                 } catch (Exception e) { e.printStackTrace(); }
                 return list;
@@ -574,8 +564,35 @@ public class UserProfile {
         worker.execute();
     }
 
+    // Cards only hold a small copy; the details window gets the 300px one, fetched off the EDT
+    // (it may come from disk or a database) and opened once it's here
+    private void openPetDetails(JButton viewBtn, String name, String breed, String gender, String age,
+                                int petId, String imageHash, byte[] cardBytes, String desc) {
+        viewBtn.setEnabled(false);
+        new SwingWorker<byte[], Void>() {
+            @Override
+            protected byte[] doInBackground() {
+                return ImageStore.loadPetThumbnail(petId, imageHash, Thumbnails.DETAIL);
+            }
+
+            @Override
+            protected void done() {
+                viewBtn.setEnabled(true);
+                byte[] detail = null;
+                try {
+                    detail = get();
+                } catch (Exception e) {
+                    System.err.println("⚠️ Detail photo for " + name + " not loaded: " + e.getMessage());
+                }
+                JFrame parentFrame = (JFrame) SwingUtilities.getWindowAncestor(mainContentPanel);
+                ViewContent details = new ViewContent(parentFrame, name, breed, gender, age, detail != null ? detail : cardBytes, desc);
+                details.setVisible(true);
+            }
+        }.execute();
+    }
+
     private JPanel createAdoptedPetCard(String name, String breed, String gender, String age,
-                                        String status, String date, byte[] imageBytes, String desc) {
+                                        String status, String date, byte[] imageBytes, int petId, String imageHash, String desc) {
         JPanel card = new JPanel(new BorderLayout(10, 0)) {
             @Override
             protected void paintComponent(Graphics g) {
@@ -594,12 +611,8 @@ public class UserProfile {
         JLabel imageLabel = new JLabel() {
             Image img = null;
             {
-                if (imageBytes != null && imageBytes.length > 0) {
-                    try {
-                        InputStream in = new ByteArrayInputStream(imageBytes);
-                        img = ImageIO.read(in);
-                    } catch(Exception e){}
-                }
+                // Shared cache: reloading the profile doesn't decode the same photo again
+                img = ImageCache.scaled(imageBytes, 50, 50);
             }
             @Override
             protected void paintComponent(Graphics g) {
@@ -637,9 +650,7 @@ public class UserProfile {
             String safeBreed = breed != null ? breed : "Unknown";
             String safeGender = gender != null ? gender : "Unknown";
             String safeAge = age != null ? age : "?";
-            JFrame parentFrame = (JFrame) SwingUtilities.getWindowAncestor(mainContentPanel);
-            ViewContent details = new ViewContent(parentFrame, name, safeBreed, safeGender, safeAge, imageBytes, desc);
-            details.setVisible(true);
+            openPetDetails(viewBtn, name, safeBreed, safeGender, safeAge, petId, imageHash, imageBytes, desc);
         });
 
         card.add(imageLabel, BorderLayout.WEST);
@@ -660,12 +671,8 @@ public class UserProfile {
             @Override
             protected List<JPanel> doInBackground() {
                 List<JPanel> logs = new ArrayList<>();
-                String sql = "SELECT name, breed, gender, age, image, reason_for_adoption, status " +
-                        "FROM pets_accounts " +
-                        "WHERE owner_username = ? AND status = 'Available'";
-
                 try (Connection conn = DBConnector.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                     PreparedStatement stmt = conn.prepareStatement(REGISTERED_PETS_SQL)) {
 
                     stmt.setString(1, username);
                     ResultSet rs = stmt.executeQuery();
@@ -675,10 +682,12 @@ public class UserProfile {
                         String pBreed = rs.getString("breed");
                         String pGender = rs.getString("gender");
                         String pAge = rs.getString("age");
-                        byte[] pImg = rs.getBytes("image");
+                        int pId = rs.getInt("pet_id");
+                        String pHash = rs.getString("image_hash");
+                        byte[] pImg = ImageStore.loadPetThumbnail(pId, pHash, Thumbnails.AVATAR);
                         String pDesc = rs.getString("reason_for_adoption");
 
-                        logs.add(createSystemLogCard(pName, pBreed, pGender, pAge, pImg, pDesc));
+                        logs.add(createSystemLogCard(pName, pBreed, pGender, pAge, pImg, pId, pHash, pDesc));
                     }
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -713,7 +722,8 @@ public class UserProfile {
         worker.execute();
     }
 
-    private JPanel createSystemLogCard(String name, String breed, String gender, String age, byte[] imageBytes, String desc) {
+    private JPanel createSystemLogCard(String name, String breed, String gender, String age, byte[] imageBytes,
+                                       int petId, String imageHash, String desc) {
         JPanel card = new JPanel(new BorderLayout(10, 0)) {
             @Override
             protected void paintComponent(Graphics g) {
@@ -732,12 +742,8 @@ public class UserProfile {
         JLabel imageLabel = new JLabel() {
             Image img = null;
             {
-                if (imageBytes != null && imageBytes.length > 0) {
-                    try {
-                        InputStream in = new ByteArrayInputStream(imageBytes);
-                        img = ImageIO.read(in);
-                    } catch(Exception e){}
-                }
+                // Shared cache: reloading the profile doesn't decode the same photo again
+                img = ImageCache.scaled(imageBytes, 45, 45);
             }
             @Override
             protected void paintComponent(Graphics g) {
@@ -770,11 +776,7 @@ public class UserProfile {
 
         JButton viewBtn = new JButton("View");
         styleMiniButton(viewBtn, new Color(120, 100, 200));
-        viewBtn.addActionListener(e -> {
-            JFrame parentFrame = (JFrame) SwingUtilities.getWindowAncestor(mainContentPanel);
-            ViewContent details = new ViewContent(parentFrame, name, breed, gender, age, imageBytes, desc);
-            details.setVisible(true);
-        });
+        viewBtn.addActionListener(e -> openPetDetails(viewBtn, name, breed, gender, age, petId, imageHash, imageBytes, desc));
 
         JButton deleteBtn = new JButton("Delete");
         styleMiniButton(deleteBtn, new Color(220, 80, 80));
@@ -842,12 +844,8 @@ public class UserProfile {
             @Override
             protected List<JPanel> doInBackground() {
                 List<JPanel> cards = new ArrayList<>();
-                String sql = "SELECT name, breed, gender, age, image, reason_for_adoption, status " +
-                        "FROM pets_accounts " +
-                        "WHERE owner_username = ? AND status IN ('Owned', 'Pairing', 'Paired')";
-
                 try (Connection conn = DBConnector.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(sql)) {
+                     PreparedStatement stmt = conn.prepareStatement(OWNED_PETS_SQL)) {
 
                     stmt.setString(1, username);
                     ResultSet rs = stmt.executeQuery();
@@ -857,11 +855,13 @@ public class UserProfile {
                         String pBreed = rs.getString("breed");
                         String pGender = rs.getString("gender");
                         String pAge = rs.getString("age");
-                        byte[] pImg = rs.getBytes("image");
+                        int pId = rs.getInt("pet_id");
+                        String pHash = rs.getString("image_hash");
+                        byte[] pImg = ImageStore.loadPetThumbnail(pId, pHash, Thumbnails.SMALL);
                         String pDesc = rs.getString("reason_for_adoption");
                         String pStatus = rs.getString("status");
 
-                        cards.add(createDynamicPetCard(pName, "Pet", pBreed, pStatus, pGender, pAge, pImg, pDesc));
+                        cards.add(createDynamicPetCard(pName, "Pet", pBreed, pStatus, pGender, pAge, pImg, pId, pHash, pDesc));
                     }
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -894,7 +894,7 @@ public class UserProfile {
     }
 
     private JPanel createDynamicPetCard(String name, String type, String breed, String status,
-                                        String gender, String age, byte[] imageBytes, String desc) {
+                                        String gender, String age, byte[] imageBytes, int petId, String imageHash, String desc) {
         JPanel card = new JPanel() {
             @Override
             protected void paintComponent(Graphics g) {
@@ -913,12 +913,8 @@ public class UserProfile {
         JPanel imagePanel = new JPanel() {
             Image img = null;
             {
-                if (imageBytes != null && imageBytes.length > 0) {
-                    try {
-                        InputStream in = new ByteArrayInputStream(imageBytes);
-                        img = ImageIO.read(in);
-                    } catch(Exception e){}
-                }
+                // Shared cache: reloading the profile doesn't decode the same photo again
+                img = ImageCache.scaled(imageBytes, 55, 55);
             }
             @Override
             protected void paintComponent(Graphics g) {
@@ -965,11 +961,7 @@ public class UserProfile {
         // VIEW BUTTON
         JButton viewBtn = new JButton("View");
         styleMiniButton(viewBtn, new Color(120, 100, 200));
-        viewBtn.addActionListener(e -> {
-            JFrame parentFrame = (JFrame) SwingUtilities.getWindowAncestor(mainContentPanel);
-            ViewContent details = new ViewContent(parentFrame, name, breed, gender, age, imageBytes, desc);
-            details.setVisible(true);
-        });
+        viewBtn.addActionListener(e -> openPetDetails(viewBtn, name, breed, gender, age, petId, imageHash, imageBytes, desc));
 
         // DELETE BUTTON
         JButton deleteBtn = new JButton("Delete");
@@ -1367,27 +1359,57 @@ public class UserProfile {
     private void loadProfileImage(int index) {
         if (index < 0 || index >= PROFILE_IMAGE_URLS.length) index = 0;
         currentImageIndex = index;
-        SwingWorker<BufferedImage, Void> worker = new SwingWorker<>() {
+        if (iconPanel != null) showAvatar(index, iconPanel);
+    }
+
+    // --- AVATAR PRELOAD ---
+    private static String avatarKey(int index, int diameter) {
+        return "avatar:" + PROFILE_IMAGE_URLS[index] + "@o" + diameter;
+    }
+
+    // Reads each avatar file once, in parallel off the EDT, into circular images at both sizes we draw
+    private static void preloadAvatars() {
+        Thread t = new Thread(() -> IntStream.range(0, PROFILE_IMAGE_URLS.length).parallel().forEach(UserProfile::prepareAvatar),
+                "PawTrack-AvatarPreload");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void prepareAvatar(int index) {
+        if (ImageCache.getIfPresent(avatarKey(index, ICON_DIAMETER)) != null
+                && ImageCache.getIfPresent(avatarKey(index, PICKER_DIAMETER)) != null) return;
+        try {
+            File imageFile = new File(PROFILE_IMAGE_URLS[index]);
+            if (!imageFile.exists()) return;
+            BufferedImage src = ImageIO.read(imageFile);
+            if (src == null) return;
+            ImageCache.get(avatarKey(index, ICON_DIAMETER), () -> ImageCache.toCircle(src, ICON_DIAMETER));
+            ImageCache.get(avatarKey(index, PICKER_DIAMETER), () -> ImageCache.toCircle(src, PICKER_DIAMETER));
+        } catch (IOException e) {}
+    }
+
+    // Sets the avatar right away if the preload already made it, otherwise fills it in when ready
+    private static void showAvatar(int index, Theme.CircleImage target) {
+        String key = avatarKey(index, target.getDiameter());
+        BufferedImage ready = ImageCache.getIfPresent(key);
+        if (ready != null) {
+            target.setImage(ready);
+            return;
+        }
+        new SwingWorker<BufferedImage, Void>() {
             @Override
             protected BufferedImage doInBackground() {
-                try {
-                    File imageFile = new File(PROFILE_IMAGE_URLS[currentImageIndex]);
-                    if (imageFile.exists()) return ImageIO.read(imageFile);
-                } catch (IOException e) {}
-                return null;
+                prepareAvatar(index);
+                return ImageCache.getIfPresent(key);
             }
             @Override
             protected void done() {
                 try {
                     BufferedImage img = get();
-                    if (img != null) {
-                        profileImage = img;
-                        if (iconPanel != null) iconPanel.repaint();
-                    }
+                    if (img != null) target.setImage(img);
                 } catch (Exception e) {}
             }
-        };
-        worker.execute();
+        }.execute();
     }
 
     private void showImageSelectionDialog() {
@@ -1407,27 +1429,12 @@ public class UserProfile {
 
         for (int i = 0; i < PROFILE_IMAGE_URLS.length; i++) {
             final int index = i;
-            JButton imgBtn = new JButton() {
-                @Override
-                protected void paintComponent(Graphics g) {
-                    super.paintComponent(g);
-                    try {
-                        File imageFile = new File(PROFILE_IMAGE_URLS[index]);
-                        if (imageFile.exists()) {
-                            BufferedImage img = ImageIO.read(imageFile);
-                            if (img != null) {
-                                Graphics2D g2 = (Graphics2D) g;
-                                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                                int size = Math.min(getWidth(), getHeight()) - 20;
-                                int x = (getWidth() - size) / 2;
-                                int y = (getHeight() - size) / 2;
-                                g2.setClip(new java.awt.geom.Ellipse2D.Float(x, y, size, size));
-                                g2.drawImage(img, x, y, size, size, null);
-                            }
-                        }
-                    } catch (Exception e) {}
-                }
-            };
+            // The picture is a child that only blits, so hovering repaints without touching the disk
+            JButton imgBtn = new JButton();
+            imgBtn.setLayout(new BorderLayout());
+            Theme.CircleImage avatar = new Theme.CircleImage(PICKER_DIAMETER);
+            imgBtn.add(avatar, BorderLayout.CENTER);
+            showAvatar(index, avatar);
             imgBtn.setPreferredSize(new Dimension(140, 140));
             imgBtn.setBackground(new Color(245, 245, 250));
             imgBtn.addActionListener(e -> { loadProfileImage(index); dialog.dispose(); });
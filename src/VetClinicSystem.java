@@ -20,7 +20,9 @@ public class VetClinicSystem {
         System.out.println("User: " + details.username());
 
         // 1. Database Insertion (Dual Write)
-        String sql = "INSERT INTO vet_appointments (pet_name, owner_name, vet_name, appt_date, appt_time, booking_time, status, username) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO vet_appointments (pet_name, owner_name, vet_name, appt_date, appt_time, booking_time, status, username, sync_uuid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        // Same id on both databases so TwoWaySync sees one appointment, not two
+        String syncId = java.util.UUID.randomUUID().toString();
 
         DBDual.executeUpdateBoth(sql, stmt -> {
             stmt.setString(1, details.petName());
@@ -34,6 +36,7 @@ public class VetClinicSystem {
             stmt.setString(7, "PENDING");
 
             stmt.setString(8, details.username());
+            stmt.setString(9, syncId);
         });
 
         return true;
@@ -2,9 +2,6 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import javax.imageio.ImageIO;
 import java.awt.geom.RoundRectangle2D;
 
 public class ViewContent extends JFrame {
@@ -134,11 +131,8 @@ public class ViewContent extends JFrame {
         label.setPreferredSize(new Dimension(300, 300));
 
         if (imageBytes != null && imageBytes.length > 0) {
-            try {
-                InputStream in = new ByteArrayInputStream(imageBytes);
-                Image img = ImageIO.read(in).getScaledInstance(300, 300, Image.SCALE_SMOOTH);
-                label.setIcon(new ImageIcon(img));
-            } catch (Exception e) {}
+            BufferedImage img = ImageCache.scaled(imageBytes, 300, 300);
+            if (img != null) label.setIcon(new ImageIcon(img));
         } else {
             label.setText("No Image");
             label.setHorizontalAlignment(SwingConstants.CENTER);
@@ -0,0 +1,236 @@
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Card grid that only creates components for the rows in (or next to) the viewport and reuses them
+// while scrolling. Items arrive a page at a time from a keyset PageSource, fetched off the EDT as the
+// user nears the end, so a few thousand pets cost a few dozen cards instead of a few thousand.
+// Put it directly in a JScrollPane (it implements Scrollable).
+public class VirtualGrid<T> extends JPanel implements Scrollable {
+
+    // Next page after 'last' (null = first page). Implement as "WHERE key > ? ORDER BY key LIMIT ?".
+    public interface PageSource<T> {
+        List<T> fetchAfter(T last, int limit) throws Exception;
+    }
+
+    // create() makes an empty card; bind() points it at an item (called again whenever the card is reused)
+    public interface CardRenderer<T> {
+        JComponent create();
+        void bind(JComponent card, T item);
+    }
+
+    private final int cellW;
+    private final int cellH;
+    private final int gap;
+    private final int pageSize;
+    private final CardRenderer<T> renderer;
+
+    private PageSource<T> source;
+    private final List<T> items = new ArrayList<>();
+    private final Map<Integer, JComponent> realized = new HashMap<>();     // item index -> card on screen
+    private final ArrayDeque<JComponent> pool = new ArrayDeque<>();
+    private int columns = 1;
+    private boolean hasMore;
+    private boolean loading;
+    private int generation;         // Bumped on reset() so a late page from the old source is dropped
+    private String message;         // Shown instead of cards: loading / empty / error
+    private Color messageColor = Color.DARK_GRAY;
+    private String emptyText = "Nothing to show.";
+    private String loadingText = "Loading...";
+
+    public VirtualGrid(int cellW, int cellH, int gap, int pageSize, CardRenderer<T> renderer) {
+        super(null);
+        this.cellW = cellW;
+        this.cellH = cellH;
+        this.gap = gap;
+        this.pageSize = pageSize;
+        this.renderer = renderer;
+        setOpaque(false);
+    }
+
+    public void setEmptyText(String text) { this.emptyText = text; }
+
+    public void setLoadingText(String text) { this.loadingText = text; }
+
+    public int getItemCount() { return items.size(); }
+
+    // Drops everything and starts paging from the first item of 'newSource'
+    public void reset(PageSource<T> newSource) {
+        generation++;
+        source = newSource;
+        items.clear();
+        for (JComponent card : realized.values()) release(card);
+        realized.clear();
+        hasMore = true;
+        loading = false;
+        showMessage(loadingText, Color.DARK_GRAY);
+        revalidate();
+        loadNextPage();
+    }
+
+    // --- PAGING ---
+    private void loadNextPage() {
+        if (loading || !hasMore || source == null) return;
+        loading = true;
+        int gen = generation;
+        PageSource<T> src = source;
+        T last = items.isEmpty() ? null : items.get(items.size() - 1);
+
+        new SwingWorker<List<T>, Void>() {
+            @Override
+            protected List<T> doInBackground() throws Exception {
+                return src.fetchAfter(last, pageSize);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                loading = false;
+                try {
+                    List<T> page = get();
+                    items.addAll(page);
+                    hasMore = page.size() >= pageSize;
+                    if (items.isEmpty()) showMessage(emptyText, Color.DARK_GRAY);
+                    else message = null;
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    hasMore = false;
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    if (items.isEmpty()) showMessage("DB Error: " + cause.getMessage(), Color.RED);
+                }
+                revalidate();
+                repaint();
+                SwingUtilities.invokeLater(() -> updateRealized(false));
+            }
+        }.execute();
+    }
+
+    private void showMessage(String text, Color color) {
+        message = text;
+        messageColor = color;
+        repaint();
+    }
+
+    // --- VIRTUALIZATION ---
+    private final ChangeListener scrollListener = e -> updateRealized(false);
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport viewport) viewport.addChangeListener(scrollListener);
+    }
+
+    @Override
+    public void removeNotify() {
+        if (getParent() instanceof JViewport viewport) viewport.removeChangeListener(scrollListener);
+        super.removeNotify();
+    }
+
+    @Override
+    public void doLayout() {
+        updateRealized(true);
+    }
+
+    // Binds cards for the rows around the visible area and hands the rest back to the pool
+    private void updateRealized(boolean relayout) {
+        Insets in = getInsets();
+        int newColumns = Math.max(1, (getWidth() - in.left - in.right + gap) / (cellW + gap));
+        if (newColumns != columns) {
+            columns = newColumns;
+            relayout = true;
+        }
+
+        Rectangle visible = getVisibleRect();
+        int rowH = cellH + gap;
+        int firstRow = Math.max(0, (visible.y - in.top) / rowH - 1);
+        int lastRow = Math.max(0, (visible.y + visible.height - in.top) / rowH + 1);
+        int first = firstRow * columns;
+        int last = Math.min(items.size(), (lastRow + 1) * columns);     // exclusive
+
+        Iterator<Map.Entry<Integer, JComponent>> it = realized.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, JComponent> e = it.next();
+            if (e.getKey() < first || e.getKey() >= last) {
+                release(e.getValue());
+                it.remove();
+            }
+        }
+
+        int rowWidth = columns * cellW + (columns - 1) * gap;
+        int left = in.left + Math.max(0, (getWidth() - in.left - in.right - rowWidth) / 2);
+        for (int i = first; i < last; i++) {
+            JComponent card = realized.get(i);
+            boolean fresh = card == null;
+            if (fresh) {
+                card = pool.isEmpty() ? renderer.create() : pool.pop();
+                add(card);
+                renderer.bind(card, items.get(i));
+                realized.put(i, card);
+            }
+            if (fresh || relayout) {
+                int row = i / columns;
+                int col = i % columns;
+                card.setBounds(left + col * (cellW + gap), in.top + row * rowH, cellW, cellH);
+                card.validate();
+            }
+        }
+
+        // Close to the end of what we have: fetch the next page
+        if (hasMore && !loading && last >= items.size() - columns * 2) loadNextPage();
+        repaint();
+    }
+
+    private void release(JComponent card) {
+        remove(card);
+        pool.push(card);
+    }
+
+    // --- SIZING ---
+    @Override
+    public Dimension getPreferredSize() {
+        Insets in = getInsets();
+        int rows = (items.size() + columns - 1) / columns;
+        int height = rows == 0 ? 200 : rows * cellH + (rows - 1) * gap;
+        return new Dimension(in.left + in.right + cellW, in.top + in.bottom + height);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (message == null) return;
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(new Font("SansSerif", Font.BOLD, 20));
+        g2.setColor(messageColor);
+        Rectangle visible = getVisibleRect();
+        FontMetrics fm = g2.getFontMetrics();
+        g2.drawString(message, visible.x + (visible.width - fm.stringWidth(message)) / 2, visible.y + visible.height / 2);
+        g2.dispose();
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() { return getPreferredSize(); }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) { return 16; }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() { return true; }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        // Fill the viewport when there are too few cards (so the background and messages cover it)
+        return getParent() instanceof JViewport vp && vp.getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,465 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+// Append-only outbox for DBDual writes that could not reach one side.
+// Records survive restarts; a background replayer pushes them once the database is reachable again.
+// File layout: [int length][long crc32][payload] repeated. A ".ckpt" sidecar holds the replayed offset.
+// append() is acknowledged only after the fsync that covers it (group commit: appends that arrive
+// together share one fsync). Records that fail their CRC are moved to a ".corrupt" file and skipped.
+public class WriteJournal {
+
+    private static final long GROUP_COMMIT_WINDOW_MS = 2;        // Appends arriving this close together share one fsync
+    private static final long REPLAY_MIN_BACKOFF_MS = 1000;
+    private static final long REPLAY_MAX_BACKOFF_MS = 5 * 60_000;
+    private static final long IDLE_CHECK_MS = 5000;
+
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "PawTrack-JournalFsync");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String name;
+    private final Path file;
+    private final Path checkpointFile;
+    private final DBDual.ConnectionSource source;
+    private final Object lock = new Object();
+
+    private FileChannel channel;
+    private long replayedOffset;                // Everything before this has been applied
+    private List<CompletableFuture<Void>> awaitingSync = new ArrayList<>();     // Appended, fsync not done yet
+    private boolean flushScheduled = false;
+
+    // --- METRICS ---
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final AtomicLong oldestPendingAt = new AtomicLong(0);   // enqueue time of the head record, 0 = empty
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong corrupt = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+
+    public WriteJournal(String name, String fileName, DBDual.ConnectionSource source) {
+        this.name = name;
+        this.file = Paths.get(fileName);
+        this.checkpointFile = Paths.get(fileName + ".ckpt");
+        this.source = source;
+
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            replayedOffset = readCheckpoint();
+            recover();
+        } catch (IOException e) {
+            System.err.println("❌ [Journal] " + name + " could not open " + file + ": " + e.getMessage());
+        }
+
+        Thread replayer = new Thread(this::replayLoop, "PawTrack-JournalReplay-" + name);
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    public boolean hasPending() {
+        return pendingRecords.get() > 0;
+    }
+
+    // --- APPEND ---
+    // The returned future completes once the records are on disk (fsync'd); only then is the write safe to acknowledge.
+    // All or nothing: if any record can't be encoded or written, none of them stay in the file.
+    public CompletableFuture<Void> append(List<DBDual.PendingWrite> writes) throws IOException {
+        // Encode everything first, outside the lock (a non-serializable parameter fails here, before any write)
+        List<ByteBuffer> records = new ArrayList<>(writes.size());
+        for (DBDual.PendingWrite w : writes) {
+            byte[] payload = encode(w);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            ByteBuffer buf = ByteBuffer.allocate(12 + payload.length);
+            buf.putInt(payload.length).putLong(crc.getValue()).put(payload).flip();
+            records.add(buf);
+        }
+
+        CompletableFuture<Void> synced = new CompletableFuture<>();
+        synchronized (lock) {
+            if (channel == null) throw new IOException(name + " journal is not available");
+            long start = channel.size();
+            long end = start;
+            try {
+                for (ByteBuffer buf : records) {
+                    while (buf.hasRemaining()) end += channel.write(buf, end);
+                }
+            } catch (IOException e) {
+                // Half a batch would replay writes the caller is told failed
+                try {
+                    channel.truncate(start);
+                } catch (IOException te) {
+                    System.err.println("❌ [Journal] " + name + " could not roll back a failed append: " + te.getMessage());
+                }
+                throw e;
+            }
+
+            appended.addAndGet(records.size());
+            if (pendingRecords.getAndAdd(records.size()) == 0 && !records.isEmpty()) oldestPendingAt.set(System.currentTimeMillis());
+            awaitingSync.add(synced);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                FLUSHER.schedule(this::flush, GROUP_COMMIT_WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+            lock.notifyAll();
+        }
+        return synced;
+    }
+
+    // One fsync for everything appended so far, then acknowledge those appends
+    private void flush() {
+        List<CompletableFuture<Void>> batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (awaitingSync.isEmpty() || channel == null) return;
+            batch = awaitingSync;
+            awaitingSync = new ArrayList<>();
+        }
+        try {
+            channel.force(false);       // Outside the lock: appends keep going while the disk catches up
+            fsyncs.incrementAndGet();
+            for (CompletableFuture<Void> f : batch) f.complete(null);
+        } catch (IOException e) {
+            // Not durable, so not acknowledged. The records may still replay if they did reach the disk.
+            System.err.println("⚠️ [Journal] " + name + " fsync failed: " + e.getMessage());
+            for (CompletableFuture<Void> f : batch) f.completeExceptionally(e);
+        }
+    }
+
+    // --- REPLAY ---
+    private void replayLoop() {
+        long backoff = REPLAY_MIN_BACKOFF_MS;
+        while (true) {
+            try {
+                synchronized (lock) {
+                    while (pendingRecords.get() == 0) lock.wait(IDLE_CHECK_MS);
+                }
+                if (replayPending()) {
+                    backoff = REPLAY_MIN_BACKOFF_MS;
+                } else {
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, REPLAY_MAX_BACKOFF_MS);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Returns false when the target is still unreachable
+    private boolean replayPending() {
+        try (Connection conn = source.open()) {
+            while (true) {
+                Record record;
+                try {
+                    record = readAt(replayedOffset);
+                } catch (CorruptRecordException e) {
+                    skipCorrupt(e);
+                    continue;
+                }
+                if (record == null) break;
+                try (PreparedStatement stmt = conn.prepareStatement(record.sql)) {
+                    record.params.applyTo(stmt);
+                    stmt.executeUpdate();
+                    replayed.incrementAndGet();
+                } catch (SQLException e) {
+                    if (isTransient(e)) throw e;
+                    // Will never succeed (bad data, missing table...); don't let it block the rest
+                    dropped.incrementAndGet();
+                    System.err.println("⚠️ [Journal] " + name + " dropping unreplayable write: " + e.getMessage());
+                }
+                advanceTo(record.nextOffset);
+            }
+            // Nothing readable left but the count says otherwise: trust the file, or we'd spin on it
+            long stale = pendingRecords.get();
+            if (stale > 0) {
+                synchronized (lock) {
+                    if (readAt(replayedOffset) == null && pendingRecords.get() > 0) {
+                        System.err.println("⚠️ [Journal] " + name + " pending count off by " + pendingRecords.get() + ", resetting");
+                        pendingRecords.set(0);
+                        advanceToEnd();
+                    }
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        } catch (IOException e) {
+            System.err.println("❌ [Journal] " + name + " read failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void advanceTo(long nextOffset) throws IOException {
+        synchronized (lock) {
+            replayedOffset = nextOffset;
+            pendingRecords.decrementAndGet();
+
+            if (replayedOffset >= channel.size()) {
+                // Fully drained: start the file over instead of growing it forever
+                channel.truncate(0);
+                channel.force(false);
+                replayedOffset = 0;
+                oldestPendingAt.set(0);
+            } else {
+                Record head;
+                try {
+                    head = readAt(replayedOffset);
+                } catch (CorruptRecordException e) {
+                    head = null;        // Replay will quarantine it next
+                }
+                oldestPendingAt.set(head != null ? head.enqueuedAt : 0);
+            }
+            writeCheckpoint(replayedOffset);
+        }
+    }
+
+    // A record that fails its CRC (or won't decode) can never replay. Copy its bytes aside for
+    // inspection and move past it; if even its length is garbage, everything from there on goes.
+    private void skipCorrupt(CorruptRecordException e) throws IOException {
+        synchronized (lock) {
+            long end = e.nextOffset >= 0 ? e.nextOffset : channel.size();
+            quarantine(e.offset, end);
+            if (e.nextOffset >= 0) {
+                corrupt.incrementAndGet();
+                dropped.incrementAndGet();
+                System.err.println("⚠️ [Journal] " + name + " skipping corrupt record at byte " + e.offset);
+                advanceTo(e.nextOffset);
+            } else {
+                long lost = pendingRecords.getAndSet(0);
+                corrupt.addAndGet(lost);
+                dropped.addAndGet(lost);
+                System.err.println("⚠️ [Journal] " + name + " corrupt tail at byte " + e.offset + ", dropping " + lost + " record(s)");
+                channel.truncate(e.offset);
+                channel.force(false);
+                advanceToEnd();
+            }
+        }
+    }
+
+    // Everything readable has been replayed (after a tail was cut off)
+    private void advanceToEnd() throws IOException {
+        replayedOffset = channel.size();
+        if (replayedOffset == 0 || pendingRecords.get() == 0) {
+            channel.truncate(0);
+            channel.force(false);
+            replayedOffset = 0;
+            oldestPendingAt.set(0);
+        }
+        writeCheckpoint(replayedOffset);
+    }
+
+    private void quarantine(long from, long to) {
+        if (to <= from) return;
+        Path target = Paths.get(file + ".corrupt");
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long pos = from;
+            while (pos < to) pos += channel.transferTo(pos, to - pos, out);
+            out.force(false);
+        } catch (IOException ex) {
+            System.err.println("⚠️ [Journal] " + name + " could not save corrupt bytes to " + target + ": " + ex.getMessage());
+        }
+    }
+
+    // --- STATS ---
+    public long getPendingCount() {
+        return pendingRecords.get();
+    }
+
+    // How long the oldest unreplayed write has been waiting
+    public long getReplayLagMs() {
+        long oldest = oldestPendingAt.get();
+        return oldest == 0 ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    public String getStats() {
+        return String.format("[%s journal] pending=%d lagMs=%d appended=%d replayed=%d dropped=%d corrupt=%d fsyncs=%d",
+                name, getPendingCount(), getReplayLagMs(), appended.get(), replayed.get(), dropped.get(), corrupt.get(), fsyncs.get());
+    }
+
+    // --- RECORD FORMAT ---
+    // A record at 'offset' that can't be used; nextOffset = where the next one starts, or -1 if unknown
+    private static class CorruptRecordException extends IOException {
+        final long offset;
+        final long nextOffset;
+
+        CorruptRecordException(long offset, long nextOffset, String reason) {
+            super(reason);
+            this.offset = offset;
+            this.nextOffset = nextOffset;
+        }
+    }
+
+    private static class Record {
+        String sql;
+        long enqueuedAt;
+        DBDual.PendingWrite.Params params;
+        long nextOffset;
+    }
+
+    private static byte[] encode(DBDual.PendingWrite w) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeLong(System.currentTimeMillis());
+            out.writeUTF(w.sql);
+            out.writeInt(w.params.methods.size());
+            for (int i = 0; i < w.params.methods.size(); i++) {
+                Method m = w.params.methods.get(i);
+                out.writeUTF(m.getName());
+                Class<?>[] types = m.getParameterTypes();
+                out.writeInt(types.length);
+                for (Class<?> type : types) out.writeUTF(type.getName());
+                for (Object arg : w.params.args.get(i)) out.writeObject(arg); // Fails fast on streams/readers
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // null = nothing (complete) left at 'offset'. Appends happen under the same lock, so a length that
+    // runs past the end of the file is damage, not a write in progress.
+    private Record readAt(long offset) throws IOException {
+        synchronized (lock) {
+            long size = channel.size();
+            if (offset >= size) return null;
+            if (offset + 12 > size) throw new CorruptRecordException(offset, -1, "truncated header");
+
+            ByteBuffer header = ByteBuffer.allocate(12);
+            channel.read(header, offset);
+            header.flip();
+            int length = header.getInt();
+            long crc = header.getLong();
+            if (length < 0 || offset + 12 + length > size) throw new CorruptRecordException(offset, -1, "bad length " + length);
+            long next = offset + 12 + length;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            while (payload.hasRemaining()) {
+                if (channel.read(payload, offset + 12 + payload.position()) < 0) throw new CorruptRecordException(offset, -1, "short read");
+            }
+            CRC32 check = new CRC32();
+            check.update(payload.array());
+            if (check.getValue() != crc) throw new CorruptRecordException(offset, next, "CRC mismatch");
+
+            Record record;
+            try {
+                record = decode(payload.array());
+            } catch (IOException e) {
+                throw new CorruptRecordException(offset, next, e.getMessage());
+            }
+            record.nextOffset = next;
+            return record;
+        }
+    }
+
+    private static Record decode(byte[] payload) throws IOException {
+        Record record = new Record();
+        record.params = new DBDual.PendingWrite.Params();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            record.enqueuedAt = in.readLong();
+            record.sql = in.readUTF();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String methodName = in.readUTF();
+                Class<?>[] types = new Class<?>[in.readInt()];
+                for (int t = 0; t < types.length; t++) types[t] = typeFor(in.readUTF());
+                Object[] args = new Object[types.length];
+                for (int a = 0; a < args.length; a++) args[a] = in.readObject();
+
+                record.params.methods.add(PreparedStatement.class.getMethod(methodName, types));
+                record.params.args.add(args);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Corrupt journal record", e);
+        }
+        return record;
+    }
+
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+            "int", int.class, "long", long.class, "double", double.class, "float", float.class,
+            "boolean", boolean.class, "short", short.class, "byte", byte.class);
+
+    private static Class<?> typeFor(String typeName) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(typeName);
+        return primitive != null ? primitive : Class.forName(typeName);
+    }
+
+    // --- STARTUP ---
+    // Counts what is left from last session and cuts off a half-written tail (e.g. power loss mid-append).
+    // CRC-damaged records in the middle are counted; replay quarantines them when it gets there.
+    private void recover() throws IOException {
+        long offset = replayedOffset;
+        Record head = null;
+        long count = 0;
+        while (true) {
+            Record record;
+            try {
+                record = readAt(offset);
+            } catch (CorruptRecordException e) {
+                if (e.nextOffset < 0) break;
+                offset = e.nextOffset;
+                count++;
+                continue;
+            }
+            if (record == null) break;
+            if (head == null) head = record;
+            offset = record.nextOffset;
+            count++;
+        }
+        if (offset < channel.size()) {
+            quarantine(offset, channel.size());
+            System.err.println("⚠️ [Journal] " + name + " truncating torn tail at byte " + offset);
+            channel.truncate(offset);
+        }
+        pendingRecords.set(count);
+        oldestPendingAt.set(head != null ? head.enqueuedAt : 0);
+        if (count > 0) System.out.println("📒 [Journal] " + name + ": " + count + " write(s) waiting from last session");
+    }
+
+    private long readCheckpoint() {
+        try {
+            if (!Files.exists(checkpointFile)) return 0;
+            long offset = Long.parseLong(Files.readString(checkpointFile, StandardCharsets.UTF_8).trim());
+            return Math.min(offset, channel.size());
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        Path tmp = Paths.get(checkpointFile + ".tmp");
+        Files.writeString(tmp, Long.toString(offset), StandardCharsets.UTF_8);
+        Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean isTransient(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientException || (state != null && state.startsWith("08"));
+    }
+}
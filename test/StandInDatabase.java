@@ -0,0 +1,730 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.rowset.serial.SerialBlob;
+
+// In-memory stand-in for one MySQL database, so TwoWaySyncHarness runs without any server.
+// Connections are JDBC proxies (same trick as ConnectionPool) over a tiny SQL engine that knows exactly
+// the statement shapes TwoWaySync, SchemaMigrator's snapshot and the harness send:
+//   SELECT [DISTINCT] ... FROM t [alias] [WHERE a AND b ...], INSERT ... [ON DUPLICATE KEY UPDATE ...],
+//   UPDATE ... SET ... [WHERE ...], DELETE, CREATE TABLE IF NOT EXISTS, session time_zone,
+//   =, >=, IN (...), ?, literals, scalar sub-selects and UNIX_TIMESTAMP / FROM_UNIXTIME / VALUES / COALESCE / COUNT(*) / LENGTH.
+// Anything else (and any JDBC call outside that list) throws, so a new statement shape in the engine
+// shows up as a harness failure instead of being silently misread.
+//
+// MySQL rules that the engine relies on are kept: AUTO_INCREMENT ids handed out per database, unique keys
+// (ON DUPLICATE KEY UPDATE hits on any of them), TIMESTAMP stamps stored as epoch seconds so
+// FROM_UNIXTIME / UNIX_TIMESTAMP round-trip whatever the session zone is. No transactions, no
+// ON UPDATE CURRENT_TIMESTAMP: every stamp is written explicitly, as the harness and the engine do.
+class StandInDatabase {
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final String name;
+    private final String url;
+    private final String defaultZone;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    StandInDatabase(String name, String defaultZone) {
+        this.name = name;
+        this.defaultZone = defaultZone;
+        // Unique per instance: SchemaMigrator caches its snapshot by URL + catalog
+        this.url = "jdbc:standin:" + name + ":" + INSTANCES.incrementAndGet();
+    }
+
+    private static class Table {
+        final String name;
+        final List<String> columns = new ArrayList<>();
+        final List<String> binary = new ArrayList<>();
+        final List<List<String>> uniqueKeys = new ArrayList<>();
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        String autoIncrement;
+        long nextId = 1;
+
+        Table(String name) {
+            this.name = name;
+        }
+    }
+
+    // --- JDBC FRONT ---
+    Connection open() {
+        String[] zone = {defaultZone};
+        boolean[] closed = {false};
+        return proxy(Connection.class, (p, method, args) -> {
+            switch (method.getName()) {
+                case "createStatement":
+                    return statement(null, zone);
+                case "prepareStatement":
+                    return statement((String) args[0], zone);
+                case "getMetaData":
+                    return proxy(DatabaseMetaData.class, (mp, m, a) -> {
+                        if (m.getName().equals("getURL")) return url;
+                        throw unsupported("DatabaseMetaData." + m.getName());
+                    });
+                case "getCatalog":
+                    return name;
+                case "close":
+                    closed[0] = true;
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                default:
+                    throw unsupported("Connection." + method.getName());
+            }
+        });
+    }
+
+    // sql == null for createStatement(); the SQL then comes with each execute call
+    private Statement statement(String prepared, String[] zone) {
+        Map<Integer, Object> params = new HashMap<>();
+        List<Map<Integer, Object>> batch = new ArrayList<>();
+        Class<? extends Statement> type = prepared == null ? Statement.class : PreparedStatement.class;
+        return proxy(type, (p, method, args) -> {
+            String m = method.getName();
+            if (m.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                params.put((Integer) args[0], parameter(m, args));
+                return null;
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : prepared;
+            switch (m) {
+                case "executeQuery":
+                    return query(sql, params, zone);
+                case "executeUpdate":
+                    return (int) update(sql, params, zone);
+                case "execute":
+                    if (sql.trim().toUpperCase().startsWith("SELECT")) {
+                        query(sql, params, zone);
+                        return true;
+                    }
+                    update(sql, params, zone);
+                    return false;
+                case "addBatch":
+                    batch.add(new HashMap<>(params));
+                    return null;
+                case "executeBatch": {
+                    int[] counts = new int[batch.size()];
+                    for (int i = 0; i < counts.length; i++) counts[i] = (int) update(prepared, batch.get(i), zone);
+                    batch.clear();
+                    return counts;
+                }
+                case "clearParameters":
+                    params.clear();
+                    return null;
+                case "close":
+                    return null;
+                default:
+                    throw unsupported("Statement." + m);
+            }
+        });
+    }
+
+    private static Object parameter(String setter, Object[] args) throws SQLException {
+        Object value = args[1];
+        if (setter.equals("setNull")) return null;
+        if (value instanceof InputStream) {
+            try (InputStream in = (InputStream) value) {
+                long length = args.length > 2 ? ((Number) args[2]).longValue() : -1;
+                return length >= 0 ? in.readNBytes((int) length) : in.readAllBytes();
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
+        }
+        return normalize(value);
+    }
+
+    // Whole numbers compare as Long whichever setter or literal they came from
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) return ((Number) value).longValue();
+        return value;
+    }
+
+    private ResultSet query(String sql, Map<Integer, Object> params, String[] zone) throws SQLException {
+        synchronized (this) {
+            if (sql.trim().equalsIgnoreCase("SELECT @@session.time_zone")) {
+                return resultSet(List.<Object[]>of(new Object[]{zone[0]}), new boolean[2]);
+            }
+            return new Parser(sql, params).select();
+        }
+    }
+
+    private long update(String sql, Map<Integer, Object> params, String[] zone) throws SQLException {
+        synchronized (this) {
+            Matcher setZone = Pattern.compile("(?i)\\s*SET\\s+time_zone\\s*=\\s*(?:'([^']*)'|\\?)\\s*").matcher(sql);
+            if (setZone.matches()) {
+                zone[0] = setZone.group(1) != null ? setZone.group(1) : String.valueOf(params.get(1));
+                return 0;
+            }
+            return new Parser(sql, params).modify();
+        }
+    }
+
+    private static ResultSet resultSet(List<Object[]> rows, boolean[] binary) {
+        int[] at = {-1};
+        boolean[] wasNull = {false};
+        return proxy(ResultSet.class, (p, method, args) -> {
+            String m = method.getName();
+            switch (m) {
+                case "next":
+                    return ++at[0] < rows.size();
+                case "close":
+                    return null;
+                case "wasNull":
+                    return wasNull[0];
+                case "getMetaData":
+                    return proxy(ResultSetMetaData.class, (mp, mm, a) -> {
+                        if (mm.getName().equals("getColumnCount")) return binary.length - 1;
+                        if (mm.getName().equals("getColumnType")) return binary[(Integer) a[0]] ? Types.LONGVARBINARY : Types.VARCHAR;
+                        throw unsupported("ResultSetMetaData." + mm.getName());
+                    });
+                default:
+                    break;
+            }
+            if (!m.startsWith("get") || args == null || !(args[0] instanceof Integer)) {
+                throw unsupported("ResultSet." + m);
+            }
+            Object value = rows.get(at[0])[(Integer) args[0] - 1];
+            wasNull[0] = value == null;
+            switch (m) {
+                case "getObject":
+                    return value;
+                case "getString":
+                    return value == null ? null : value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : String.valueOf(value);
+                case "getLong":
+                    return value == null ? 0L : value instanceof Number ? ((Number) value).longValue() : Long.parseLong(value.toString());
+                case "getInt":
+                    return value == null ? 0 : value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+                case "getBytes":
+                    return value;
+                case "getBlob":
+                    return value == null ? null : new SerialBlob((byte[]) value);
+                default:
+                    throw unsupported("ResultSet." + m);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StandInDatabase.class.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals": return p == args[0];
+                    case "hashCode": return System.identityHashCode(p);
+                    default: return type.getSimpleName() + "(stand-in)";
+                }
+            }
+            try {
+                return handler.invoke(p, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static SQLFeatureNotSupportedException unsupported(String what) {
+        return new SQLFeatureNotSupportedException("Stand-in database does not support " + what);
+    }
+
+    // --- SQL ENGINE ---
+    // Column values of the rows in scope, innermost (sub-select) first; 'inserted' backs VALUES(col)
+    private record Scope(String alias, Map<String, Object> row, Scope outer, Map<String, Object> inserted) {}
+
+    private interface Expr {
+        Object eval(Scope scope) throws SQLException;
+    }
+
+    private interface Condition {
+        boolean test(Scope scope) throws SQLException;
+    }
+
+    private record Assignment(String column, Expr value) {}
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "\\s*(?:('(?:[^']|'')*')|(\\d+(?:\\.\\d+)?)|([A-Za-z_@][A-Za-z0-9_@]*)|(>=|<=|[(),.*=?<>]))");
+
+    private class Parser {
+        private final String sql;
+        private final Map<Integer, Object> params;
+        private final List<String> tokens = new ArrayList<>();
+        private int pos;
+        private int paramCount;
+
+        Parser(String sql, Map<Integer, Object> params) throws SQLException {
+            this.sql = sql;
+            this.params = params;
+            Matcher m = TOKEN.matcher(sql);
+            int end = 0;
+            while (end < sql.length() && m.find(end) && m.start() == end) {
+                tokens.add(m.group().trim());
+                end = m.end();
+            }
+            if (!sql.substring(end).isBlank()) throw new SQLException("Stand-in could not read SQL near: " + sql.substring(end));
+        }
+
+        // --- STATEMENTS ---
+        ResultSet select() throws SQLException {
+            expect("SELECT");
+            boolean distinct = accept("DISTINCT");
+            List<Expr> exprs = new ArrayList<>();
+            List<String> plainColumns = new ArrayList<>();
+            boolean count = false;
+            do {
+                if (peekIs("COUNT")) count = true;
+                plainColumns.add(peekColumn());
+                exprs.add(expr());
+            } while (accept(","));
+            expect("FROM");
+            String tableName = tableName();
+            String alias = alias();
+            Condition where = accept("WHERE") ? condition() : s -> true;
+            end();
+
+            Table table = table(tableName);
+            List<Object[]> rows = new ArrayList<>();
+            for (Map<String, Object> row : table.rows) {
+                Scope scope = new Scope(alias, row, null, null);
+                if (!where.test(scope)) continue;
+                Object[] values = new Object[exprs.size()];
+                for (int i = 0; i < values.length; i++) values[i] = exprs.get(i).eval(scope);
+                rows.add(values);
+            }
+            if (count) {
+                rows = List.<Object[]>of(new Object[]{(long) rows.size()});
+            } else if (distinct) {
+                Map<List<Object>, Object[]> unique = new LinkedHashMap<>();
+                for (Object[] r : rows) unique.putIfAbsent(List.of(r), r);
+                rows = new ArrayList<>(unique.values());
+            }
+
+            boolean[] binary = new boolean[exprs.size() + 1];
+            for (int i = 0; i < exprs.size(); i++) {
+                binary[i + 1] = plainColumns.get(i) != null && table.binary.contains(plainColumns.get(i));
+            }
+            return resultSet(rows, binary);
+        }
+
+        long modify() throws SQLException {
+            if (accept("INSERT")) return insert();
+            if (accept("UPDATE")) return updateRows();
+            if (accept("DELETE")) return delete();
+            if (accept("CREATE")) return create();
+            throw new SQLException("Stand-in does not run: " + sql);
+        }
+
+        private long insert() throws SQLException {
+            expect("INTO");
+            Table table = table(tableName());
+            List<String> columns = new ArrayList<>();
+            expect("(");
+            do columns.add(column(table)); while (accept(","));
+            expect(")");
+            expect("VALUES");
+            expect("(");
+            List<Expr> values = new ArrayList<>();
+            do values.add(expr()); while (accept(","));
+            expect(")");
+            List<Assignment> onDuplicate = null;
+            if (accept("ON")) {
+                expect("DUPLICATE");
+                expect("KEY");
+                expect("UPDATE");
+                onDuplicate = assignments(table);
+            }
+            end();
+            if (columns.size() != values.size()) throw new SQLException("Column count doesn't match value count: " + sql);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String c : table.columns) row.put(c, null);
+            Scope empty = new Scope(null, Map.of(), null, null);
+            for (int i = 0; i < columns.size(); i++) row.put(columns.get(i), values.get(i).eval(empty));
+
+            Map<String, Object> existing = duplicateOf(table, row, null);
+            if (existing != null) {
+                if (onDuplicate == null) throw new SQLIntegrityConstraintViolationException("Duplicate entry in " + table.name);
+                // MySQL counts an upsert that changed the row as 2, one that changed nothing as 0
+                return apply(table, existing, onDuplicate, new Scope(null, existing, null, row)) ? 2 : 0;
+            }
+            if (table.autoIncrement != null) {
+                Object id = row.get(table.autoIncrement);
+                if (id == null) row.put(table.autoIncrement, table.nextId++);
+                else table.nextId = Math.max(table.nextId, ((Number) id).longValue() + 1);
+            }
+            table.rows.add(row);
+            return 1;
+        }
+
+        private long updateRows() throws SQLException {
+            Table table = table(tableName());
+            String alias = alias();
+            expect("SET");
+            List<Assignment> sets = assignments(table);
+            Condition where = accept("WHERE") ? condition() : s -> true;
+            end();
+            long changed = 0;
+            for (Map<String, Object> row : table.rows) {
+                Scope scope = new Scope(alias, row, null, null);
+                if (where.test(scope) && apply(table, row, sets, scope)) changed++;
+            }
+            return changed;
+        }
+
+        private long delete() throws SQLException {
+            expect("FROM");
+            Table table = table(tableName());
+            Condition where = accept("WHERE") ? condition() : s -> true;
+            end();
+            long before = table.rows.size();
+            List<Map<String, Object>> kept = new ArrayList<>();
+            for (Map<String, Object> row : table.rows) {
+                if (!where.test(new Scope(null, row, null, null))) kept.add(row);
+            }
+            table.rows.clear();
+            table.rows.addAll(kept);
+            return before - kept.size();
+        }
+
+        // Column definitions only need a name plus AUTO_INCREMENT / PRIMARY KEY / UNIQUE / BLOB hints
+        private long create() throws SQLException {
+            expect("TABLE");
+            expect("IF");
+            expect("NOT");
+            expect("EXISTS");
+            String tableName = tableName();
+            expect("(");
+            Table table = new Table(tableName);
+            do {
+                if (accept("PRIMARY")) {
+                    expect("KEY");
+                    expect("(");
+                    List<String> key = new ArrayList<>();
+                    do key.add(identifier()); while (accept(","));
+                    expect(")");
+                    table.uniqueKeys.add(key);
+                    continue;
+                }
+                String column = identifier();
+                table.columns.add(column);
+                int depth = 0;
+                while (depth > 0 || !(peekIs(",") || peekIs(")"))) {
+                    String t = next().toUpperCase();
+                    if (t.equals("(")) depth++;
+                    else if (t.equals(")")) depth--;
+                    else if (t.equals("AUTO_INCREMENT")) table.autoIncrement = column;
+                    else if (t.equals("UNIQUE") || t.equals("PRIMARY")) table.uniqueKeys.add(List.of(column));
+                    else if (t.endsWith("BLOB") || t.endsWith("BINARY")) table.binary.add(column);
+                }
+            } while (accept(","));
+            expect(")");
+            end();
+            tables.putIfAbsent(tableName, table);
+            return 0;
+        }
+
+        // --- PIECES ---
+        private List<Assignment> assignments(Table table) throws SQLException {
+            List<Assignment> list = new ArrayList<>();
+            do {
+                String column = column(table);
+                expect("=");
+                list.add(new Assignment(column, expr()));
+            } while (accept(","));
+            return list;
+        }
+
+        // All values are worked out against the old row, then written; true if anything changed
+        private boolean apply(Table table, Map<String, Object> row, List<Assignment> sets, Scope scope) throws SQLException {
+            Map<String, Object> updated = new LinkedHashMap<>(row);
+            for (Assignment a : sets) updated.put(a.column(), a.value().eval(scope));
+            if (updated.equals(row)) return false;
+            if (duplicateOf(table, updated, row) != null) throw new SQLIntegrityConstraintViolationException("Duplicate entry in " + table.name);
+            row.putAll(updated);
+            return true;
+        }
+
+        private Map<String, Object> duplicateOf(Table table, Map<String, Object> row, Map<String, Object> self) {
+            for (Map<String, Object> other : table.rows) {
+                if (other == self) continue;
+                for (List<String> key : table.uniqueKeys) {
+                    boolean same = true;
+                    for (String c : key) {
+                        if (row.get(c) == null || !same(row.get(c), other.get(c))) {
+                            same = false;
+                            break;
+                        }
+                    }
+                    if (same) return other;
+                }
+            }
+            return null;
+        }
+
+        private Condition condition() throws SQLException {
+            List<Condition> parts = new ArrayList<>();
+            do parts.add(comparison()); while (accept("AND"));
+            return scope -> {
+                for (Condition c : parts) if (!c.test(scope)) return false;
+                return true;
+            };
+        }
+
+        private Condition comparison() throws SQLException {
+            Expr left = expr();
+            if (accept("=")) {
+                Expr right = expr();
+                return s -> same(left.eval(s), right.eval(s));
+            }
+            if (accept(">=")) {
+                Expr right = expr();
+                return s -> {
+                    Object l = left.eval(s);
+                    Object r = right.eval(s);
+                    return l != null && r != null && asLong(l) >= asLong(r);
+                };
+            }
+            if (accept("IN")) {
+                expect("(");
+                List<Expr> options = new ArrayList<>();
+                do options.add(expr()); while (accept(","));
+                expect(")");
+                return s -> {
+                    Object l = left.eval(s);
+                    for (Expr o : options) if (same(l, o.eval(s))) return true;
+                    return false;
+                };
+            }
+            throw new SQLException("Stand-in only compares with =, >= or IN: " + sql);
+        }
+
+        private Expr expr() throws SQLException {
+            String t = next();
+            if (t.equals("?")) {
+                int index = ++paramCount;
+                return s -> {
+                    if (!params.containsKey(index)) throw new SQLException("No value specified for parameter " + index);
+                    return params.get(index);
+                };
+            }
+            if (t.startsWith("'")) {
+                String text = t.substring(1, t.length() - 1).replace("''", "'");
+                return s -> text;
+            }
+            if (Character.isDigit(t.charAt(0))) {
+                Object number = t.contains(".") ? new BigDecimal(t) : (Object) Long.parseLong(t);
+                return s -> number;
+            }
+            if (t.equals("(")) {
+                Expr inner = peekIs("SELECT") ? subSelect() : expr();
+                expect(")");
+                return inner;
+            }
+            if (t.equalsIgnoreCase("NULL")) return s -> null;
+            if (t.equals("*")) return s -> null;
+            if (peekIs("(")) return function(t.toUpperCase());
+
+            String qualifier = null;
+            String column = t.toLowerCase();
+            if (accept(".")) {
+                qualifier = column;
+                column = identifier();
+            }
+            String q = qualifier;
+            String c = column;
+            return s -> lookup(s, q, c);
+        }
+
+        private Expr function(String fn) throws SQLException {
+            expect("(");
+            if (fn.equals("VALUES")) {
+                // VALUES(col) = the value the INSERT tried to put in col
+                String column = identifier();
+                expect(")");
+                return s -> {
+                    if (s.inserted() == null) throw new SQLException("VALUES() outside ON DUPLICATE KEY UPDATE");
+                    return s.inserted().get(column);
+                };
+            }
+            List<Expr> args = new ArrayList<>();
+            if (!peekIs(")")) {
+                do args.add(expr()); while (accept(","));
+            }
+            expect(")");
+            switch (fn) {
+                case "UNIX_TIMESTAMP":   // Stamps are kept as epoch seconds already
+                case "FROM_UNIXTIME":
+                    return s -> {
+                        Object v = args.get(0).eval(s);
+                        return v == null ? null : asLong(v);
+                    };
+                case "COALESCE":
+                    return s -> {
+                        for (Expr a : args) {
+                            Object v = a.eval(s);
+                            if (v != null) return v;
+                        }
+                        return null;
+                    };
+                case "LENGTH":
+                    return s -> {
+                        Object v = args.get(0).eval(s);
+                        if (v == null) return null;
+                        return (long) (v instanceof byte[] ? ((byte[]) v).length : v.toString().getBytes(StandardCharsets.UTF_8).length);
+                    };
+                case "COUNT":     // Only as the whole select list; select() does the counting
+                    return s -> null;
+                case "DATABASE":
+                    return s -> name;
+                default:
+                    throw new SQLException("Stand-in has no function " + fn);
+            }
+        }
+
+        // (SELECT r.col FROM table r WHERE ...) inside an outer row; the first match wins, none = NULL
+        private Expr subSelect() throws SQLException {
+            expect("SELECT");
+            Expr value = expr();
+            expect("FROM");
+            String tableName = tableName();
+            String alias = alias();
+            Condition where = accept("WHERE") ? condition() : s -> true;
+            return s -> {
+                for (Map<String, Object> row : table(tableName).rows) {
+                    Scope inner = new Scope(alias, row, s, s.inserted());
+                    if (where.test(inner)) return value.eval(inner);
+                }
+                return null;
+            };
+        }
+
+        private Object lookup(Scope scope, String qualifier, String column) throws SQLException {
+            for (Scope s = scope; s != null; s = s.outer()) {
+                if (qualifier != null && !qualifier.equals(s.alias())) continue;
+                if (s.row().containsKey(column)) return s.row().get(column);
+            }
+            throw new SQLException("Unknown column '" + (qualifier == null ? "" : qualifier + ".") + column + "'");
+        }
+
+        private String column(Table table) throws SQLException {
+            String c = identifier();
+            if (!table.columns.contains(c)) throw new SQLException("Unknown column '" + c + "' in " + table.name);
+            return c;
+        }
+
+        private String tableName() throws SQLException {
+            String t = identifier();
+            if (accept(".")) t += "." + identifier();
+            return t;
+        }
+
+        private String alias() throws SQLException {
+            if (peekIs("WHERE") || peekIs("SET") || pos >= tokens.size() || peekIs(")")) return null;
+            return identifier();
+        }
+
+        // Name of a bare [alias.]column select item (for BLOB metadata), else null
+        private String peekColumn() {
+            if (pos >= tokens.size() || !Character.isLetter(tokens.get(pos).charAt(0))) return null;
+            int at = pos + 1;
+            String column = tokens.get(pos);
+            if (at < tokens.size() && tokens.get(at).equals(".")) {
+                column = at + 1 < tokens.size() ? tokens.get(at + 1) : null;
+                at += 2;
+            }
+            if (at < tokens.size() && tokens.get(at).equals("(")) return null;
+            return column == null ? null : column.toLowerCase();
+        }
+
+        private String identifier() throws SQLException {
+            String t = next();
+            if (!Character.isLetter(t.charAt(0)) && t.charAt(0) != '_') throw new SQLException("Expected a name, got '" + t + "' in: " + sql);
+            return t.toLowerCase();
+        }
+
+        private String next() throws SQLException {
+            if (pos >= tokens.size()) throw new SQLException("Unexpected end of SQL: " + sql);
+            return tokens.get(pos++);
+        }
+
+        private boolean peekIs(String t) {
+            return pos < tokens.size() && tokens.get(pos).equalsIgnoreCase(t);
+        }
+
+        private boolean accept(String t) {
+            if (!peekIs(t)) return false;
+            pos++;
+            return true;
+        }
+
+        private void expect(String t) throws SQLException {
+            if (!accept(t)) throw new SQLException("Expected " + t + " at token " + pos + " of: " + sql);
+        }
+
+        private void end() throws SQLException {
+            if (pos != tokens.size()) throw new SQLException("Stand-in did not understand '" + tokens.get(pos) + "' in: " + sql);
+        }
+    }
+
+    private Table table(String tableName) throws SQLException {
+        Table table = tables.get(tableName);
+        if (table == null && tableName.startsWith("information_schema.")) table = informationSchema(tableName);
+        if (table == null) throw new SQLException("Table '" + name + "." + tableName + "' doesn't exist");
+        return table;
+    }
+
+    // Just the two views SchemaMigrator's snapshot reads
+    private Table informationSchema(String view) {
+        Table t = new Table(view);
+        if (view.equals("information_schema.columns")) {
+            t.columns.addAll(List.of("table_schema", "table_name", "column_name"));
+            for (Table table : tables.values()) {
+                for (String c : table.columns) t.rows.add(Map.of("table_schema", name, "table_name", table.name, "column_name", c));
+            }
+            return t;
+        }
+        if (view.equals("information_schema.statistics")) {
+            t.columns.addAll(List.of("table_schema", "table_name", "index_name"));
+            for (Table table : tables.values()) {
+                for (List<String> key : table.uniqueKeys) {
+                    t.rows.add(Map.of("table_schema", name, "table_name", table.name, "index_name", String.join("_", key)));
+                }
+            }
+            return t;
+        }
+        return null;
+    }
+
+    // NULL never equals anything; numbers compare by value, anything else by its text
+    private static boolean same(Object a, Object b) {
+        if (a == null || b == null) return false;
+        if (a instanceof Number && b instanceof Number) return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+        if (a instanceof byte[] || b instanceof byte[]) return a instanceof byte[] && b instanceof byte[] && Arrays.equals((byte[]) a, (byte[]) b);
+        return Objects.equals(a.toString(), b.toString());
+    }
+
+    private static long asLong(Object v) {
+        return v instanceof Number ? ((Number) v).longValue() : Long.parseLong(v.toString().trim());
+    }
+}
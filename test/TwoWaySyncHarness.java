@@ -0,0 +1,213 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Deterministic check of TwoWaySync against two throwaway databases standing in for Online and Local.
+// Every stamp is set explicitly, so a run never depends on the wall clock or on the servers' time zones.
+//
+// By default both sides are in-process StandInDatabase instances (no server, no driver), so it runs with the build:
+//   javac -encoding UTF-8 -d out src/*.java test/*.java && java -cp out TwoWaySyncHarness
+//
+// The same checks can run against two real MySQL servers (put them in different zones to check the UTC handling):
+//   java -cp out:mysql-connector-j.jar -Dtws.online.url=jdbc:mysql://localhost:3307/tws_online \
+//        -Dtws.local.url=jdbc:mysql://localhost:3308/tws_local [-Dtws.user=root -Dtws.pass=] TwoWaySyncHarness
+//   WARNING: that deletes the tws_alice / tws_bob rows (and pet_id 900) in both databases.
+//
+// Exits 1 on any failure.
+public class TwoWaySyncHarness {
+
+    private static final String ALICE = "tws_alice";
+    private static final String BOB = "tws_bob";
+    private static final long T = 1_700_000_000L; // Base stamp (epoch seconds)
+
+    private static final String ONLINE_URL = System.getProperty("tws.online.url");
+    private static final String LOCAL_URL = System.getProperty("tws.local.url");
+    private static final String USER = System.getProperty("tws.user", "root");
+    private static final String PASS = System.getProperty("tws.pass", "");
+
+    // Stand-in schema: AUTO_INCREMENT id, the sync key, the copied columns, plus what must never travel
+    private static final Map<String, String> ID_COLUMNS = Map.of(
+            "user_accounts", "user_id", "pets_accounts", "pet_id", "vet_appointments", "appt_id",
+            "adoption_applications", "app_id", "transactions", "id");
+    private static final Map<String, String> EXTRA_COLUMNS = Map.of(
+            "user_accounts", ", password VARCHAR(255)", "pets_accounts", ", image LONGBLOB");
+
+    private static final List<String> failures = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        boolean servers = ONLINE_URL != null && LOCAL_URL != null;
+        DBDual.ConnectionSource onlineSource = servers ? () -> open(ONLINE_URL) : standIn("online", "+00:00")::open;
+        DBDual.ConnectionSource localSource = servers ? () -> open(LOCAL_URL) : standIn("local", "+08:00")::open;
+        System.out.println("TwoWaySyncHarness against " + (servers ? ONLINE_URL + " / " + LOCAL_URL : "in-process stand-ins"));
+        TwoWaySync sync = new TwoWaySync(onlineSource, localSource, TwoWaySync.TABLES);
+
+        try (Connection online = onlineSource.open(); Connection local = localSource.open()) {
+            if (servers) {
+                reset(online);
+                reset(local);
+            }
+            try (Statement stmt = local.createStatement()) {
+                stmt.execute(TwoWaySync.CREATE_MARKS_TABLE);
+                stmt.executeUpdate("DELETE FROM twoway_sync_marks WHERE username IN ('" + ALICE + "', '" + BOB + "')");
+            }
+
+            // --- Round 1: first round seeds the marks ---
+            addUser(online, ALICE, "Alice", "online-hash", T + 5);
+            addUser(local, ALICE, "Alice", "local-hash", T);
+            addUser(online, BOB, "Bob", "bob-hash", T);
+            // Same pet on both, different content and stamps (as after an ALTER or backfill touched one side)
+            addPet(online, null, "p1", ALICE, "Healthy", T + 50);
+            addPet(local, null, "p1", ALICE, "Checkup due", T + 10);
+            // Alice's offline-only pet got id 900 locally; Bob's cloud pet has the same id
+            addPet(local, 900, "p2", ALICE, "New", T + 20);
+            addPet(online, 900, "b900", BOB, "Bob's", T + 20);
+            setImage(online, "p1", new byte[]{1, 2, 3});
+
+            sync.syncOnce(ALICE);
+
+            check(value(online, "SELECT health_status FROM pets_accounts WHERE sync_uuid = 'p1'").equals("Healthy")
+                    && value(local, "SELECT health_status FROM pets_accounts WHERE sync_uuid = 'p1'").equals("Checkup due"),
+                    "first round must not treat existing rows as edits");
+            check(value(online, "SELECT owner_username FROM pets_accounts WHERE sync_uuid = 'p2'").equals(ALICE),
+                    "offline-only pet pushed up");
+            check(!value(online, "SELECT pet_id FROM pets_accounts WHERE sync_uuid = 'p2'").equals("900"),
+                    "pushed pet gets its own id online");
+            check(value(online, "SELECT health_status FROM pets_accounts WHERE pet_id = 900").equals("Bob's"),
+                    "id collision leaves the other user's row alone");
+            check(value(local, "SELECT COUNT(*) FROM pets_accounts WHERE owner_username = '" + BOB + "'").equals("0"),
+                    "other users' rows are never pulled");
+
+            // --- Round 2: conflicts, scope, credentials, references ---
+            update(online, "UPDATE pets_accounts SET health_status = 'Online edit', last_updated = FROM_UNIXTIME(?) WHERE sync_uuid = 'p1'", T + 100);
+            update(local, "UPDATE pets_accounts SET health_status = 'Local edit', last_updated = FROM_UNIXTIME(?) WHERE sync_uuid = 'p1'", T + 200);
+            update(online, "UPDATE user_accounts SET first_name = 'Alicia', last_updated = FROM_UNIXTIME(?) WHERE username = '" + ALICE + "'", T + 100);
+            update(local, "UPDATE user_accounts SET first_name = 'Ally', last_updated = FROM_UNIXTIME(?) WHERE username = '" + ALICE + "'", T + 300);
+            update(online, "UPDATE pets_accounts SET health_status = 'Bob edit', last_updated = FROM_UNIXTIME(?) WHERE sync_uuid = 'b900'", T + 400);
+            update(local, "INSERT INTO adoption_applications (sync_uuid, pet_id, applicant_name, pet_name, status, last_updated) " +
+                    "VALUES ('a1', 900, '" + ALICE + "', 'p2', 'Pending', FROM_UNIXTIME(?))", T + 150);
+            update(online, "INSERT INTO transactions (sync_uuid, username, description, amount, status, last_updated) " +
+                    "VALUES ('t1', '" + ALICE + "', 'Donation', 50.00, 'Paid', FROM_UNIXTIME(?))", T + 120);
+
+            sync.syncOnce(ALICE);
+
+            check(value(online, "SELECT health_status FROM pets_accounts WHERE sync_uuid = 'p1'").equals("Local edit"),
+                    "last writer (local) wins");
+            check(value(online, "SELECT UNIX_TIMESTAMP(last_updated) FROM pets_accounts WHERE sync_uuid = 'p1'").equals(String.valueOf(T + 200)),
+                    "copied row keeps the winner's stamp");
+            check(value(online, "SELECT LENGTH(image) FROM pets_accounts WHERE sync_uuid = 'p1'").equals("3"),
+                    "columns outside the list survive an update");
+            check(value(local, "SELECT first_name FROM user_accounts WHERE username = '" + ALICE + "'").equals("Alicia"),
+                    "user_accounts is online-wins");
+            check(value(local, "SELECT password FROM user_accounts WHERE username = '" + ALICE + "'").equals("local-hash")
+                    && value(online, "SELECT password FROM user_accounts WHERE username = '" + ALICE + "'").equals("online-hash"),
+                    "passwords are never copied");
+            check(value(online, "SELECT pet_id FROM adoption_applications WHERE sync_uuid = 'a1'")
+                            .equals(value(online, "SELECT pet_id FROM pets_accounts WHERE sync_uuid = 'p2'")),
+                    "application pet_id translated to the online pet id");
+            check(value(local, "SELECT status FROM transactions WHERE sync_uuid = 't1'").equals("Paid"),
+                    "transaction pulled down");
+            check(value(local, "SELECT COUNT(*) FROM pets_accounts WHERE sync_uuid = 'b900'").equals("0"),
+                    "other users' edits stay out of scope");
+
+            // --- Round 3: nothing changed, nothing copied ---
+            Map<String, int[]> summary = sync.syncOnce(ALICE);
+            for (Map.Entry<String, int[]> e : summary.entrySet()) {
+                check(e.getValue()[0] == 0 && e.getValue()[1] == 0, "idle round copies nothing (" + e.getKey() + ")");
+            }
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("✅ TwoWaySyncHarness: all checks passed");
+        } else {
+            failures.forEach(f -> System.err.println("❌ " + f));
+            System.exit(1);
+        }
+    }
+
+    // --- HELPERS ---
+    private static Connection open(String url) throws SQLException {
+        return DriverManager.getConnection(url, USER, PASS);
+    }
+
+    // Empty database holding just the synced tables, built from TwoWaySync.TABLES so the two stay in step
+    private static StandInDatabase standIn(String name, String zone) throws SQLException {
+        StandInDatabase db = new StandInDatabase(name, zone);
+        try (Connection conn = db.open(); Statement stmt = conn.createStatement()) {
+            for (TwoWaySync.TableSpec spec : TwoWaySync.TABLES) {
+                StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS " + spec.table + " (")
+                        .append(ID_COLUMNS.get(spec.table)).append(" INT AUTO_INCREMENT PRIMARY KEY, ")
+                        .append(spec.key).append(" VARCHAR(100) UNIQUE");
+                for (String column : spec.columns.split(",\\s*")) {
+                    if (!column.equals(spec.key)) ddl.append(", ").append(column).append(" TEXT");
+                }
+                if (spec.reference != null) ddl.append(", ").append(spec.reference.column()).append(" INT");
+                ddl.append(EXTRA_COLUMNS.getOrDefault(spec.table, "")).append(", last_updated TIMESTAMP)");
+                stmt.execute(ddl.toString());
+            }
+        }
+        return db;
+    }
+
+    private static void reset(Connection conn) throws SQLException {
+        DatabaseSetup.ensureSchema(conn);
+        try (Statement stmt = conn.createStatement()) {
+            String users = "('" + ALICE + "', '" + BOB + "')";
+            stmt.executeUpdate("DELETE FROM adoption_applications WHERE applicant_name IN " + users);
+            stmt.executeUpdate("DELETE FROM transactions WHERE username IN " + users);
+            stmt.executeUpdate("DELETE FROM pets_accounts WHERE owner_username IN " + users + " OR pet_id = 900");
+            stmt.executeUpdate("DELETE FROM user_accounts WHERE username IN " + users);
+        }
+    }
+
+    private static void addUser(Connection conn, String username, String firstName, String password, long stamp) throws SQLException {
+        update(conn, "INSERT INTO user_accounts (last_name, first_name, username, password, last_updated) " +
+                "VALUES ('Test', '" + firstName + "', '" + username + "', '" + password + "', FROM_UNIXTIME(?))", stamp);
+    }
+
+    private static void addPet(Connection conn, Integer petId, String syncId, String owner, String health, long stamp) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO pets_accounts " +
+                "(pet_id, sync_uuid, name, owner_username, health_status, status, last_updated) VALUES (?, ?, ?, ?, ?, 'Owned', FROM_UNIXTIME(?))")) {
+            stmt.setObject(1, petId);
+            stmt.setString(2, syncId);
+            stmt.setString(3, syncId);
+            stmt.setString(4, owner);
+            stmt.setString(5, health);
+            stmt.setLong(6, stamp);
+            stmt.executeUpdate();
+        }
+    }
+
+    // Keeps the stamp as it is, so the BLOB write isn't seen as an edit
+    private static void setImage(Connection conn, String syncId, byte[] data) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "UPDATE pets_accounts SET image = ?, last_updated = last_updated WHERE sync_uuid = ?")) {
+            stmt.setBytes(1, data);
+            stmt.setString(2, syncId);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void update(Connection conn, String sql, long stamp) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, stamp);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String value(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() && rs.getString(1) != null ? rs.getString(1) : "";
+        }
+    }
+
+    private static void check(boolean ok, String what) {
+        System.out.println((ok ? "  ok    " : "  FAIL  ") + what);
+        if (!ok) failures.add(what);
+    }
+}